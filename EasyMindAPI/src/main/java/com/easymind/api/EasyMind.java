@@ -16,13 +16,17 @@
 
 package com.easymind.api;
 
+import com.easymind.api.data.SearchResult;
+import com.easymind.api.entities.Note;
 import com.easymind.api.entities.Project;
 import com.easymind.api.entities.Settings;
+import com.easymind.api.entities.Task;
 import com.easymind.api.events.Event;
 import com.easymind.api.hook.EventHandler;
 import com.easymind.api.managers.WindowManager;
 import com.easymind.api.behaviors.Identifiable;
 import com.easymind.api.utils.cache.ProjectCacheStore;
+import com.easymind.api.utils.cache.ProjectItemCacheStore;
 import com.easymind.api.views.Window;
 
 import javax.annotation.Nonnull;
@@ -153,6 +157,56 @@ public interface EasyMind {
 
     void setProjectCacheStore(@Nonnull ProjectCacheStore projectCacheStore);
 
+    /**
+     * Returns the {@link com.easymind.api.utils.cache.ProjectItemCacheStore NoteCacheStore} shared by all the projects
+     * of this EasyMind instance.
+     *
+     * @see Project#getNoteCacheStore()
+     *
+     * @return Non-null shared note cache store for this EasyMind instance.
+     */
+
+    @Nonnull
+    ProjectItemCacheStore<Note> getNoteCacheStore();
+
+    /**
+     * Defines the {@link com.easymind.api.utils.cache.ProjectItemCacheStore NoteCacheStore} shared by all the projects
+     * of this EasyMind instance.
+     *
+     * @throws java.lang.NullPointerException
+     *         If note cache store is null.
+     *
+     * @param noteCacheStore
+     *        The shared note cache store to use for this EasyMind instance.
+     */
+
+    void setNoteCacheStore(@Nonnull ProjectItemCacheStore<Note> noteCacheStore);
+
+    /**
+     * Returns the {@link com.easymind.api.utils.cache.ProjectItemCacheStore TaskCacheStore} shared by all the projects
+     * of this EasyMind instance.
+     *
+     * @see Project#getTaskCacheStore()
+     *
+     * @return Non-null shared task cache store for this EasyMind instance.
+     */
+
+    @Nonnull
+    ProjectItemCacheStore<Task> getTaskCacheStore();
+
+    /**
+     * Defines the {@link com.easymind.api.utils.cache.ProjectItemCacheStore TaskCacheStore} shared by all the projects
+     * of this EasyMind instance.
+     *
+     * @throws java.lang.NullPointerException
+     *         If task cache store is null.
+     *
+     * @param taskCacheStore
+     *        The shared task cache store to use for this EasyMind instance.
+     */
+
+    void setTaskCacheStore(@Nonnull ProjectItemCacheStore<Task> taskCacheStore);
+
     /**
      * Constructs and save a new {@link com.easymind.api.entities.Project Project} with the provided parameters using
      * the current cache store.
@@ -320,6 +374,77 @@ public interface EasyMind {
     @Nonnull
     List<Project> getProjectsByTags(@Nonnull List<String> tags);
 
+    /**
+     * Searches the title and content of the {@link com.easymind.api.entities.Note Note} of every project for the words
+     * of the given text.
+     *
+     * @see com.easymind.api.entities.Project#searchNotes(String, int)
+     *
+     * @param text
+     *        The words to look for.
+     *
+     * @param limit
+     *        The maximum amount of results.
+     *
+     * @throws java.lang.NullPointerException
+     *         If text is null.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If limit is not positive.
+     *
+     * @return Possibly-empty immutable list of the matching notes, most relevant first.
+     */
+
+    @Nonnull
+    List<SearchResult<Note>> searchNotes(@Nonnull String text, int limit);
+
+    /**
+     * Searches the title and content of the {@link com.easymind.api.entities.Task Task} of every project for the words
+     * of the given text.
+     *
+     * @see com.easymind.api.entities.Project#searchTasks(String, int)
+     *
+     * @param text
+     *        The words to look for.
+     *
+     * @param limit
+     *        The maximum amount of results.
+     *
+     * @throws java.lang.NullPointerException
+     *         If text is null.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If limit is not positive.
+     *
+     * @return Possibly-empty immutable list of the matching tasks, most relevant first.
+     */
+
+    @Nonnull
+    List<SearchResult<Task>> searchTasks(@Nonnull String text, int limit);
+
+    /**
+     * Writes the pending writes of every cache store to the data source.
+     * <br>This is a barrier: once it returns true, every save and delete made before the call has been committed.
+     *
+     * @see com.easymind.api.utils.cache.CacheStore#flush()
+     *
+     * @return True, If nothing remains to be written and no write has been dropped since the previous flush.
+     */
+
+    boolean flush();
+
+    /**
+     * Flushes the pending writes of every cache store and releases their background resources, then delivers the
+     * pending events, including the ones of the last writes.
+     * <br>This instance must not be used anymore once shut down. Calling this method again has no effect.
+     *
+     * @see com.easymind.api.utils.cache.CacheStore#close()
+     *
+     * @return True, If nothing remains to be delivered or written.
+     */
+
+    boolean shutdown();
+
     /**
      * Handles the provided event.
      *
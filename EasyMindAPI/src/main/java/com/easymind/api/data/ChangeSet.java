@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.api.data;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * The changes of a {@link com.easymind.api.data.DataAccessObject DataAccessObject} since a given change sequence.
+ * <br>Only the last state of each changed element is reported: an element inserted then updated is updated, an element
+ * updated then deleted is deleted.
+ *
+ * @see com.easymind.api.data.DataAccessObject#findChangesSince(long)
+ *
+ * @param <T>
+ *        The data type.
+ */
+
+public final class ChangeSet<T> {
+
+    private final long sequence;
+
+    private final List<T> updated;
+
+    private final List<String> deleted;
+
+    public ChangeSet(long sequence, @Nonnull List<T> updated, @Nonnull List<String> deleted) {
+        this.sequence = sequence;
+        this.updated = List.copyOf(updated);
+        this.deleted = List.copyOf(deleted);
+    }
+
+    /**
+     * Gets the sequence of the last reported change, to read the next changes from.
+     *
+     * @return The change sequence.
+     */
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the current state of the inserted or updated elements.
+     *
+     * @return Immutable list of the changed elements.
+     */
+
+    @Nonnull
+    public List<T> getUpdated() {
+        return updated;
+    }
+
+    /**
+     * Gets the ids of the deleted elements.
+     *
+     * @return Immutable list of the deleted ids.
+     */
+
+    @Nonnull
+    public List<String> getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * Returns a {@code boolean} that say if no change has been reported.
+     *
+     * @return True, If nothing changed.
+     */
+
+    public boolean isEmpty() {
+        return updated.isEmpty() && deleted.isEmpty();
+    }
+}
@@ -17,8 +17,12 @@
 package com.easymind.api.data;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.sql.Connection;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
 
 /**
  * The layer that interacts directly with the data source.
@@ -63,6 +67,42 @@ public interface DataAccessObject<T> {
 
     boolean delete(T e);
 
+    /**
+     * Inserts all the provided elements to the data source within a single transaction.
+     * <br>Either every element is inserted or none of them.
+     *
+     * @param elements
+     *        The elements to insert.
+     *
+     * @return True, If all the elements have been inserted.
+     */
+
+    boolean insertAll(@Nonnull Collection<? extends T> elements);
+
+    /**
+     * Updates all the provided elements to the data source within a single transaction.
+     * <br>Either every element is updated or none of them.
+     *
+     * @param elements
+     *        The elements to update.
+     *
+     * @return True, If all the elements have been updated.
+     */
+
+    boolean updateAll(@Nonnull Collection<? extends T> elements);
+
+    /**
+     * Deletes all the provided elements from the data source within a single transaction.
+     * <br>Either every element is deleted or none of them.
+     *
+     * @param elements
+     *        The elements to delete.
+     *
+     * @return True, If all the elements have been deleted.
+     */
+
+    boolean deleteAll(@Nonnull Collection<? extends T> elements);
+
     /**
      * Looks for the element that matching to the provided id.
      *
@@ -93,6 +133,80 @@ public interface DataAccessObject<T> {
 
     List<String> getValues(String column);
 
+    /**
+     * Lazily reads the elements of the data source, one row at a time, so the memory use does not depend on
+     * the amount of elements.
+     * <br>The returned stream holds an open cursor on the data source and must be closed, ideally with a
+     * try-with-resources statement.
+     *
+     * @param fetchSize
+     *        The amount of rows the driver should fetch at once, or 0 for the driver default.
+     *
+     * @return Non-null stream of all inserted elements.
+     */
+
+    @Nonnull
+    Stream<T> streamAll(int fetchSize);
+
+    /**
+     * Lazily reads the values of the given column, one row at a time.
+     * <br>The returned stream holds an open cursor on the data source and must be closed, ideally with a
+     * try-with-resources statement.
+     *
+     * @param column
+     *        The column to get values.
+     *
+     * @param fetchSize
+     *        The amount of rows the driver should fetch at once, or 0 for the driver default.
+     *
+     * @return Non-null stream of the column values.
+     */
+
+    @Nonnull
+    Stream<String> streamValues(@Nonnull String column, int fetchSize);
+
+    /**
+     * Reads the page of elements following the given cursor, most recently modified first.
+     *
+     * @see com.easymind.api.data.Page
+     *
+     * @param after
+     *        The cursor of the previous page or null for the first page.
+     *
+     * @param size
+     *        The maximum amount of elements of the page.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If size is not positive.
+     *
+     * @return Non-null page of elements.
+     */
+
+    @Nonnull
+    Page<T> findPage(@Nullable Page.Cursor after, int size);
+
+    /**
+     * Returns the sequence of the last change made to the data source, by any writer.
+     *
+     * @see #findChangesSince(long)
+     *
+     * @return The last change sequence, 0 if nothing changed yet.
+     */
+
+    long getChangeSequence();
+
+    /**
+     * Looks for the elements inserted, updated or deleted after the provided change sequence, by any writer.
+     *
+     * @param sequence
+     *        The sequence of the last change already seen.
+     *
+     * @return Non-null changes, holding the sequence to read the next changes from.
+     */
+
+    @Nonnull
+    ChangeSet<T> findChangesSince(long sequence);
+
     /**
      * Looks for the amounts of elements into the data source.
      *
@@ -101,8 +215,22 @@ public interface DataAccessObject<T> {
 
     int getCount();
 
+    /**
+     * Runs the provided writes within a single transaction, the writes of this object joining it instead of
+     * committing on their own.
+     * <br>The transactions of every object sharing the same database are serialized.
+     *
+     * @param writes
+     *        The writes to run, returning false on failure.
+     *
+     * @return True, If the writes succeeded and the transaction has been committed, else it is rolled back.
+     */
+
+    boolean transaction(@Nonnull BooleanSupplier writes);
+
     /**
      * Returns the currently used {@link java.sql.Connection Connection} for this DataAccessObject instance.
+     * <br>This is the connection the writes go through, the reads may use other connections to the same database.
      *
      * @return The current data source connection for this instance.
      */
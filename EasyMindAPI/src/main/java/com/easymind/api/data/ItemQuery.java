@@ -0,0 +1,357 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.easymind.api.data;
+
+import com.easymind.api.entities.AbstractBuilder;
+import com.easymind.api.entities.Priority;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * An immutable filter over {@link com.easymind.api.entities.ProjectItem ProjectItem}, run by the data source as a single
+ * parameterized statement instead of being evaluated against the loaded items.
+ * <br>Every criteria left unset matches any item. The priority, done flag and deadline criteria, as well as the
+ * {@link Order#DEADLINE} and {@link Order#PRIORITY} orders, only apply to {@link com.easymind.api.entities.Task Task}.
+ *
+ * <pre>{@code
+ * ItemQuery overdue = new ItemQuery.Builder()
+ *         .setPriority(Priority.HIGH)
+ *         .setDone(false)
+ *         .setDeadlineTo(new Date())
+ *         .setOrder(ItemQuery.Order.DEADLINE, false)
+ *         .setLimit(50)
+ *         .build();
+ * }</pre>
+ */
+
+public final class ItemQuery {
+
+    private final String ownerId, title;
+
+    private final boolean ignoreCase, descending;
+
+    private final Boolean favorite, done;
+
+    private final Priority priority;
+
+    private final Date deadlineFrom, deadlineTo;
+
+    private final Order order;
+
+    private final int limit;
+
+    private ItemQuery(@Nonnull Builder builder) {
+        this.ownerId = builder.ownerId;
+        this.title = builder.title;
+        this.ignoreCase = builder.ignoreCase;
+        this.favorite = builder.favorite;
+        this.done = builder.done;
+        this.priority = builder.priority;
+        this.deadlineFrom = builder.deadlineFrom;
+        this.deadlineTo = builder.deadlineTo;
+        this.order = builder.order;
+        this.descending = builder.descending;
+        this.limit = builder.limit;
+    }
+
+    /**
+     * Gets the owner project id the items must have.
+     *
+     * @return The owner id or null for any owner.
+     */
+
+    @Nullable
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    /**
+     * Gets the title the items must have.
+     *
+     * @see #isIgnoreCase()
+     *
+     * @return The title or null for any title.
+     */
+
+    @Nullable
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Returns a {@code boolean} that say if the title is compared without case.
+     *
+     * @return True, If the title case is ignored.
+     */
+
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    /**
+     * Gets the favorite state the items must have.
+     *
+     * @return The favorite state or null for any state.
+     */
+
+    @Nullable
+    public Boolean getFavorite() {
+        return favorite;
+    }
+
+    /**
+     * Gets the done state the tasks must have.
+     *
+     * @return The done state or null for any state.
+     */
+
+    @Nullable
+    public Boolean getDone() {
+        return done;
+    }
+
+    /**
+     * Gets the priority the tasks must have.
+     *
+     * @return The priority or null for any priority.
+     */
+
+    @Nullable
+    public Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Gets the inclusive lower bound of the task deadlines.
+     *
+     * @return The lower bound or null if unbounded.
+     */
+
+    @Nullable
+    public Date getDeadlineFrom() {
+        return deadlineFrom;
+    }
+
+    /**
+     * Gets the exclusive upper bound of the task deadlines.
+     *
+     * @return The upper bound or null if unbounded.
+     */
+
+    @Nullable
+    public Date getDeadlineTo() {
+        return deadlineTo;
+    }
+
+    /**
+     * Gets the order of the results, ties being ordered by id.
+     *
+     * @return Non-null order.
+     */
+
+    @Nonnull
+    public Order getOrder() {
+        return order;
+    }
+
+    /**
+     * Returns a {@code boolean} that say if the results are sorted in descending order.
+     *
+     * @return True, If the order is descending.
+     */
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Gets the maximum amount of results.
+     *
+     * @return The limit or 0 if unlimited.
+     */
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns a {@code boolean} that say if this query uses criteria or an order only supported by tasks.
+     *
+     * @return True, If this query can only run against tasks.
+     */
+
+    public boolean isTaskQuery() {
+        return done != null || priority != null || deadlineFrom != null || deadlineTo != null
+                || order == Order.DEADLINE || order == Order.PRIORITY;
+    }
+
+    @Override
+    public String toString() {
+        return "ItemQuery{" +
+                "ownerId=" + ownerId +
+                ", title=" + title +
+                ", ignoreCase=" + ignoreCase +
+                ", favorite=" + favorite +
+                ", done=" + done +
+                ", priority=" + priority +
+                ", deadlineFrom=" + deadlineFrom +
+                ", deadlineTo=" + deadlineTo +
+                ", order=" + order +
+                ", descending=" + descending +
+                ", limit=" + limit +
+                '}';
+    }
+
+    /**
+     * The orders supported by an {@link ItemQuery}.
+     */
+
+    public enum Order {
+
+        /** By last modification time */
+
+        LAST_MODIFIED_TIME,
+
+        /** By creation time */
+
+        CREATION_TIME,
+
+        /** By title, ignoring the case */
+
+        TITLE,
+
+        /** By task deadline, tasks without deadline first */
+
+        DEADLINE,
+
+        /** By task priority level */
+
+        PRIORITY
+    }
+
+    public static class Builder extends AbstractBuilder<ItemQuery> {
+
+        private String ownerId, title;
+
+        private boolean ignoreCase, descending = true;
+
+        private Boolean favorite, done;
+
+        private Priority priority;
+
+        private Date deadlineFrom, deadlineTo;
+
+        private Order order = Order.LAST_MODIFIED_TIME;
+
+        private int limit;
+
+        public Builder() {
+        }
+
+        /**
+         * Creates a builder initialized with the criteria of the provided query.
+         *
+         * @param query
+         *        The query to copy.
+         */
+
+        public Builder(@Nonnull ItemQuery query) {
+            this.ownerId = query.ownerId;
+            this.title = query.title;
+            this.ignoreCase = query.ignoreCase;
+            this.favorite = query.favorite;
+            this.done = query.done;
+            this.priority = query.priority;
+            this.deadlineFrom = query.deadlineFrom;
+            this.deadlineTo = query.deadlineTo;
+            this.order = query.order;
+            this.descending = query.descending;
+            this.limit = query.limit;
+        }
+
+        public Builder setOwnerId(@Nullable String ownerId) {
+            this.ownerId = ownerId;
+            return this;
+        }
+
+        public Builder setTitle(@Nullable String title, boolean ignoreCase) {
+            this.title = title;
+            this.ignoreCase = ignoreCase;
+            return this;
+        }
+
+        public Builder setFavorite(@Nullable Boolean favorite) {
+            this.favorite = favorite;
+            return this;
+        }
+
+        public Builder setDone(@Nullable Boolean done) {
+            this.done = done;
+            return this;
+        }
+
+        public Builder setPriority(@Nullable Priority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        public Builder setDeadlineFrom(@Nullable Date deadlineFrom) {
+            this.deadlineFrom = deadlineFrom;
+            return this;
+        }
+
+        public Builder setDeadlineTo(@Nullable Date deadlineTo) {
+            this.deadlineTo = deadlineTo;
+            return this;
+        }
+
+        public Builder setOrder(@Nonnull Order order, boolean descending) {
+            this.order = Objects.requireNonNull(order);
+            this.descending = descending;
+            return this;
+        }
+
+        /**
+         * @param limit
+         *        The maximum amount of results or 0 if unlimited.
+         *
+         * @throws java.lang.IllegalArgumentException
+         *         If limit is negative.
+         *
+         * @return This builder.
+         */
+
+        public Builder setLimit(int limit) {
+
+            if (limit < 0) {
+                throw new IllegalArgumentException("Limit must be positive or 0, found: " + limit);
+            }
+
+            this.limit = limit;
+            return this;
+        }
+
+        @Override
+        public ItemQuery build() {
+            return new ItemQuery(this);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.easymind.api.data;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A page of elements read from a {@link com.easymind.api.data.DataAccessObject DataAccessObject}, most recently
+ * modified first.
+ * <br>Pages use keyset pagination: the next page starts right after the {@link Cursor} of the last element, so reading
+ * a page costs the same whatever its position and is not affected by the rows inserted or deleted in between.
+ *
+ * <pre>{@code
+ * Page<Note> page = dao.findPage(null, 100);
+ *
+ * while (page.hasNext()) {
+ *     page = dao.findPage(page.getNext(), 100);
+ * }
+ * }</pre>
+ *
+ * @param <T>
+ *        The data type.
+ */
+
+public final class Page<T> {
+
+    private final List<T> elements;
+
+    private final Cursor next;
+
+    public Page(@Nonnull List<T> elements, @Nullable Cursor next) {
+        this.elements = List.copyOf(elements);
+        this.next = next;
+    }
+
+    /**
+     * Gets the elements of this page.
+     *
+     * @return Immutable list of the page elements.
+     */
+
+    @Nonnull
+    public List<T> getElements() {
+        return elements;
+    }
+
+    /**
+     * Gets the position the next page starts after.
+     *
+     * @return The next page cursor or null if this page is the last one.
+     */
+
+    @Nullable
+    public Cursor getNext() {
+        return next;
+    }
+
+    /**
+     * Returns a {@code boolean} that say if a page follows this one.
+     *
+     * @return True, If there is a next page.
+     */
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    /**
+     * The position of an element in the (last modified time, id) order of the pages.
+     */
+
+    public static final class Cursor {
+
+        private final long lastModifiedTime;
+
+        private final String id;
+
+        public Cursor(long lastModifiedTime, @Nonnull String id) {
+            this.lastModifiedTime = lastModifiedTime;
+            this.id = Objects.requireNonNull(id);
+        }
+
+        /**
+         * Gets the last modified time of the element, in milliseconds since the epoch.
+         *
+         * @return The last modified time.
+         */
+
+        public long getLastModifiedTime() {
+            return lastModifiedTime;
+        }
+
+        /**
+         * Gets the id of the element.
+         *
+         * @return Non-null id.
+         */
+
+        @Nonnull
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Cursor)) {
+                return false;
+            }
+
+            final Cursor cursor = (Cursor) o;
+
+            return lastModifiedTime == cursor.lastModifiedTime && id.equals(cursor.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lastModifiedTime, id);
+        }
+
+        @Override
+        public String toString() {
+            return "Cursor{lastModifiedTime=" + lastModifiedTime + ", id=" + id + '}';
+        }
+    }
+}
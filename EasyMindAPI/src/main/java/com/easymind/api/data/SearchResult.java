@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.easymind.api.data;
+
+import com.easymind.api.entities.ProjectItem;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * A {@link com.easymind.api.entities.ProjectItem ProjectItem} matched by a full-text search, with an excerpt of the
+ * matching text and its relevance.
+ *
+ * @param <T>
+ *        The item type.
+ */
+
+public final class SearchResult<T extends ProjectItem> {
+
+    /**
+     * The marker inserted before each matched term of the {@link #getSnippet() snippet}.
+     */
+
+    public static final String HIGHLIGHT_START = "<mark>";
+
+    /**
+     * The marker inserted after each matched term of the {@link #getSnippet() snippet}.
+     */
+
+    public static final String HIGHLIGHT_END = "</mark>";
+
+    private final T item;
+
+    private final String snippet;
+
+    private final double rank;
+
+    public SearchResult(@Nonnull T item, @Nonnull String snippet, double rank) {
+        this.item = Objects.requireNonNull(item);
+        this.snippet = Objects.requireNonNull(snippet);
+        this.rank = rank;
+    }
+
+    /**
+     * Gets the matched item.
+     *
+     * @return Non-null item.
+     */
+
+    @Nonnull
+    public T getItem() {
+        return item;
+    }
+
+    /**
+     * Gets the excerpt of the item title or content around the matched terms, which are surrounded by
+     * {@link #HIGHLIGHT_START} and {@link #HIGHLIGHT_END}.
+     *
+     * @return Non-null snippet.
+     */
+
+    @Nonnull
+    public String getSnippet() {
+        return snippet;
+    }
+
+    /**
+     * Gets the relevance of the match, computed with the BM25 algorithm.
+     *
+     * @return The rank, lower values being more relevant.
+     */
+
+    public double getRank() {
+        return rank;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResult{item=" + item.getId() + ", snippet=" + snippet + ", rank=" + rank + '}';
+    }
+}
@@ -17,6 +17,7 @@
 package com.easymind.api.entities;
 
 import com.easymind.api.behaviors.Identifiable;
+import com.easymind.api.data.SearchResult;
 import com.easymind.api.utils.cache.ProjectItemCacheStore;
 
 import javax.annotation.Nonnull;
@@ -492,6 +493,50 @@ public interface Project extends Identifiable, Comparable<Project> {
     @Nonnull
     List<Task> getTasksByTags(@Nonnull List<String> tags);
 
+    /**
+     * Searches the title and content of the {@link com.easymind.api.entities.Note Note} of this project for the words
+     * of the given text using the current {@link ProjectItemCacheStore NoteCacheStore}.
+     *
+     * @param text
+     *        The words to look for.
+     *
+     * @param limit
+     *        The maximum amount of results.
+     *
+     * @throws java.lang.NullPointerException
+     *         If text is null.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If limit is not positive.
+     *
+     * @return Possibly-empty immutable list of the matching notes, most relevant first.
+     */
+
+    @Nonnull
+    List<SearchResult<Note>> searchNotes(@Nonnull String text, int limit);
+
+    /**
+     * Searches the title and content of the {@link com.easymind.api.entities.Task Task} of this project for the words
+     * of the given text using the current {@link ProjectItemCacheStore TaskCacheStore}.
+     *
+     * @param text
+     *        The words to look for.
+     *
+     * @param limit
+     *        The maximum amount of results.
+     *
+     * @throws java.lang.NullPointerException
+     *         If text is null.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If limit is not positive.
+     *
+     * @return Possibly-empty immutable list of the matching tasks, most relevant first.
+     */
+
+    @Nonnull
+    List<SearchResult<Task>> searchTasks(@Nonnull String text, int limit);
+
     /**
      * Gets the moment at which the {@code Project} has been modified for the last time.
      *
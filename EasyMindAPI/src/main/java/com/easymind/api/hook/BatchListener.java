@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.easymind.api.hook;
+
+import com.easymind.api.events.Event;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * A listener of the coalesced events of a given type, see
+ * {@link EventHandler#subscribe(Class, java.util.function.Function, long, BatchListener)}.
+ *
+ * @param <E>
+ *        The event type.
+ */
+
+@FunctionalInterface
+public interface BatchListener<E extends Event> {
+
+    /**
+     * Called once per coalescing window with the last event of each key handled during the window.
+     *
+     * @param events
+     *        The non-empty unmodifiable events, in the order their key has first been handled.
+     */
+
+    void onEvents(@Nonnull List<E> events);
+}
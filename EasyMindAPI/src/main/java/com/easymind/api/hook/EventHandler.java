@@ -19,8 +19,96 @@ package com.easymind.api.hook;
 import com.easymind.api.events.Event;
 
 import javax.annotation.Nonnull;
+import java.util.function.Function;
 
 public interface EventHandler {
 
     void handle(@Nonnull Event event);
+
+    /**
+     * Subscribes the provided listener to the events of the given type, including its subtypes: a listener of
+     * {@link com.easymind.api.events.ProjectItemEvent ProjectItemEvent} receives the note and task events.
+     * <br>The listeners are called in subscription order, once the event {@link Event#onEvent()} has been called. A
+     * listener failing with an exception does not prevent the other listeners from receiving the event.
+     *
+     * @param type
+     *        The event type.
+     *
+     * @param listener
+     *        The listener to call.
+     *
+     * @param <E>
+     *        The event type.
+     *
+     * @throws java.lang.NullPointerException
+     *         If type or listener is null.
+     *
+     * @return Non-null subscription, to unsubscribe the listener.
+     */
+
+    @Nonnull
+    <E extends Event> Subscription subscribe(@Nonnull Class<E> type, @Nonnull EventListener<? super E> listener);
+
+    /**
+     * Subscribes the provided listener to the coalesced events of the given type, including its subtypes.
+     * <br>The events are collected for a window starting with the first event, then delivered as a single batch
+     * holding the last event of each key. A burst of updates to the same entity is thereby delivered once, and any
+     * burst costs the listener at most one call per window, e.g. to repaint the tasks of a bulk retag:
+     * <pre>{@code
+     * handler.subscribe(TaskUpdateEvent.class, event -> event.getProjectItem().getId(), 100, events -> repaint(events));
+     * }</pre>
+     * The batches of a subscription are delivered one at a time, on a thread of the event handler, and the pending
+     * batch is delivered on shutdown.
+     *
+     * @param type
+     *        The event type.
+     *
+     * @param key
+     *        The function returning the key of an event, usually the id of its entity. Events with equal keys are
+     *        merged into the last one.
+     *
+     * @param window
+     *        The coalescing window, in milliseconds.
+     *
+     * @param listener
+     *        The listener to call with each batch.
+     *
+     * @param <E>
+     *        The event type.
+     *
+     * @throws java.lang.NullPointerException
+     *         If type, key or listener is null.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If window is not positive.
+     *
+     * @return Non-null subscription, to unsubscribe the listener. Unsubscribing drops the pending batch.
+     */
+
+    @Nonnull
+    <E extends Event> Subscription subscribe(@Nonnull Class<E> type, @Nonnull Function<? super E, ?> key, long window,
+                                             @Nonnull BatchListener<? super E> listener);
+
+    /**
+     * Checks if a listener receives the events of the given class, so the events nobody listens to need not be
+     * created.
+     *
+     * @param type
+     *        The event class.
+     *
+     * @return True, If at least one listener is subscribed to the class or to one of its supertypes.
+     */
+
+    boolean hasListeners(@Nonnull Class<? extends Event> type);
+
+    /**
+     * Stops accepting events and delivers the pending ones.
+     *
+     * @param timeout
+     *        The maximum time to wait for the pending events, in milliseconds.
+     *
+     * @return True, If every pending event has been delivered within the timeout.
+     */
+
+    boolean shutdown(long timeout);
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.easymind.api.hook;
+
+/**
+ * The subscription of an {@link EventListener EventListener}, returned by
+ * {@link EventHandler#subscribe(Class, EventListener)}.
+ */
+
+public interface Subscription {
+
+    /**
+     * Stops the delivery of the events to the listener. Does nothing if already unsubscribed.
+     * <br>An event being delivered concurrently may still reach the listener.
+     */
+
+    void unsubscribe();
+
+    /**
+     * Checks if the listener still receives the events.
+     *
+     * @return True, If not unsubscribed yet.
+     */
+
+    boolean isActive();
+}
@@ -16,18 +16,29 @@
 
 package com.easymind.api.utils;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A time utility class.
+ * <br>Formats are compiled once into immutable, thread-safe {@link java.time.format.DateTimeFormatter DateTimeFormatter}
+ * and reused by every call.
  */
 
 public class TimeUtils {
 
+    private static final Map<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
     /**
      * Parses the provided date/time with the given format.
+     * <br>A format without time fields resolves to the start of the day.
      *
      * @param date The String to parse.
      *
@@ -41,8 +52,15 @@ public class TimeUtils {
 
         if (date != null && format != null) {
             try {
-                return new SimpleDateFormat(format).parse(date);
-            } catch (ParseException e) {
+
+                final TemporalAccessor parsed = getFormatter(format).parseBest(date, LocalDateTime::from, LocalDate::from);
+
+                final LocalDateTime dateTime = parsed instanceof LocalDateTime
+                        ? (LocalDateTime) parsed
+                        : ((LocalDate) parsed).atStartOfDay();
+
+                return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+            } catch (DateTimeException e) {
                 e.printStackTrace();
             }
         }
@@ -62,12 +80,42 @@ public class TimeUtils {
      * @return Possibly-null String of the formatted date/time.
      */
 
-    public static String format(Date date,String format) {
+    public static String format(Date date, String format) {
 
         if (date == null || format == null) {
             return null;
         }
 
-        return new SimpleDateFormat(format).format(date);
+        return getFormatter(format).format(date.toInstant().atZone(ZoneId.systemDefault()));
+    }
+
+    /**
+     * Converts the provided epoch milliseconds to a date/time.
+     *
+     * @param millis
+     *        The milliseconds since the epoch or null.
+     *
+     * @return Possibly-null date/time.
+     */
+
+    public static Date fromEpochMillis(Long millis) {
+        return millis == null ? null : new Date(millis);
+    }
+
+    /**
+     * Converts the provided date/time to epoch milliseconds.
+     *
+     * @param date
+     *        The date/time or null.
+     *
+     * @return Possibly-null milliseconds since the epoch.
+     */
+
+    public static Long toEpochMillis(Date date) {
+        return date == null ? null : date.getTime();
+    }
+
+    private static DateTimeFormatter getFormatter(String format) {
+        return FORMATTERS.computeIfAbsent(format, DateTimeFormatter::ofPattern);
     }
 }
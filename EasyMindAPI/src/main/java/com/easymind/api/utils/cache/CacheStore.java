@@ -20,6 +20,7 @@ import com.easymind.api.behaviors.Identifiable;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
@@ -58,6 +59,50 @@ public interface CacheStore<T extends Identifiable> extends Iterable<T> {
 
     void clear();
 
+    /**
+     * Pins the element matching the given id, such as an element shown in an open window, so a bounded cache never
+     * evicts it and its instance stays the cached one.
+     * <br>Pins are counted, the element being unpinned once every pin has been released.
+     *
+     * @throws java.lang.NullPointerException
+     *         If id is null.
+     *
+     * @param id
+     *        The element id, which may not be cached yet.
+     */
+
+    void pin(@Nonnull String id);
+
+    /**
+     * Releases a pin of the element matching the given id, see {@link #pin(String)}.
+     *
+     * @throws java.lang.NullPointerException
+     *         If id is null.
+     *
+     * @param id
+     *        The element id.
+     */
+
+    void unpin(@Nonnull String id);
+
+    /**
+     * Writes the pending writes of this cache to the data source, if it writes behind.
+     * <br>This is a barrier: once it returns true, every write made before the call has been committed.
+     *
+     * @return True, If nothing remains to be written and no write has been dropped since the previous flush.
+     */
+
+    boolean flush();
+
+    /**
+     * Flushes the pending writes of this cache and releases its background resources.
+     * <br>The cache must not be written to anymore once closed.
+     *
+     * @return True, If nothing remains to be written.
+     */
+
+    boolean close();
+
     /**
      * The current size of the cache.
      * This is more efficient than creating a cache snapshot to check its size.
@@ -123,11 +168,45 @@ public interface CacheStore<T extends Identifiable> extends Iterable<T> {
     boolean deleteThrough(@Nonnull T element);
 
     /**
-     * Updates if necessary the cache store by comparing the current cache elements number and the data source
-     * elements number. If the current cache number of elements is lower than the data source, The missing elements are
-     * added from the data source.
+     * Inserts or updates all the provided elements within a single data source transaction.
+     * <br>The cache is only modified if the whole transaction succeeded.
+     *
+     * @see #writeThrough(Identifiable)
+     *
+     * @throws java.lang.NullPointerException
+     *         If elements is null.
+     *
+     * @param elements
+     *        The elements to write to the data source.
+     *
+     * @return True, If all the elements have been written to the data source.
+     */
+
+    boolean writeThroughAll(@Nonnull Collection<? extends T> elements);
+
+    /**
+     * Deletes all the provided elements from this cache and the data source within a single data source transaction.
+     * <br>The cache is only modified if the whole transaction succeeded.
+     *
+     * @see #deleteThrough(Identifiable)
+     *
+     * @throws java.lang.NullPointerException
+     *         If elements is null.
+     *
+     * @param elements
+     *        The elements to delete from the data source.
+     *
+     * @return True, If all the elements have been deleted from the data source.
+     */
+
+    boolean deleteThroughAll(@Nonnull Collection<? extends T> elements);
+
+    /**
+     * Updates the cache store with the data source changes made since the last update, by this cache store or by any
+     * other writer. Only the changed elements are read: the added and modified elements are cached and the deleted
+     * ones are evicted.
      *
-     * @return The amount of elements added to the cache store.
+     * @return The amount of elements added, replaced or evicted.
      */
 
     int updateCache();
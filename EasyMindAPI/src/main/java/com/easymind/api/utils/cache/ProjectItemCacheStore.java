@@ -16,6 +16,8 @@
 
 package com.easymind.api.utils.cache;
 
+import com.easymind.api.data.ItemQuery;
+import com.easymind.api.data.SearchResult;
 import com.easymind.api.entities.ProjectItem;
 
 import javax.annotation.Nonnull;
@@ -49,6 +51,27 @@ public interface ProjectItemCacheStore<T extends ProjectItem> extends CacheStore
     @Nonnull
     List<T> getElementsByTitle(@Nonnull String title, boolean ignoreCase);
 
+    /**
+     * Creates an immutable list of all {@link ProjectItem Item} owned by the given project and matching the given title.
+     *
+     * @throws java.lang.NullPointerException
+     *         If owner id or title is null.
+     *
+     * @param ownerId
+     *        The targets owner id.
+     *
+     * @param title
+     *        The targets title.
+     *
+     * @param ignoreCase
+     *        True, To ignore the title case.
+     *
+     * @return Immutable list of items with the given owner id and title.
+     */
+
+    @Nonnull
+    List<T> getElementsByTitle(@Nonnull String ownerId, @Nonnull String title, boolean ignoreCase);
+
     /**
      * Creates an immutable list of all {@link ProjectItem Item} matching the given tags.
      *
@@ -64,6 +87,24 @@ public interface ProjectItemCacheStore<T extends ProjectItem> extends CacheStore
     @Nonnull
     List<T> getElementsByTags(@Nonnull List<String> tags);
 
+    /**
+     * Creates an immutable list of all {@link ProjectItem Item} owned by the given project and matching the given tags.
+     *
+     * @throws java.lang.NullPointerException
+     *         If owner id or tags is null.
+     *
+     * @param ownerId
+     *        The targets owner id.
+     *
+     * @param tags
+     *        The targets tags.
+     *
+     * @return Immutable list of items with the given owner id and tags.
+     */
+
+    @Nonnull
+    List<T> getElementsByTags(@Nonnull String ownerId, @Nonnull List<String> tags);
+
     /**
      * Creates an immutable list of all {@link ProjectItem Item} matching the owner id.
      *
@@ -78,4 +119,70 @@ public interface ProjectItemCacheStore<T extends ProjectItem> extends CacheStore
 
     @Nonnull
     List<T> getElementsByOwnerId(@Nonnull String ownerId);
+
+    /**
+     * Creates an immutable list of all {@link ProjectItem Item} matching the given query, run by the data source
+     * without loading the other items.
+     *
+     * @throws java.lang.NullPointerException
+     *         If query is null.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the query uses criteria not supported by this item type.
+     *
+     * @param query
+     *        The query to run.
+     *
+     * @return Immutable list of items matching the query, in the query order.
+     */
+
+    @Nonnull
+    List<T> getElementsByQuery(@Nonnull ItemQuery query);
+
+    /**
+     * Searches the title and content of all {@link ProjectItem Item} for the words of the given text, using the
+     * full-text index of the data source.
+     *
+     * @throws java.lang.NullPointerException
+     *         If text is null.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If limit is not positive.
+     *
+     * @param text
+     *        The words to look for.
+     *
+     * @param limit
+     *        The maximum amount of results.
+     *
+     * @return Immutable list of the matching items, most relevant first.
+     */
+
+    @Nonnull
+    List<SearchResult<T>> search(@Nonnull String text, int limit);
+
+    /**
+     * Searches the title and content of all {@link ProjectItem Item} owned by the given project for the words of the
+     * given text, using the full-text index of the data source.
+     *
+     * @throws java.lang.NullPointerException
+     *         If owner id or text is null.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If limit is not positive.
+     *
+     * @param ownerId
+     *        The targets owner id.
+     *
+     * @param text
+     *        The words to look for.
+     *
+     * @param limit
+     *        The maximum amount of results.
+     *
+     * @return Immutable list of the matching items, most relevant first.
+     */
+
+    @Nonnull
+    List<SearchResult<T>> search(@Nonnull String ownerId, @Nonnull String text, int limit);
 }
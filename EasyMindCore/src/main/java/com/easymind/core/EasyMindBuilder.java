@@ -18,24 +18,37 @@ package com.easymind.core;
 
 import com.easymind.api.EasyMind;
 import com.easymind.api.entities.AbstractBuilder;
+import com.easymind.api.entities.Note;
 import com.easymind.api.entities.Settings;
+import com.easymind.api.entities.Task;
 import com.easymind.api.hook.EventHandler;
 import com.easymind.api.managers.WindowManager;
+import com.easymind.core.data.NoteAccessObject;
+import com.easymind.core.data.TaskAccessObject;
 import com.easymind.core.entities.SettingsImpl;
 import com.easymind.core.hook.EventHandlerImpl;
+import com.easymind.core.hook.EventPublisher;
 import com.easymind.core.managers.WindowManagerImpl;
+import com.easymind.core.utils.ConnectionPool;
 import com.easymind.core.utils.cache.ProjectCacheStoreImpl;
+import com.easymind.core.utils.cache.ProjectItemCacheStoreImpl;
 import com.easymind.core.data.ProjectAccessObject;
 
 import javax.annotation.Nonnull;
 import java.sql.Connection;
+import java.sql.SQLException;
 
 public class EasyMindBuilder extends AbstractBuilder<EasyMind> {
 
     private Settings settings;
     private WindowManager windowManager;
+    private String database;
     private Connection connection;
+    private ConnectionPool connectionPool;
     private EventHandler eventHandler;
+    private long writeBehindDelay;
+    private long itemCacheMaximumSize;
+    private long itemCacheMaximumWeight;
 
     public EasyMindBuilder setSettings(@Nonnull Settings settings) {
         this.settings = settings;
@@ -47,20 +60,147 @@ public class EasyMindBuilder extends AbstractBuilder<EasyMind> {
         return this;
     }
 
+    /**
+     * Sets the database to open, the default way to connect: a {@link ConnectionPool} is built with the default
+     * {@link ConnectionPool.Builder} settings, in <i>WAL</i> mode with read-only connections serving the reads while
+     * the writer connection is in use.
+     * <br>To tune the pool, build it with {@link ConnectionPool.Builder} and set it with
+     * {@link #setConnectionPool(ConnectionPool)} instead.
+     *
+     * @param database
+     *        The database URL, for example <i>jdbc:sqlite:file.db</i>. Not suited to an in-memory database, which is
+     *        not shared between connections and must be set with {@link #setConnection(Connection)}.
+     *
+     * @return This builder.
+     */
+
+    public EasyMindBuilder setDatabase(@Nonnull String database) {
+        this.database = database;
+        return this;
+    }
+
+    /**
+     * Sets the single connection to the database, used instead of the {@link #setDatabase(String) database}. Every
+     * read and write goes through this connection, so the reads wait for the writes.
+     *
+     * @param database
+     *        The database connection.
+     *
+     * @return This builder.
+     */
+
     public EasyMindBuilder setConnection(@Nonnull Connection database) {
         this.connection = database;
         return this;
     }
 
+    /**
+     * Sets the connections to the database, used instead of the {@link #setDatabase(String) database} and of the
+     * {@link #setConnection(Connection) connection}.
+     * <br>The pool, or the connection, is closed by {@link EasyMind#shutdown()} along with its cached statements.
+     *
+     * @param connectionPool
+     *        The connection pool.
+     *
+     * @return This builder.
+     */
+
+    public EasyMindBuilder setConnectionPool(@Nonnull ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+        return this;
+    }
+
     public EasyMindBuilder setEventHandler(@Nonnull EventHandler eventHandler) {
         this.eventHandler = eventHandler;
         return this;
     }
 
+    /**
+     * Enables the write-behind mode of the cache stores: saves and deletes return once the cache is modified and are
+     * persisted by background writers, flushing every given delay.
+     * <br>The pending writes are flushed by {@link EasyMind#shutdown()}, which is also registered as a shutdown hook.
+     *
+     * @param writeBehindDelay
+     *        The delay between two flushes in milliseconds, or 0 to write through on the caller thread.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If delay is negative.
+     *
+     * @return This builder.
+     */
+
+    public EasyMindBuilder setWriteBehindDelay(long writeBehindDelay) {
+
+        if (writeBehindDelay < 0) {
+            throw new IllegalArgumentException("Delay must be positive or 0, found: " + writeBehindDelay);
+        }
+
+        this.writeBehindDelay = writeBehindDelay;
+        return this;
+    }
+
+    /**
+     * Bounds the number of notes, and of tasks, held by the item cache stores. Beyond it the least frequently and
+     * recently used items are evicted, and loaded again on their next access.
+     *
+     * @param itemCacheMaximumSize
+     *        The maximum number of items per store, or 0 for unbounded stores.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If size is negative.
+     *
+     * @return This builder.
+     *
+     * @see #setItemCacheMaximumWeight(long)
+     */
+
+    public EasyMindBuilder setItemCacheMaximumSize(long itemCacheMaximumSize) {
+
+        if (itemCacheMaximumSize < 0) {
+            throw new IllegalArgumentException("Size must be positive or 0, found: " + itemCacheMaximumSize);
+        }
+
+        this.itemCacheMaximumSize = itemCacheMaximumSize;
+        this.itemCacheMaximumWeight = 0;
+        return this;
+    }
+
+    /**
+     * Bounds the memory held by the notes, and by the tasks, of the item cache stores, as the bytes of their title,
+     * tags and loaded content. Beyond it the least frequently and recently used items are evicted, and loaded again
+     * on their next access.
+     *
+     * @param itemCacheMaximumWeight
+     *        The maximum size in bytes per store, or 0 for unbounded stores.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If weight is negative.
+     *
+     * @return This builder.
+     *
+     * @see #setItemCacheMaximumSize(long)
+     */
+
+    public EasyMindBuilder setItemCacheMaximumWeight(long itemCacheMaximumWeight) {
+
+        if (itemCacheMaximumWeight < 0) {
+            throw new IllegalArgumentException("Weight must be positive or 0, found: " + itemCacheMaximumWeight);
+        }
+
+        this.itemCacheMaximumWeight = itemCacheMaximumWeight;
+        this.itemCacheMaximumSize = 0;
+        return this;
+    }
+
+    /**
+     * @throws java.lang.IllegalStateException
+     *         If no database is set, or if the {@link #setDatabase(String) database} could not be opened.
+     */
+
     @Override
     public EasyMind build() {
 
-        final EasyMind easyMind = new EasyMindImpl();
+        final EasyMindImpl easyMind = new EasyMindImpl();
 
         if (windowManager == null) {
             windowManager = new WindowManagerImpl();
@@ -74,14 +214,68 @@ public class EasyMindBuilder extends AbstractBuilder<EasyMind> {
             eventHandler = new EventHandlerImpl();
         }
 
-        ProjectAccessObject pao = new ProjectAccessObject(connection);
+        final ConnectionPool pool = getConnectionPool();
+
+        final NoteAccessObject nao = new NoteAccessObject(pool);
+        final TaskAccessObject tao = new TaskAccessObject(pool);
+
+        final ProjectItemCacheStoreImpl<Note> noteCacheStore = new ProjectItemCacheStoreImpl<>(nao);
+        final ProjectItemCacheStoreImpl<Task> taskCacheStore = new ProjectItemCacheStoreImpl<>(tao);
+
+        if (itemCacheMaximumSize > 0) {
+            noteCacheStore.setMaximumWeight(itemCacheMaximumSize, note -> 1);
+            taskCacheStore.setMaximumWeight(itemCacheMaximumSize, task -> 1);
+        } else if (itemCacheMaximumWeight > 0) {
+            noteCacheStore.setMaximumWeight(itemCacheMaximumWeight, nao::getResidentSize);
+            taskCacheStore.setMaximumWeight(itemCacheMaximumWeight, tao::getResidentSize);
+        }
+
+        ProjectAccessObject pao = new ProjectAccessObject(pool, noteCacheStore, taskCacheStore);
+
+        final ProjectCacheStoreImpl projectCacheStore = new ProjectCacheStoreImpl(pao);
+
+        if (writeBehindDelay > 0) {
+            noteCacheStore.enableWriteBehind("EasyMind-NoteWriter", writeBehindDelay);
+            taskCacheStore.enableWriteBehind("EasyMind-TaskWriter", writeBehindDelay);
+            projectCacheStore.enableWriteBehind("EasyMind-ProjectWriter", writeBehindDelay);
+            easyMind.registerShutdownHook();
+        }
 
         easyMind.setSettings(settings);
         easyMind.setWindowManager(windowManager);
-        easyMind.setConnection(connection);
-        easyMind.setProjectCacheStore(new ProjectCacheStoreImpl(pao));
+        easyMind.setConnection(pool.getWriter());
+        easyMind.setConnectionPool(pool);
+        easyMind.setNoteCacheStore(noteCacheStore);
+        easyMind.setTaskCacheStore(taskCacheStore);
+        easyMind.setProjectCacheStore(projectCacheStore);
         easyMind.setEventHandler(eventHandler);
 
+        noteCacheStore.setCommitListener(EventPublisher.ofNotes(easyMind));
+        taskCacheStore.setCommitListener(EventPublisher.ofTasks(easyMind));
+        projectCacheStore.setCommitListener(EventPublisher.ofProjects(easyMind));
+
         return easyMind;
     }
+
+    @Nonnull
+    private ConnectionPool getConnectionPool() {
+
+        if (connectionPool != null) {
+            return connectionPool;
+        }
+
+        if (connection != null) {
+            return new ConnectionPool(connection);
+        }
+
+        if (database == null) {
+            throw new IllegalStateException("No database set, see EasyMindBuilder#setDatabase(String)");
+        }
+
+        try {
+            return new ConnectionPool.Builder(database).build();
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Failed to open database=" + database + ". \nReason: " + ex.getMessage(), ex);
+        }
+    }
 }
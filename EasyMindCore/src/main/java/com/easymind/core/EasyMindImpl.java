@@ -17,15 +17,20 @@
 package com.easymind.core;
 
 import com.easymind.api.EasyMind;
+import com.easymind.api.data.SearchResult;
+import com.easymind.api.entities.Note;
 import com.easymind.api.entities.Project;
 import com.easymind.api.entities.Settings;
+import com.easymind.api.entities.Task;
 import com.easymind.api.events.Event;
 import com.easymind.api.hook.EventHandler;
 import com.easymind.api.managers.WindowManager;
 import com.easymind.api.utils.cache.ProjectCacheStore;
+import com.easymind.api.utils.cache.ProjectItemCacheStore;
 import com.easymind.api.views.Window;
 import com.easymind.core.entities.ProjectBuilder;
 import com.easymind.core.utils.AppUtils;
+import com.easymind.core.utils.ConnectionPool;
 import com.easymind.core.utils.IOUtils;
 import com.easymind.core.utils.JsonUtils;
 
@@ -40,11 +45,23 @@ import java.util.ResourceBundle;
 
 public class EasyMindImpl implements EasyMind {
 
+    /**
+     * The maximum time waited on shutdown for the pending events, in milliseconds.
+     */
+
+    private static final long EVENT_SHUTDOWN_TIMEOUT = 5000;
+
     private ProjectCacheStore projectCacheStore;
+    private ProjectItemCacheStore<Note> noteCacheStore;
+    private ProjectItemCacheStore<Task> taskCacheStore;
     private WindowManager windowManager;
     private Connection database;
+    private ConnectionPool connectionPool;
     private Settings settings;
     private EventHandler eventHandler;
+    private Thread shutdownHook;
+    private boolean shutDown;
+    private boolean cleanShutdown;
 
     @Nonnull
     @Override
@@ -94,6 +111,17 @@ public class EasyMindImpl implements EasyMind {
         this.database = Objects.requireNonNull(connection);
     }
 
+    /**
+     * Sets the connection pool closed by {@link #shutdown()}, once the pending writes have been flushed.
+     *
+     * @param connectionPool
+     *        The connection pool or null to leave the connections open.
+     */
+
+    public void setConnectionPool(@Nullable ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
     @Nonnull
     @Override
     public ProjectCacheStore getProjectCacheStore() {
@@ -105,6 +133,28 @@ public class EasyMindImpl implements EasyMind {
         this.projectCacheStore = Objects.requireNonNull(projectCacheStore);
     }
 
+    @Nonnull
+    @Override
+    public ProjectItemCacheStore<Note> getNoteCacheStore() {
+        return noteCacheStore;
+    }
+
+    @Override
+    public void setNoteCacheStore(@Nonnull ProjectItemCacheStore<Note> noteCacheStore) {
+        this.noteCacheStore = Objects.requireNonNull(noteCacheStore);
+    }
+
+    @Nonnull
+    @Override
+    public ProjectItemCacheStore<Task> getTaskCacheStore() {
+        return taskCacheStore;
+    }
+
+    @Override
+    public void setTaskCacheStore(@Nonnull ProjectItemCacheStore<Task> taskCacheStore) {
+        this.taskCacheStore = Objects.requireNonNull(taskCacheStore);
+    }
+
     @Nonnull
     @Override
     public Project createProject(@Nonnull String name, @Nonnull String description) {
@@ -183,6 +233,89 @@ public class EasyMindImpl implements EasyMind {
         return projectCacheStore.getElementsByTags(tags);
     }
 
+    @Nonnull
+    @Override
+    public List<SearchResult<Note>> searchNotes(@Nonnull String text, int limit) {
+        return noteCacheStore.search(text, limit);
+    }
+
+    @Nonnull
+    @Override
+    public List<SearchResult<Task>> searchTasks(@Nonnull String text, int limit) {
+        return taskCacheStore.search(text, limit);
+    }
+
+    @Override
+    public boolean flush() {
+
+        boolean flushed = noteCacheStore.flush();
+
+        flushed &= taskCacheStore.flush();
+        flushed &= projectCacheStore.flush();
+
+        return flushed;
+    }
+
+    /**
+     * Closes the cache stores first, as their last write-behind flush publishes the events of its writes. The event
+     * handler then delivers the pending events before the connections are closed.
+     * <br>Only the first call shuts down, the next ones return its result.
+     */
+
+    @Override
+    public synchronized boolean shutdown() {
+
+        if (shutDown) {
+            return cleanShutdown;
+        }
+
+        this.shutDown = true;
+
+        removeShutdownHook();
+
+        boolean closed = noteCacheStore.close();
+
+        closed &= taskCacheStore.close();
+        closed &= projectCacheStore.close();
+        closed &= eventHandler.shutdown(EVENT_SHUTDOWN_TIMEOUT);
+
+        if (connectionPool != null) {
+            connectionPool.close();
+        }
+
+        this.cleanShutdown = closed;
+
+        return closed;
+    }
+
+    /**
+     * Registers {@link #shutdown()} as a JVM shutdown hook, so the pending writes are flushed on exit. The hook is
+     * removed once this instance has been shut down.
+     */
+
+    public synchronized void registerShutdownHook() {
+
+        if (shutdownHook == null && !shutDown) {
+            this.shutdownHook = new Thread(this::shutdown, "EasyMind-Shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        }
+    }
+
+    private void removeShutdownHook() {
+
+        if (shutdownHook == null || Thread.currentThread() == shutdownHook) {
+            return;
+        }
+
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ex) {
+            // The JVM is already shutting down and runs the hook, which then returns right away.
+        }
+
+        this.shutdownHook = null;
+    }
+
     @Override
     public void handle(@Nonnull Event event) {
         eventHandler.handle(event);
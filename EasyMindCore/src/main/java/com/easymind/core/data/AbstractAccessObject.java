@@ -0,0 +1,1169 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.data;
+
+import com.easymind.api.behaviors.Identifiable;
+import com.easymind.api.data.ChangeSet;
+import com.easymind.api.data.DataAccessObject;
+import com.easymind.api.data.Page;
+import com.easymind.core.utils.AppUtils;
+import com.easymind.core.utils.ConnectionPool;
+import com.easymind.core.utils.metrics.Metrics;
+import com.easymind.core.utils.metrics.QueryMetrics;
+import org.apache.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link com.easymind.api.data.DataAccessObject DataAccessObject} base for the tables using a single row mapper
+ * to build their elements.
+ *
+ * @param <T>
+ *        The data type.
+ */
+
+public abstract class AbstractAccessObject<T extends Identifiable> implements DataAccessObject<T> {
+
+    /**
+     * The maximum amount of statements sent to the driver with a single {@link PreparedStatement#executeBatch()}.
+     */
+
+    protected static final int BATCH_SIZE = 500;
+
+    /**
+     * The separator of the tags joined into the <i>TAGS</i> column.
+     */
+
+    protected static final String TAG_SEPARATOR = ",";
+
+    protected final Logger logger = AppUtils.getLogger();
+
+    /**
+     * The connections to the database, see {@link com.easymind.core.utils.ConnectionPool ConnectionPool}.
+     */
+
+    protected final ConnectionPool pool;
+
+    /**
+     * The writer connection of the {@link #pool}, only used while holding its write lock.
+     */
+
+    protected final Connection connection;
+
+    protected final String table;
+
+    /**
+     * The latency histograms of the methods of this object, shared by the objects of the same table.
+     */
+
+    protected final QueryMetrics metrics;
+
+    /**
+     * The table holding one row per element tag, named after {@link #table}.
+     */
+
+    protected final String tagTable;
+
+    public AbstractAccessObject(@Nonnull Connection connection, @Nonnull String table) {
+        this(new ConnectionPool(connection), table);
+    }
+
+    public AbstractAccessObject(@Nonnull ConnectionPool pool, @Nonnull String table) {
+        this.pool = Objects.requireNonNull(pool);
+        this.connection = pool.getWriter();
+        this.table = Objects.requireNonNull(table);
+        this.metrics = Metrics.getQueryMetrics(table);
+        this.tagTable = table + "_TAGS";
+    }
+
+    /**
+     * Builds the element for the current row of the provided {@link java.sql.ResultSet ResultSet}.
+     * <br>The result set cursor is not moved by this method.
+     *
+     * @param resultSet
+     *        The result set positioned on the row to map.
+     *
+     * @throws java.sql.SQLException
+     *         If a column could not be read.
+     *
+     * @return Non-null element for the current row.
+     */
+
+    @Nonnull
+    protected abstract T map(@Nonnull ResultSet resultSet) throws SQLException;
+
+    /**
+     * Returns the parameterized <i>INSERT</i> statement for this table.
+     *
+     * @see #bindInsert(PreparedStatement, Identifiable)
+     *
+     * @return Non-null insert statement.
+     */
+
+    @Nonnull
+    protected abstract String getInsertQuery();
+
+    /**
+     * Binds the provided element to the parameters of the {@link #getInsertQuery() insert statement}.
+     *
+     * @param statement
+     *        The insert statement.
+     *
+     * @param e
+     *        The element to bind.
+     *
+     * @throws java.sql.SQLException
+     *         If a parameter could not be set.
+     */
+
+    protected abstract void bindInsert(@Nonnull PreparedStatement statement, @Nonnull T e) throws SQLException;
+
+    /**
+     * Returns the parameterized <i>UPDATE</i> statement for this table.
+     *
+     * @see #bindUpdate(PreparedStatement, Identifiable)
+     *
+     * @return Non-null update statement.
+     */
+
+    @Nonnull
+    protected abstract String getUpdateQuery();
+
+    /**
+     * Binds the provided element to the parameters of the {@link #getUpdateQuery() update statement}.
+     *
+     * @param statement
+     *        The update statement.
+     *
+     * @param e
+     *        The element to bind.
+     *
+     * @throws java.sql.SQLException
+     *         If a parameter could not be set.
+     */
+
+    protected abstract void bindUpdate(@Nonnull PreparedStatement statement, @Nonnull T e) throws SQLException;
+
+    /**
+     * Returns the tags of the provided element, stored into the tag table of this object.
+     *
+     * @param e
+     *        The target element.
+     *
+     * @return Non-null tags of the element.
+     */
+
+    @Nonnull
+    protected abstract List<String> getTags(@Nonnull T e);
+
+    /**
+     * Returns the columns read by the element queries, which must include every column used by {@link #map(ResultSet)}.
+     *
+     * @return Non-null column list, every column by default.
+     */
+
+    @Nonnull
+    protected String getColumns() {
+        return "*";
+    }
+
+    /**
+     * Returns the {@link #getColumns() columns} read by the element queries, qualified by the provided table alias.
+     *
+     * @param alias
+     *        The alias of this table within the query.
+     *
+     * @return Non-null qualified column list.
+     */
+
+    @Nonnull
+    protected String getColumns(@Nonnull String alias) {
+        return alias + ".*";
+    }
+
+    /**
+     * Brings the database schema up to date, see {@link com.easymind.core.data.SchemaMigrator SchemaMigrator}.
+     */
+
+    @Override
+    public void init() {
+
+        pool.getWriteLock().lock();
+
+        try {
+            new SchemaMigrator(connection).migrate();
+        } finally {
+            pool.getWriteLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean insert(T e) {
+        return insertAll(Collections.singletonList(e));
+    }
+
+    @Override
+    public boolean update(T e) {
+        return updateAll(Collections.singletonList(e));
+    }
+
+    @Override
+    public boolean delete(T e) {
+        return deleteAll(Collections.singletonList(e));
+    }
+
+    @Override
+    public boolean insertAll(@Nonnull Collection<? extends T> elements) {
+
+        Objects.requireNonNull(elements);
+
+        return write(elements.size(), "insert", () -> {
+            executeBatch(getInsertQuery(), elements, this::bindInsert);
+            insertTags(elements);
+            afterInsert(elements);
+        });
+    }
+
+    @Override
+    public boolean updateAll(@Nonnull Collection<? extends T> elements) {
+
+        Objects.requireNonNull(elements);
+
+        return write(elements.size(), "update", () -> {
+            beforeUpdate(elements);
+            executeBatch(getUpdateQuery(), elements, this::bindUpdate);
+            deleteTags(elements);
+            insertTags(elements);
+            afterUpdate(elements);
+        });
+    }
+
+    @Override
+    public boolean deleteAll(@Nonnull Collection<? extends T> elements) {
+
+        Objects.requireNonNull(elements);
+
+        return write(elements.size(), "delete", () -> {
+            beforeDelete(elements);
+            deleteTags(elements);
+            executeBatch("DELETE FROM " + table + " WHERE ID = ?", elements,
+                    (statement, e) -> statement.setString(1, e.getId()));
+        });
+    }
+
+    /**
+     * Called within the insert transaction once the provided elements have been inserted, to write the
+     * tables derived from them.
+     *
+     * @param elements
+     *        The inserted elements.
+     *
+     * @throws java.sql.SQLException
+     *         If a write failed, which rolls the insert back.
+     */
+
+    protected void afterInsert(@Nonnull Collection<? extends T> elements) throws SQLException {
+    }
+
+    /**
+     * Called within the update transaction before the provided elements are updated, to write the tables derived
+     * from their stored state.
+     *
+     * @param elements
+     *        The elements to update.
+     *
+     * @throws java.sql.SQLException
+     *         If a write failed, which rolls the update back.
+     */
+
+    protected void beforeUpdate(@Nonnull Collection<? extends T> elements) throws SQLException {
+    }
+
+    /**
+     * Called within the update transaction once the provided elements have been updated, to write the
+     * tables derived from them.
+     *
+     * @param elements
+     *        The updated elements.
+     *
+     * @throws java.sql.SQLException
+     *         If a write failed, which rolls the update back.
+     */
+
+    protected void afterUpdate(@Nonnull Collection<? extends T> elements) throws SQLException {
+    }
+
+    /**
+     * Called within the delete transaction before the provided elements are deleted, to clear the tables
+     * derived from them.
+     *
+     * @param elements
+     *        The elements to delete.
+     *
+     * @throws java.sql.SQLException
+     *         If a write failed, which rolls the delete back.
+     */
+
+    protected void beforeDelete(@Nonnull Collection<? extends T> elements) throws SQLException {
+    }
+
+    /**
+     * Runs the provided writes inside one transaction.
+     * <br>If a transaction is already opened on the connection, the writes join it and the commit is left to its owner.
+     *
+     * @param count
+     *        The amount of written elements, nothing is done if zero.
+     *
+     * @param action
+     *        The action name used for logging.
+     *
+     * @param writes
+     *        The writes to run.
+     *
+     * @return True, If every write succeeded, else the whole transaction is rolled back.
+     */
+
+    protected boolean write(int count, @Nonnull String action, @Nonnull Writes writes) {
+
+        if (count == 0) {
+            return true;
+        }
+
+        try (QueryMetrics.Timer timer = metrics.start(action)) {
+            timer.addRows(count);
+            return transaction(action + " " + count + " elements to database table='" + table + "'", writes);
+        }
+    }
+
+    /**
+     * Runs the provided writes inside one transaction, joining the transaction already opened on the connection if any.
+     *
+     * @param description
+     *        The description of the writes used for logging.
+     *
+     * @param writes
+     *        The writes to run.
+     *
+     * @return True, If every write succeeded, else the whole transaction is rolled back.
+     */
+
+    protected boolean transaction(@Nonnull String description, @Nonnull Writes writes) {
+
+        boolean autoCommit = true;
+
+        pool.getWriteLock().lock();
+
+        try {
+
+            autoCommit = connection.getAutoCommit();
+
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+
+            writes.run();
+
+            if (autoCommit) {
+                connection.commit();
+            }
+
+        } catch (SQLException ex) {
+
+            logger.error("Failed to " + description + ". \nReason: " + ex.getMessage());
+
+            if (autoCommit) {
+                rollback();
+            }
+
+            return false;
+        } finally {
+            restoreAutoCommit(autoCommit);
+            pool.getWriteLock().unlock();
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean transaction(@Nonnull BooleanSupplier writes) {
+        return pool.transaction(writes);
+    }
+
+    /**
+     * Executes the provided statement once for each element as JDBC batches of at most {@link #BATCH_SIZE} entries.
+     *
+     * @param sql
+     *        The parameterized statement to execute.
+     *
+     * @param elements
+     *        The elements to bind, one batch entry each.
+     *
+     * @param binder
+     *        The binder used to set the statement parameters of each element.
+     *
+     * @throws java.sql.SQLException
+     *         If a batch could not be executed.
+     */
+
+    protected void executeBatch(@Nonnull String sql, @Nonnull Collection<? extends T> elements,
+                                @Nonnull Binder<T> binder) throws SQLException {
+
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            int pending = 0;
+
+            for (T e : elements) {
+
+                binder.bind(statement, e);
+                statement.addBatch();
+
+                if (++pending == BATCH_SIZE) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    private void insertTags(@Nonnull Collection<? extends T> elements) throws SQLException {
+
+        try (PreparedStatement statement = connection.prepareStatement(getInsertTagQuery())) {
+
+            int pending = 0;
+
+            for (T e : elements) {
+
+                for (String tag : normalizeTags(getTags(e))) {
+
+                    statement.setString(1, e.getId());
+                    statement.setString(2, tag);
+                    statement.addBatch();
+
+                    if (++pending == BATCH_SIZE) {
+                        statement.executeBatch();
+                        pending = 0;
+                    }
+                }
+            }
+
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    private void deleteTags(@Nonnull Collection<? extends T> elements) throws SQLException {
+        executeBatch("DELETE FROM " + tagTable + " WHERE ITEM_ID = ?", elements,
+                (statement, e) -> statement.setString(1, e.getId()));
+    }
+
+    @Nonnull
+    private String getInsertTagQuery() {
+        return "INSERT OR IGNORE INTO " + tagTable + " (ITEM_ID, TAG) VALUES(?,?)";
+    }
+
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException ex) {
+            logger.error("Failed to rollback the transaction on database table='" + table + "'. \nReason: " + ex.getMessage());
+        }
+    }
+
+    private void restoreAutoCommit(boolean autoCommit) {
+        try {
+            if (autoCommit && !connection.getAutoCommit()) {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            logger.error("Failed to restore auto-commit on database table='" + table + "'. \nReason: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Looks for the elements having every provided tag, using the tag table index.
+     *
+     * @param tags
+     *        The tags the elements must all have.
+     *
+     * @throws java.lang.NullPointerException
+     *         If tags is null.
+     *
+     * @return Possibly-empty list of the matching elements.
+     */
+
+    @Nonnull
+    public List<T> findByTags(@Nonnull Collection<String> tags) {
+
+        final Set<String> distinctTags = normalizeTags(Objects.requireNonNull(tags));
+
+        if (distinctTags.isEmpty()) {
+            return findAll();
+        }
+
+        String sql = "SELECT " + getColumns() + " FROM " + table + " WHERE ID IN " +
+                "(SELECT ITEM_ID FROM " + tagTable + " " +
+                "WHERE TAG IN (" + String.join(",", Collections.nCopies(distinctTags.size(), "?")) + ") " +
+                "GROUP BY ITEM_ID HAVING COUNT(*) = ?)";
+
+        final List<T> elements = new ArrayList<>();
+
+        try (QueryMetrics.Timer timer = metrics.start("findByTags");
+             Connection reader = pool.getReader();
+             PreparedStatement statement = reader.prepareStatement(sql)) {
+
+            int index = 1;
+
+            for (String tag : distinctTags) {
+                statement.setString(index++, tag);
+            }
+
+            statement.setInt(index, distinctTags.size());
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+
+                while (resultSet.next()) {
+                    elements.add(map(resultSet));
+                }
+            }
+
+            timer.addRows(elements.size());
+
+        } catch (SQLException ex) {
+            logger.error("Failed to find elements for TAGS='" + distinctTags + "' from database table='" + table + "'. \nReason: " + ex.getMessage());
+        }
+
+        return elements;
+    }
+
+    /**
+     * Runs the provided query and maps every returned row.
+     *
+     * @param method
+     *        The calling method name, see {@link #metrics}.
+     *
+     * @param sql
+     *        The parameterized query.
+     *
+     * @param params
+     *        The query parameters, in order.
+     *
+     * @throws java.sql.SQLException
+     *         If the query failed or a row could not be mapped.
+     *
+     * @return Possibly-empty list of the mapped elements.
+     */
+
+    @Nonnull
+    protected List<T> select(@Nonnull String method, @Nonnull String sql, @Nonnull List<?> params) throws SQLException {
+
+        final List<T> elements = new ArrayList<>();
+
+        try (QueryMetrics.Timer timer = metrics.start(method);
+             Connection reader = pool.getReader();
+             PreparedStatement statement = reader.prepareStatement(sql)) {
+
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+
+                while (resultSet.next()) {
+                    elements.add(map(resultSet));
+                }
+            }
+
+            timer.addRows(elements.size());
+        }
+
+        return elements;
+    }
+
+    @Override
+    public T findById(String id) {
+
+        String sql = "SELECT " + getColumns() + " FROM " + table + " WHERE ID = ?";
+
+        T element = null;
+
+        try (QueryMetrics.Timer timer = metrics.start("findById");
+             Connection reader = pool.getReader();
+             PreparedStatement statement = reader.prepareStatement(sql)) {
+
+            statement.setString(1, id);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+
+                if (resultSet.next()) {
+                    element = map(resultSet);
+                }
+            }
+
+            timer.addRows(element == null ? 0 : 1);
+
+        } catch (SQLException ex) {
+            logger.error("Failed to find element for ID='" + id + "' from database table='" + table + "'. \nReason: " + ex.getMessage());
+        }
+
+        return element;
+    }
+
+    @Override
+    public List<T> findAll() {
+
+        String sql = "SELECT " + getColumns() + " FROM " + table;
+
+        final List<T> elements = new ArrayList<>();
+
+        try (QueryMetrics.Timer timer = metrics.start("findAll");
+             Connection reader = pool.getReader();
+             PreparedStatement statement = reader.prepareStatement(sql);
+             ResultSet resultSet = statement.executeQuery()) {
+
+            while (resultSet.next()) {
+                elements.add(map(resultSet));
+            }
+
+            timer.addRows(elements.size());
+
+        } catch (SQLException ex) {
+            logger.error("Failed to find elements from the database table='" + table + "'. \nReason: " + ex.getMessage());
+        }
+
+        return elements;
+    }
+
+    @Override
+    public List<String> getValues(String column) {
+
+        String sql = "SELECT " + column + " FROM " + table;
+
+        final List<String> values = new ArrayList<>();
+
+        try (QueryMetrics.Timer timer = metrics.start("getValues");
+             Connection reader = pool.getReader();
+             PreparedStatement statement = reader.prepareStatement(sql);
+             ResultSet resultSet = statement.executeQuery()) {
+
+            while (resultSet.next()) {
+                values.add(resultSet.getString(column));
+            }
+
+            timer.addRows(values.size());
+
+        } catch (SQLException ex) {
+            logger.error("Failed to retrieve values from database table='" + table + "(" + column + ")'. \nReason: " + ex.getMessage());
+        }
+
+        return values;
+    }
+
+    @Nonnull
+    @Override
+    public Stream<T> streamAll(int fetchSize) {
+        return stream("streamAll", "SELECT " + getColumns() + " FROM " + table, List.of(), fetchSize, this::map);
+    }
+
+    @Nonnull
+    @Override
+    public Stream<String> streamValues(@Nonnull String column, int fetchSize) {
+        return stream("streamValues", "SELECT " + Objects.requireNonNull(column) + " FROM " + table, List.of(), fetchSize,
+                resultSet -> resultSet.getString(1));
+    }
+
+    /**
+     * Runs the provided query and lazily reads its rows as the returned stream is consumed.
+     * <br>The statement and its reader connection stay open until the stream is closed. A read failure is logged and
+     * ends the stream. The query is timed until the stream is closed.
+     *
+     * @param method
+     *        The calling method name, see {@link #metrics}.
+     *
+     * @param sql
+     *        The parameterized query.
+     *
+     * @param params
+     *        The query parameters, in order.
+     *
+     * @param fetchSize
+     *        The amount of rows the driver should fetch at once, or 0 for the driver default.
+     *
+     * @param reader
+     *        The reader building a value from the current row.
+     *
+     * @param <R>
+     *        The value type.
+     *
+     * @return Non-null stream of the read values, to be closed.
+     */
+
+    @Nonnull
+    protected <R> Stream<R> stream(@Nonnull String method, @Nonnull String sql, @Nonnull List<?> params, int fetchSize,
+                                   @Nonnull RowReader<R> reader) {
+
+        final QueryMetrics.Timer timer = metrics.start(method);
+
+        Connection source = null;
+        PreparedStatement statement = null;
+        final ResultSet resultSet;
+
+        try {
+
+            source = pool.getReader();
+            statement = source.prepareStatement(sql);
+
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+
+            if (fetchSize > 0) {
+                statement.setFetchSize(fetchSize);
+            }
+
+            resultSet = statement.executeQuery();
+
+        } catch (SQLException ex) {
+            logger.error("Failed to read elements from database table='" + table + "'. \nReason: " + ex.getMessage());
+            close(null, statement, source);
+            timer.close();
+            return Stream.empty();
+        }
+
+        final Connection leased = source;
+        final PreparedStatement cursor = statement;
+
+        final Spliterator<R> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED) {
+
+            private boolean done;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super R> action) {
+
+                if (done) {
+                    return false;
+                }
+
+                try {
+
+                    if (resultSet.next()) {
+                        timer.addRows(1);
+                        action.accept(reader.read(resultSet));
+                        return true;
+                    }
+
+                } catch (SQLException ex) {
+                    logger.error("Failed to read elements from database table='" + table + "'. \nReason: " + ex.getMessage());
+                }
+
+                done = true;
+                return false;
+            }
+        };
+
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            close(resultSet, cursor, leased);
+            timer.close();
+        });
+    }
+
+    /**
+     * Closes the provided result set before its statement, as an open result set of a cached statement keeps the read
+     * transaction of its connection open.
+     */
+
+    private void close(@Nullable ResultSet resultSet, @Nullable Statement statement, @Nullable Connection reader) {
+        close(resultSet);
+        close(statement);
+        close(reader);
+    }
+
+    private void close(@Nullable AutoCloseable resource) {
+
+        if (resource == null) {
+            return;
+        }
+
+        try {
+            resource.close();
+        } catch (Exception ex) {
+            logger.error("Failed to close the " + (resource instanceof Connection ? "reader" : "statement") +
+                    " on database table='" + table + "'. \nReason: " + ex.getMessage());
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Page<T> findPage(@Nullable Page.Cursor after, int size) {
+        return findPage(null, List.of(), after, size);
+    }
+
+    /**
+     * Reads the page of elements matching the provided condition and following the given cursor, ordered by
+     * descending (<i>LAST_MODIFIED_TIME</i>, <i>ID</i>).
+     * <br>One extra row is read to know if a next page exists.
+     *
+     * @param condition
+     *        The parameterized <i>WHERE</i> condition or null.
+     *
+     * @param params
+     *        The condition parameters, in order.
+     *
+     * @param after
+     *        The cursor of the previous page or null for the first page.
+     *
+     * @param size
+     *        The maximum amount of elements of the page.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If size is not positive.
+     *
+     * @return Non-null page of elements, empty and without next page if the query failed.
+     */
+
+    @Nonnull
+    protected Page<T> findPage(@Nullable String condition, @Nonnull List<?> params, @Nullable Page.Cursor after, int size) {
+
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive, found: " + size);
+        }
+
+        final List<String> conditions = new ArrayList<>();
+        final List<Object> values = new ArrayList<>(params);
+
+        if (condition != null) {
+            conditions.add(condition);
+        }
+
+        if (after != null) {
+            conditions.add("(LAST_MODIFIED_TIME, ID) < (?, ?)");
+            values.add(after.getLastModifiedTime());
+            values.add(after.getId());
+        }
+
+        String sql = "SELECT " + getColumns() + " FROM " + table +
+                (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions)) +
+                " ORDER BY LAST_MODIFIED_TIME DESC, ID DESC LIMIT ?";
+
+        values.add(size + 1);
+
+        final List<T> elements = new ArrayList<>(size);
+
+        Page.Cursor next = null;
+
+        try (QueryMetrics.Timer timer = metrics.start("findPage");
+             Connection reader = pool.getReader();
+             PreparedStatement statement = reader.prepareStatement(sql)) {
+
+            for (int i = 0; i < values.size(); i++) {
+                statement.setObject(i + 1, values.get(i));
+            }
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+
+                long lastModifiedTime = 0;
+                String id = null;
+
+                while (resultSet.next()) {
+
+                    if (elements.size() == size) {
+                        next = new Page.Cursor(lastModifiedTime, id);
+                        break;
+                    }
+
+                    elements.add(map(resultSet));
+                    lastModifiedTime = resultSet.getLong("LAST_MODIFIED_TIME");
+                    id = resultSet.getString("ID");
+                }
+            }
+
+            timer.addRows(elements.size());
+
+        } catch (SQLException ex) {
+            logger.error("Failed to read the page after='" + after + "' from database table='" + table + "'. \nReason: " + ex.getMessage());
+            return new Page<>(List.of(), null);
+        }
+
+        return new Page<>(elements, next);
+    }
+
+    @Override
+    public long getChangeSequence() {
+
+        String sql = "SELECT MAX(SEQ) FROM CHANGES WHERE TABLE_NAME = ?";
+
+        long sequence = 0;
+
+        final QueryMetrics.Timer timer = metrics.start("getChangeSequence");
+
+        try (Connection reader = pool.getReader();
+             PreparedStatement statement = reader.prepareStatement(sql)) {
+
+            statement.setString(1, table);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+
+                if (resultSet.next()) {
+                    sequence = resultSet.getLong(1);
+                }
+            }
+
+        } catch (SQLException ex) {
+            logger.error("Failed to read the change sequence of database table='" + table + "'. \nReason: " + ex.getMessage());
+        } finally {
+            timer.close();
+        }
+
+        return sequence;
+    }
+
+    /**
+     * Reads the logged changes joined with the current rows in a single query, so the changes and the rows are read from
+     * the same snapshot. A logged element without row has been deleted.
+     */
+
+    @Nonnull
+    @Override
+    public ChangeSet<T> findChangesSince(long sequence) {
+
+        String sql = "SELECT c.SEQ, c.ITEM_ID AS CHANGED_ID, " + getColumns("t") + " FROM CHANGES c " +
+                "LEFT JOIN " + table + " t ON t.ID = c.ITEM_ID " +
+                "WHERE c.TABLE_NAME = ? AND c.SEQ > ? ORDER BY c.SEQ";
+
+        final List<T> updated = new ArrayList<>();
+        final List<String> deleted = new ArrayList<>();
+
+        long last = sequence;
+
+        try (QueryMetrics.Timer timer = metrics.start("findChangesSince");
+             Connection reader = pool.getReader();
+             PreparedStatement statement = reader.prepareStatement(sql)) {
+
+            statement.setString(1, table);
+            statement.setLong(2, sequence);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+
+                while (resultSet.next()) {
+
+                    if (resultSet.getString("ID") == null) {
+                        deleted.add(resultSet.getString("CHANGED_ID"));
+                    } else {
+                        updated.add(map(resultSet));
+                    }
+
+                    last = resultSet.getLong("SEQ");
+                }
+            }
+
+            timer.addRows(updated.size() + deleted.size());
+
+        } catch (SQLException ex) {
+            logger.error("Failed to read the changes after sequence=" + sequence + " from database table='" + table + "'. \nReason: " + ex.getMessage());
+            return new ChangeSet<>(sequence, List.of(), List.of());
+        }
+
+        return new ChangeSet<>(last, updated, deleted);
+    }
+
+    @Override
+    public int getCount() {
+
+        String sql = "SELECT COUNT(*) FROM " + table;
+
+        int count = 0;
+
+        final QueryMetrics.Timer timer = metrics.start("getCount");
+
+        try (Connection reader = pool.getReader();
+             PreparedStatement statement = reader.prepareStatement(sql);
+             ResultSet resultSet = statement.executeQuery()) {
+
+            count = resultSet.getInt(1);
+        } catch (SQLException ex) {
+            logger.error("Failed to count elements from database table='" + table + "'. \nReason: " + ex.getMessage());
+        } finally {
+            timer.close();
+        }
+
+        return count;
+    }
+
+    @Nonnull
+    @Override
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Sets the parameters of a statement from an element.
+     *
+     * @param <T>
+     *        The data type.
+     */
+
+    @FunctionalInterface
+    protected interface Binder<T> {
+
+        void bind(@Nonnull PreparedStatement statement, @Nonnull T e) throws SQLException;
+    }
+
+    /**
+     * Reads a value from the current row of a result set.
+     *
+     * @param <R>
+     *        The value type.
+     */
+
+    @FunctionalInterface
+    protected interface RowReader<R> {
+
+        R read(@Nonnull ResultSet resultSet) throws SQLException;
+    }
+
+    /**
+     * A group of statements run within the same transaction.
+     */
+
+    @FunctionalInterface
+    protected interface Writes {
+
+        void run() throws SQLException;
+    }
+
+    /**
+     * Binds the provided date/time as epoch milliseconds, or as <i>NULL</i> if absent.
+     *
+     * @param statement
+     *        The target statement.
+     *
+     * @param index
+     *        The parameter index.
+     *
+     * @param date
+     *        The date/time to bind.
+     *
+     * @throws java.sql.SQLException
+     *         If the parameter could not be set.
+     */
+
+    protected static void setTime(@Nonnull PreparedStatement statement, int index, @Nullable Date date) throws SQLException {
+
+        if (date == null) {
+            statement.setNull(index, Types.INTEGER);
+        } else {
+            statement.setLong(index, date.getTime());
+        }
+    }
+
+    /**
+     * Reads the provided epoch milliseconds column of the current row.
+     *
+     * @param resultSet
+     *        The result set positioned on the row to read.
+     *
+     * @param column
+     *        The column name.
+     *
+     * @throws java.sql.SQLException
+     *         If the column could not be read.
+     *
+     * @return Possibly-null date/time.
+     */
+
+    @Nullable
+    protected static Date getTime(@Nonnull ResultSet resultSet, @Nonnull String column) throws SQLException {
+
+        final long millis = resultSet.getLong(column);
+
+        return resultSet.wasNull() ? null : new Date(millis);
+    }
+
+    /**
+     * Joins the provided tags with the separator used by every <i>TAGS</i> column.
+     *
+     * @param tags
+     *        The tags to join.
+     *
+     * @return Non-null joined tags.
+     */
+
+    @Nonnull
+    protected static String joinTags(@Nonnull List<String> tags) {
+        return String.join(TAG_SEPARATOR, normalizeTags(tags));
+    }
+
+    /**
+     * Splits the value of a <i>TAGS</i> column, tolerating the legacy ", " separator, blank tags and null values.
+     *
+     * @param value
+     *        The joined tags.
+     *
+     * @return Non-null modifiable list of the tags.
+     */
+
+    @Nonnull
+    protected static List<String> splitTags(@Nullable String value) {
+
+        if (value == null || value.isBlank()) {
+            return new ArrayList<>();
+        }
+
+        return new ArrayList<>(normalizeTags(Arrays.asList(value.split(TAG_SEPARATOR))));
+    }
+
+    @Nonnull
+    private static Set<String> normalizeTags(@Nonnull Collection<String> tags) {
+
+        final Set<String> normalized = new LinkedHashSet<>();
+
+        for (String tag : tags) {
+
+            if (tag != null && !tag.isBlank()) {
+                normalized.add(tag.trim());
+            }
+        }
+
+        return normalized;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.data;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The storage format of the <i>CONTENT</i> columns.
+ * <br>A content larger than {@link #COMPRESSION_THRESHOLD} bytes is stored as a <i>BLOB</i> made of the {@link #MAGIC}
+ * marker followed by its Deflate compressed UTF-8 bytes, any other content as plain <i>TEXT</i>. As the column type
+ * is checked when reading, rows written before compression still read unchanged.
+ */
+
+public final class ContentCodec {
+
+    /**
+     * The UTF-8 size in bytes above which a content is compressed.
+     */
+
+    public static final int COMPRESSION_THRESHOLD = 1024;
+
+    /**
+     * The leading bytes of a compressed content, the last one being the format version.
+     */
+
+    private static final byte[] MAGIC = {'E', 'M', 'Z', 1};
+
+    private ContentCodec() {}
+
+    /**
+     * Binds the provided content to a statement parameter, compressing it if it is large enough.
+     *
+     * @param statement
+     *        The target statement.
+     *
+     * @param index
+     *        The parameter index.
+     *
+     * @param content
+     *        The content to bind or null.
+     *
+     * @throws java.sql.SQLException
+     *         If the parameter could not be set.
+     */
+
+    public static void bind(@Nonnull PreparedStatement statement, int index, @Nullable String content) throws SQLException {
+
+        if (content == null) {
+            statement.setNull(index, Types.VARCHAR);
+            return;
+        }
+
+        final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+
+        if (bytes.length > COMPRESSION_THRESHOLD) {
+
+            final byte[] compressed = compress(bytes);
+
+            // Incompressible contents are kept as text, so they stay readable by any SQLite client.
+            if (compressed.length < bytes.length) {
+                statement.setBytes(index, compressed);
+                return;
+            }
+        }
+
+        statement.setString(index, content);
+    }
+
+    /**
+     * Reads the content stored into the provided column of the current row.
+     *
+     * @param resultSet
+     *        The result set positioned on the row to read.
+     *
+     * @param column
+     *        The column index.
+     *
+     * @throws java.sql.SQLException
+     *         If the column could not be read or holds a corrupted compressed content.
+     *
+     * @return The content or null if the column is null.
+     */
+
+    @Nullable
+    public static String read(@Nonnull ResultSet resultSet, int column) throws SQLException {
+
+        final Object value = resultSet.getObject(column);
+
+        if (value instanceof byte[]) {
+            return decode((byte[]) value);
+        }
+
+        return value == null ? null : value.toString();
+    }
+
+    @Nonnull
+    private static byte[] compress(@Nonnull byte[] bytes) throws SQLException {
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length / 2);
+
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(output)) {
+            output.write(MAGIC);
+            deflater.write(bytes);
+        } catch (IOException ex) {
+            throw new SQLException("Failed to compress content", ex);
+        }
+
+        return output.toByteArray();
+    }
+
+    @Nonnull
+    private static String decode(@Nonnull byte[] bytes) throws SQLException {
+
+        if (bytes.length < MAGIC.length || !Arrays.equals(bytes, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        final InputStream input = new ByteArrayInputStream(bytes, MAGIC.length, bytes.length - MAGIC.length);
+
+        try (InflaterInputStream inflater = new InflaterInputStream(input)) {
+            return new String(inflater.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new SQLException("Failed to decompress content", ex);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.easymind.core.data;
+
+import javax.annotation.Nonnull;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A forward change of the database schema, applied once by the {@link com.easymind.core.data.SchemaMigrator SchemaMigrator}.
+ * <br>A migration runs within the transaction recording its version, so it is either fully applied or not at all.
+ */
+
+@FunctionalInterface
+public interface Migration {
+
+    /**
+     * Applies this migration to the provided database.
+     *
+     * @param connection
+     *        The connection to the database, already within a transaction.
+     *
+     * @throws java.sql.SQLException
+     *         If a statement failed, which rolls the migration back.
+     */
+
+    void migrate(@Nonnull Connection connection) throws SQLException;
+}
@@ -16,58 +16,41 @@
 
 package com.easymind.core.data;
 
+import com.easymind.api.data.ItemQuery;
 import com.easymind.api.entities.Note;
-import com.easymind.api.utils.TimeUtils;
-import com.easymind.api.data.DataAccessObject;
 import com.easymind.core.entities.NoteImpl;
-import com.easymind.core.utils.AppUtils;
-import org.apache.log4j.Logger;
+import com.easymind.core.utils.ConnectionPool;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 
-public class NoteAccessObject implements DataAccessObject<Note> {
+public class NoteAccessObject extends ProjectItemAccessObject<Note> {
 
-    private final Logger logger = AppUtils.getLogger();
+    /**
+     * The columns of the note listings, the content being loaded on demand.
+     */
 
-    private final Connection connection;
+    private static final List<String> SUMMARY_COLUMNS = List.of(
+            "ID", "OWNER_ID", "TITLE", "TAGS", "FAVORITE", "LAST_MODIFIED_TIME", "CREATION_TIME");
 
     public NoteAccessObject(Connection connection) {
-        this.connection = Objects.requireNonNull(connection);
-        this.init();
+        this(new ConnectionPool(connection));
     }
 
-    @Override
-    public void init() {
-
-        String sql = "CREATE TABLE IF NOT EXISTS NOTES " +
-                "(ID TEXT PRIMARY KEY, " +
-                "OWNER_ID TEXT, " +
-                "TITLE TEXT, " +
-                "TAGS TEXT, " +
-                "FAVORITE INTEGER, " +
-                "CONTENT TEXT, " +
-                "LAST_MODIFIED_TIME TEXT, " +
-                "CREATION_TIME TEXT)";
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.executeUpdate();
-        } catch (SQLException ex) {
-            logger.error("Failed to create table='NOTES' to the database. \nReason: " + ex.getMessage());
-        }
+    public NoteAccessObject(@Nonnull ConnectionPool pool) {
+        super(pool, "NOTES");
+        this.init();
     }
 
+    @Nonnull
     @Override
-    public boolean insert(Note e) {
-
-        String sql = "INSERT INTO NOTES " +
+    protected String getInsertQuery() {
+        return "INSERT INTO NOTES " +
                 "(ID, " +
                 "OWNER_ID, " +
                 "TITLE, " +
@@ -77,176 +60,93 @@ public class NoteAccessObject implements DataAccessObject<Note> {
                 "LAST_MODIFIED_TIME, " +
                 "CREATION_TIME) " +
                 "VALUES(?,?,?,?,?,?,?,?)";
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            statement.setString(1, e.getId());
-            statement.setString(2, e.getOwnerId());
-            statement.setString(3, e.getTitle());
-            statement.setString(4, String.join(", ", e.getTags()));
-            statement.setBoolean(5, e.isFavorite());
-            statement.setString(6, e.getContent());
-            statement.setString(7, TimeUtils.format(e.getLastModifiedTime(), "dd/MM/yyyy HH:mm"));
-            statement.setString(8, TimeUtils.format(e.getCreationTime(), "dd/MM/yyyy HH:mm"));
-
-            statement.executeUpdate();
-        } catch (SQLException ex) {
-            logger.error("Failed to insert element for ID='" + e.getId() + "' to the database table='NOTES'. \nReason: " + ex.getMessage());
-            return false;
-        }
-
-        return true;
     }
 
     @Override
-    public boolean update(Note e) {
+    protected void bindInsert(@Nonnull PreparedStatement statement, @Nonnull Note e) throws SQLException {
+        statement.setString(1, e.getId());
+        statement.setString(2, e.getOwnerId());
+        statement.setString(3, e.getTitle());
+        statement.setString(4, joinTags(e.getTags()));
+        statement.setBoolean(5, e.isFavorite());
+        ContentCodec.bind(statement, 6, e.getContent());
+        setTime(statement, 7, e.getLastModifiedTime());
+        setTime(statement, 8, e.getCreationTime());
+    }
 
-        String sql = "UPDATE NOTES SET " +
+    @Nonnull
+    @Override
+    protected String getUpdateQuery() {
+        return "UPDATE NOTES SET " +
                 "OWNER_ID = ?, " +
                 "TITLE = ?, " +
                 "TAGS = ?, " +
                 "FAVORITE = ?, " +
-                "CONTENT = ?, " +
+                "CONTENT = COALESCE(?, CONTENT), " +
                 "LAST_MODIFIED_TIME = ? " +
                 "WHERE ID = ?";
-
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            statement.setString(1, e.getOwnerId());
-            statement.setString(2, e.getTitle());
-            statement.setString(3, String.join(", ", e.getTags()));
-            statement.setBoolean(4, e.isFavorite());
-            statement.setString(5, e.getContent());
-            statement.setString(6, TimeUtils.format(e.getLastModifiedTime(), "dd/MM/yyyy HH:mm"));
-            statement.setString(7, e.getId());
-
-            statement.executeUpdate();
-        } catch (SQLException ex) {
-            logger.error("Failed to update element for ID='" + e.getId() + "' to the database table='NOTES'. \nReason: " + ex.getMessage());
-            return false;
-        }
-
-        return true;
     }
 
     @Override
-    public boolean delete(Note e) {
-
-        String sql = "DELETE FROM NOTES WHERE ID = '" + e.getId() + "'";
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.executeUpdate();
-        } catch (SQLException ex) {
-            logger.error("Failed to delete element for ID='" + e.getId() + "' from the database table='NOTES'. \nReason: " + ex.getMessage());
-            return false;
-        }
-
-        return true;
+    protected void bindUpdate(@Nonnull PreparedStatement statement, @Nonnull Note e) throws SQLException {
+        statement.setString(1, e.getOwnerId());
+        statement.setString(2, e.getTitle());
+        statement.setString(3, joinTags(e.getTags()));
+        statement.setBoolean(4, e.isFavorite());
+        ContentCodec.bind(statement, 5, getLoadedContent(e));
+        setTime(statement, 6, e.getLastModifiedTime());
+        statement.setString(7, e.getId());
     }
 
+    @Nonnull
     @Override
-    public Note findById(String id) {
-
-        String sql = "SELECT * FROM NOTES WHERE ID = '" + id + "'";
-
-        Note note = null;
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            ResultSet resultSet = statement.executeQuery();
-
-            if (resultSet.next()) {
-
-                note = new NoteImpl.Builder(resultSet.getString("TITLE"))
-                        .setContent(resultSet.getString("CONTENT"))
-                        .setFavorite(resultSet.getBoolean("FAVORITE"))
-                        .setTags(new ArrayList<>(Arrays.asList(resultSet.getString("TAGS").split(", "))))
-                        .setLastModifiedTime(TimeUtils.parse(resultSet.getString("LAST_MODIFIED_TIME"), "dd/MM/yyyy HH:mm"))
-                        .setCreationTime(TimeUtils.parse(resultSet.getString("CREATION_TIME"), "dd/MM/yyyy HH:mm"))
-                        .setOwnerId(resultSet.getString("OWNER_ID"))
-                        .setId(id)
-                        .build();
-            }
-
-            resultSet.close();
-        } catch (SQLException ex) {
-            logger.error("Failed to find element for ID='" + id + "' from the database table='NOTES'. \nReason: " + ex.getMessage());
-        }
-
-        return note;
+    protected List<String> getTags(@Nonnull Note e) {
+        return e.getTags();
     }
 
     @Override
-    public List<Note> findAll() {
-
-        String sql = "SELECT ID FROM NOTES";
-
-        final List<Note> notes = new ArrayList<>();
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            ResultSet resultSet = statement.executeQuery();
-
-            while (resultSet.next()) {
-
-                String id = resultSet.getString("ID");
+    protected String getContent(@Nonnull Note e) {
+        return e.getContent();
+    }
 
-                notes.add(findById(id));
-            }
+    @Nullable
+    @Override
+    protected String getLoadedContent(@Nonnull Note e) {
 
-            resultSet.close();
-        } catch (SQLException ex) {
-            logger.error("Failed to find elements from the database table='NOTES'. \nReason: " + ex.getMessage());
+        if (e instanceof NoteImpl) {
+            return ((NoteImpl) e).getLoadedContent();
         }
 
-        return notes;
+        return e.getContent();
     }
 
+    @Nonnull
     @Override
-    public List<String> getValues(String column) {
-
-        String sql = "SELECT " + column + " FROM NOTES";
-
-        final List<String> values = new ArrayList<>();
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            ResultSet resultSet = statement.executeQuery();
-
-            while (resultSet.next()) {
-                values.add(resultSet.getString(column));
-            }
-
-        } catch (SQLException ex) {
-            logger.error("Failed to retrieve values from database table='NOTES(" + column + ")'. \nReason: " + ex.getMessage());
-        }
-        return values;
+    protected List<String> getSummaryColumns() {
+        return SUMMARY_COLUMNS;
     }
 
     @Override
-    public int getCount() {
-
-        String sql = "SELECT COUNT(*) FROM NOTES";
-
-        int count = 0;
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            ResultSet resultSet = statement.executeQuery();
+    protected void compileConditions(@Nonnull ItemQuery query, @Nonnull List<String> conditions, @Nonnull List<Object> params) {
 
-            count = resultSet.getInt(1);
-            resultSet.close();
-        } catch (SQLException ex) {
-            logger.error("Failed to count elements from database table='NOTES'. \nReason: " + ex.getMessage());
+        if (query.isTaskQuery()) {
+            throw new IllegalArgumentException("Query='" + query + "' uses task criteria not supported by table='NOTES'");
         }
 
-        return count;
+        super.compileConditions(query, conditions, params);
     }
 
     @Nonnull
     @Override
-    public Connection getConnection() {
-        return connection;
+    protected Note map(@Nonnull ResultSet resultSet) throws SQLException {
+        return new NoteImpl.Builder(resultSet.getString("TITLE"))
+                .setFavorite(resultSet.getBoolean("FAVORITE"))
+                .setTags(splitTags(resultSet.getString("TAGS")))
+                .setLastModifiedTime(getTime(resultSet, "LAST_MODIFIED_TIME"))
+                .setCreationTime(getTime(resultSet, "CREATION_TIME"))
+                .setOwnerId(resultSet.getString("OWNER_ID"))
+                .setId(resultSet.getString("ID"))
+                .setContentLoader(getContentLoader(resultSet.getString("ID")))
+                .build();
     }
 }
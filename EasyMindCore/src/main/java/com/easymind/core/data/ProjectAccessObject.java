@@ -16,58 +16,67 @@
 
 package com.easymind.core.data;
 
+import com.easymind.api.entities.Note;
 import com.easymind.api.entities.Project;
-import com.easymind.api.utils.TimeUtils;
-import com.easymind.api.data.DataAccessObject;
+import com.easymind.api.entities.Task;
+import com.easymind.api.utils.cache.ProjectItemCacheStore;
 import com.easymind.core.entities.ProjectBuilder;
-import com.easymind.core.utils.AppUtils;
+import com.easymind.core.utils.ConnectionPool;
+import com.easymind.core.utils.cache.OwnedItemCacheStore;
 import com.easymind.core.utils.cache.ProjectItemCacheStoreImpl;
-import org.apache.log4j.Logger;
 
 import javax.annotation.Nonnull;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
-public class ProjectAccessObject implements DataAccessObject<Project> {
+public class ProjectAccessObject extends AbstractAccessObject<Project> {
 
-    private final Logger logger = AppUtils.getLogger();
+    private final ProjectItemCacheStore<Note> noteCacheStore;
 
-    private final Connection connection;
+    private final ProjectItemCacheStore<Task> taskCacheStore;
 
     public ProjectAccessObject(Connection connection) {
-        this.connection = Objects.requireNonNull(connection);
-        this.init();
+        this(new ConnectionPool(connection));
     }
 
-    @Override
-    public void init() {
-
-        String sql = "CREATE TABLE IF NOT EXISTS PROJECTS " +
-                "(ID TEXT PRIMARY KEY, " +
-                "NAME TEXT, " +
-                "DESCRIPTION TEXT, " +
-                "TAGS TEXT, " +
-                "FAVORITE INTEGER, " +
-                "LAST_MODIFIED_TIME TEXT, " +
-                "CREATION_TIME TEXT)";
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.executeUpdate();
-        } catch (SQLException ex) {
-            logger.error("Failed to create table='PROJECTS' to database. \nReason: " + ex.getMessage());
-        }
+    public ProjectAccessObject(@Nonnull ConnectionPool pool) {
+        this(pool,
+                new ProjectItemCacheStoreImpl<>(new NoteAccessObject(pool)),
+                new ProjectItemCacheStoreImpl<>(new TaskAccessObject(pool)));
     }
 
-    @Override
-    public boolean insert(Project e) {
+    public ProjectAccessObject(Connection connection, @Nonnull ProjectItemCacheStore<Note> noteCacheStore,
+                               @Nonnull ProjectItemCacheStore<Task> taskCacheStore) {
+        this(new ConnectionPool(connection), noteCacheStore, taskCacheStore);
+    }
 
-        String sql = "INSERT INTO PROJECTS " +
+    /**
+     * @param pool
+     *        The database connections, shared with the data sources of the cache stores.
+     *
+     * @param noteCacheStore
+     *        The shared note cache store the loaded projects get a view of.
+     *
+     * @param taskCacheStore
+     *        The shared task cache store the loaded projects get a view of.
+     */
+
+    public ProjectAccessObject(@Nonnull ConnectionPool pool, @Nonnull ProjectItemCacheStore<Note> noteCacheStore,
+                               @Nonnull ProjectItemCacheStore<Task> taskCacheStore) {
+        super(pool, "PROJECTS");
+        this.noteCacheStore = Objects.requireNonNull(noteCacheStore);
+        this.taskCacheStore = Objects.requireNonNull(taskCacheStore);
+        this.init();
+    }
+
+    @Nonnull
+    @Override
+    protected String getInsertQuery() {
+        return "INSERT INTO PROJECTS " +
                 "(ID, " +
                 "NAME, " +
                 "DESCRIPTION, " +
@@ -76,175 +85,62 @@ public class ProjectAccessObject implements DataAccessObject<Project> {
                 "LAST_MODIFIED_TIME, " +
                 "CREATION_TIME) " +
                 "VALUES(?,?,?,?,?,?,?)";
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            statement.setString(1, e.getId());
-            statement.setString(2, e.getName());
-            statement.setString(3, e.getDescription());
-            statement.setString(4, String.join(",", e.getTags()));
-            statement.setBoolean(5, e.isFavorite());
-            statement.setString(6, TimeUtils.format(e.getLastModifiedTime(), "dd/MM/yyyy HH:mm"));
-            statement.setString(7, TimeUtils.format(e.getCreationTime(), "dd/MM/yyyy HH:mm"));
-
-            statement.executeUpdate();
-        } catch (SQLException ex) {
-            logger.error("Failed to insert element for ID='" + e.getId() + "' to database table='PROJECTS'. \nReason: " + ex.getMessage());
-            return false;
-        }
-
-        return true;
     }
 
     @Override
-    public boolean update(Project e) {
+    protected void bindInsert(@Nonnull PreparedStatement statement, @Nonnull Project e) throws SQLException {
+        statement.setString(1, e.getId());
+        statement.setString(2, e.getName());
+        statement.setString(3, e.getDescription());
+        statement.setString(4, joinTags(e.getTags()));
+        statement.setBoolean(5, e.isFavorite());
+        setTime(statement, 6, e.getLastModifiedTime());
+        setTime(statement, 7, e.getCreationTime());
+    }
 
-        String sql = "UPDATE PROJECTS SET " +
+    @Nonnull
+    @Override
+    protected String getUpdateQuery() {
+        return "UPDATE PROJECTS SET " +
                 "NAME = ?, " +
                 "DESCRIPTION = ?, " +
                 "TAGS = ?, " +
                 "FAVORITE = ?, " +
                 "LAST_MODIFIED_TIME = ? " +
                 "WHERE ID = ?";
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            statement.setString(1, e.getName());
-            statement.setString(2, e.getDescription());
-            statement.setString(3, String.join(",", e.getTags()));
-            statement.setBoolean(4, e.isFavorite());
-            statement.setString(5, TimeUtils.format(e.getLastModifiedTime(), "dd/MM/yyyy HH:mm"));
-            statement.setString(6, e.getId());
-
-            statement.executeUpdate();
-        } catch (SQLException ex) {
-            logger.error("Failed to update element for ID='" + e.getId() + "' to database table='PROJECTS'. \nReason: " + ex.getMessage());
-            return false;
-        }
-
-        return true;
-    }
-
-    @Override
-    public boolean delete(Project e) {
-
-        String sql = "DELETE FROM PROJECTS WHERE ID = '" + e.getId() + "'";
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.executeUpdate();
-        } catch (SQLException ex) {
-            logger.error("Failed to delete element for ID='" + e.getId() + "' from database table='PROJECTS'. \nReason: " + ex.getMessage());
-            return false;
-        }
-
-        return true;
-    }
-
-    @Override
-    public Project findById(String id) {
-
-        String sql = "SELECT * FROM PROJECTS WHERE ID = '" + id + "'";
-
-        Project project = null;
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            ResultSet resultSet = statement.executeQuery();
-
-            if (resultSet.next()) {
-
-                project = new ProjectBuilder()
-                        .setId(id)
-                        .setName(resultSet.getString("NAME"))
-                        .setDescription(resultSet.getString("DESCRIPTION"))
-                        .setTags(new ArrayList<>(Arrays.asList(resultSet.getString("TAGS").split(","))))
-                        .setFavorite(resultSet.getBoolean("FAVORITE"))
-                        .setNoteCacheStore(new ProjectItemCacheStoreImpl<>(new NoteAccessObject(connection)))
-                        .setTaskCacheStore(new ProjectItemCacheStoreImpl<>(new TaskAccessObject(connection)))
-                        .setLastModifiedTime(TimeUtils.parse(resultSet.getString("LAST_MODIFIED_TIME"),"dd/MM/yyyy HH:mm"))
-                        .setCreationTime(TimeUtils.parse(resultSet.getString("CREATION_TIME"), "dd/MM/yyyy HH:mm"))
-                        .build();
-            }
-
-            resultSet.close();
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-            logger.error("Failed to find element for ID='" + id + "' from database table='PROJECTS'. \nReason: " + ex.getMessage());
-        }
-
-        return project;
     }
 
     @Override
-    public List<Project> findAll() {
-
-        String sql = "SELECT ID FROM PROJECTS";
-
-        final List<Project> projects = new ArrayList<>();
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            ResultSet resultSet = statement.executeQuery();
-
-            while (resultSet.next()) {
-
-                String id = resultSet.getString("ID");
-
-                projects.add(findById(id));
-            }
-
-            resultSet.close();
-        } catch (SQLException ex) {
-            logger.error("Failed to find elements from database table='PROJECTS'. \nReason: " + ex.getMessage());
-        }
-
-        return projects;
-    }
-
-    @Override
-    public List<String> getValues(String column) {
-
-        String sql = "SELECT " + column + " FROM PROJECTS";
-
-        final List<String> values = new ArrayList<>();
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            ResultSet resultSet = statement.executeQuery();
-
-            while (resultSet.next()) {
-                values.add(resultSet.getString(column));
-            }
-        } catch (SQLException ex) {
-            logger.error("Failed to retrieve values from database table='PROJECTS(" + column + ")'. \nReason: " + ex.getMessage());
-        }
-
-        return values;
+    protected void bindUpdate(@Nonnull PreparedStatement statement, @Nonnull Project e) throws SQLException {
+        statement.setString(1, e.getName());
+        statement.setString(2, e.getDescription());
+        statement.setString(3, joinTags(e.getTags()));
+        statement.setBoolean(4, e.isFavorite());
+        setTime(statement, 5, e.getLastModifiedTime());
+        statement.setString(6, e.getId());
     }
 
+    @Nonnull
     @Override
-    public int getCount() {
-
-        String sql = "SELECT COUNT(ID) FROM PROJECTS";
-
-        int count = 0;
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            ResultSet resultSet = statement.executeQuery();
-
-            count = resultSet.getInt(1);
-            resultSet.close();
-        } catch (SQLException ex) {
-            logger.error("Failed to count elements from database table='PROJECTS'. \nReason: " + ex.getMessage());
-        }
-
-        return count;
+    protected List<String> getTags(@Nonnull Project e) {
+        return e.getTags();
     }
 
     @Nonnull
     @Override
-    public Connection getConnection() {
-        return connection;
+    protected Project map(@Nonnull ResultSet resultSet) throws SQLException {
+        final String id = resultSet.getString("ID");
+
+        return new ProjectBuilder()
+                .setId(id)
+                .setName(resultSet.getString("NAME"))
+                .setDescription(resultSet.getString("DESCRIPTION"))
+                .setTags(splitTags(resultSet.getString("TAGS")))
+                .setFavorite(resultSet.getBoolean("FAVORITE"))
+                .setNoteCacheStore(new OwnedItemCacheStore<>(noteCacheStore, id))
+                .setTaskCacheStore(new OwnedItemCacheStore<>(taskCacheStore, id))
+                .setLastModifiedTime(getTime(resultSet, "LAST_MODIFIED_TIME"))
+                .setCreationTime(getTime(resultSet, "CREATION_TIME"))
+                .build();
     }
 }
@@ -0,0 +1,623 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.easymind.core.data;
+
+import com.easymind.api.data.ItemQuery;
+import com.easymind.api.data.Page;
+import com.easymind.api.data.SearchResult;
+import com.easymind.api.entities.ProjectItem;
+import com.easymind.core.utils.ConnectionPool;
+import com.easymind.core.utils.metrics.QueryMetrics;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+
+/**
+ * A {@link com.easymind.core.data.AbstractAccessObject AbstractAccessObject} for the tables storing
+ * {@link com.easymind.api.entities.ProjectItem ProjectItem}, which are owned by a project through their <i>OWNER_ID</i>.
+ *
+ * @param <T>
+ *        The item type.
+ */
+
+public abstract class ProjectItemAccessObject<T extends ProjectItem> extends AbstractAccessObject<T> {
+
+    /**
+     * The contentless full-text index of the title and content columns, which holds no copy of the indexed text.
+     */
+
+    protected final String searchTable;
+
+    /**
+     * The table mapping the item ids to the row ids of the {@link #searchTable full-text index}.
+     */
+
+    protected final String searchKeyTable;
+
+    public ProjectItemAccessObject(@Nonnull Connection connection, @Nonnull String table) {
+        this(new ConnectionPool(connection), table);
+    }
+
+    public ProjectItemAccessObject(@Nonnull ConnectionPool pool, @Nonnull String table) {
+        super(pool, table);
+        this.searchTable = table + "_FTS";
+        this.searchKeyTable = table + "_FTS_KEYS";
+    }
+
+    /**
+     * Returns the columns read by the element queries, every column but <i>CONTENT</i>.
+     * <br>The content of the mapped elements is loaded on first access, see {@link #getContentLoader(String)}.
+     *
+     * @return Non-null column names.
+     */
+
+    @Nonnull
+    protected abstract List<String> getSummaryColumns();
+
+    /**
+     * Returns the content of the provided element, stored into the full-text index of this object.
+     * <br>The content is loaded if it is not resident.
+     *
+     * @param e
+     *        The target element.
+     *
+     * @return The content of the element.
+     */
+
+    protected abstract String getContent(@Nonnull T e);
+
+    /**
+     * Returns the content of the provided element only if it is resident.
+     * <br>The updates write a null content as <i>COALESCE(NULL, CONTENT)</i> so the stored content is kept without
+     * being loaded.
+     *
+     * @param e
+     *        The target element.
+     *
+     * @return The resident content or null if it has not been loaded.
+     */
+
+    @Nullable
+    protected abstract String getLoadedContent(@Nonnull T e);
+
+    /**
+     * Estimates the memory held by the provided element: its title, tags and resident content, as UTF-16 bytes.
+     * <br>The content is not loaded, so the weight of an element grows once its content is loaded.
+     *
+     * @param e
+     *        The target element.
+     *
+     * @return The resident size of the element in bytes.
+     */
+
+    public long getResidentSize(@Nonnull T e) {
+
+        final String content = getLoadedContent(e);
+
+        long chars = e.getTitle().length() + (content == null ? 0 : content.length());
+
+        for (String tag : e.getTags()) {
+            chars += tag.length();
+        }
+
+        return 2 * chars;
+    }
+
+    @Nonnull
+    @Override
+    protected String getColumns() {
+        return String.join(", ", getSummaryColumns());
+    }
+
+    @Nonnull
+    @Override
+    protected String getColumns(@Nonnull String alias) {
+
+        final StringJoiner columns = new StringJoiner(", ");
+
+        getSummaryColumns().forEach(column -> columns.add(alias + "." + column));
+
+        return columns.toString();
+    }
+
+    /**
+     * Returns the loader of the content of the element matching the provided id, given to the mapped elements.
+     *
+     * @param id
+     *        The element id.
+     *
+     * @return Non-null content loader.
+     */
+
+    @Nonnull
+    protected Supplier<String> getContentLoader(@Nonnull String id) {
+        return () -> findContent(id);
+    }
+
+    /**
+     * Reads the content of the element matching the provided id, decompressed if needed, see
+     * {@link com.easymind.core.data.ContentCodec ContentCodec}.
+     *
+     * @param id
+     *        The element id.
+     *
+     * @throws java.lang.NullPointerException
+     *         If id is null.
+     *
+     * @return The content or null if the element does not exist or could not be read.
+     */
+
+    @Nullable
+    public String findContent(@Nonnull String id) {
+
+        Objects.requireNonNull(id);
+
+        String sql = "SELECT CONTENT FROM " + table + " WHERE ID = ?";
+
+        final QueryMetrics.Timer timer = metrics.start("findContent");
+
+        try (Connection reader = pool.getReader();
+             PreparedStatement statement = reader.prepareStatement(sql)) {
+
+            statement.setString(1, id);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+
+                if (resultSet.next()) {
+                    return ContentCodec.read(resultSet, 1);
+                }
+            }
+
+        } catch (SQLException ex) {
+            logger.error("Failed to find content for ID='" + id + "' from database table='" + table + "'. \nReason: " + ex.getMessage());
+        } finally {
+            timer.close();
+        }
+
+        return null;
+    }
+
+    @Override
+    protected void afterInsert(@Nonnull Collection<? extends T> elements) throws SQLException {
+
+        executeBatch("INSERT INTO " + searchKeyTable + " (ITEM_ID) VALUES(?)", elements,
+                (statement, e) -> statement.setString(1, e.getId()));
+
+        executeBatch("INSERT INTO " + searchTable + " (rowid, TITLE, CONTENT) " +
+                "VALUES((SELECT DOC_ID FROM " + searchKeyTable + " WHERE ITEM_ID = ?), ?, ?)", elements, (statement, e) -> {
+            statement.setString(1, e.getId());
+            statement.setString(2, e.getTitle());
+            statement.setString(3, getContent(e));
+        });
+    }
+
+    /**
+     * Indexes the new title and content of the stored elements in place of their stored ones. A content which is not
+     * resident is unchanged, so its stored value is indexed again.
+     */
+
+    @Override
+    protected void beforeUpdate(@Nonnull Collection<? extends T> elements) throws SQLException {
+
+        final Map<String, IndexedText> indexed = unindex(elements);
+
+        final Map<String, T> updated = new LinkedHashMap<>();
+
+        for (T e : elements) {
+
+            if (indexed.containsKey(e.getId())) {
+                updated.put(e.getId(), e);
+            }
+        }
+
+        executeBatch("INSERT INTO " + searchTable + " (rowid, TITLE, CONTENT) VALUES(?, ?, ?)", updated.values(), (statement, e) -> {
+
+            final IndexedText text = indexed.get(e.getId());
+            final String content = getLoadedContent(e);
+
+            statement.setLong(1, text.docId);
+            statement.setString(2, e.getTitle());
+            statement.setString(3, content == null ? text.content : content);
+        });
+    }
+
+    @Override
+    protected void beforeDelete(@Nonnull Collection<? extends T> elements) throws SQLException {
+
+        unindex(elements);
+
+        executeBatch("DELETE FROM " + searchKeyTable + " WHERE ITEM_ID = ?", elements,
+                (statement, e) -> statement.setString(1, e.getId()));
+    }
+
+    /**
+     * Removes the stored elements among the provided ones from the full-text index. The index is contentless, so its
+     * <i>delete</i> command needs the indexed values, which are read back from the entity table.
+     *
+     * @return The indexed text of each stored element, by id.
+     */
+
+    @Nonnull
+    private Map<String, IndexedText> unindex(@Nonnull Collection<? extends T> elements) throws SQLException {
+
+        final Map<String, IndexedText> indexed = new HashMap<>();
+
+        final String select = "SELECT k.DOC_ID, i.TITLE, i.CONTENT FROM " + table + " i " +
+                "JOIN " + searchKeyTable + " k ON k.ITEM_ID = i.ID WHERE i.ID = ?";
+
+        try (PreparedStatement query = connection.prepareStatement(select);
+             PreparedStatement delete = connection.prepareStatement("INSERT INTO " + searchTable + " " +
+                     "(" + searchTable + ", rowid, TITLE, CONTENT) VALUES('delete', ?, ?, ?)")) {
+
+            int pending = 0;
+
+            for (T e : elements) {
+
+                if (indexed.containsKey(e.getId())) {
+                    continue;
+                }
+
+                query.setString(1, e.getId());
+
+                try (ResultSet resultSet = query.executeQuery()) {
+
+                    if (!resultSet.next()) {
+                        continue;
+                    }
+
+                    final IndexedText text = new IndexedText(resultSet.getLong(1), ContentCodec.read(resultSet, 3));
+
+                    indexed.put(e.getId(), text);
+
+                    delete.setLong(1, text.docId);
+                    delete.setString(2, resultSet.getString(2));
+                    delete.setString(3, text.content);
+                }
+
+                delete.addBatch();
+
+                if (++pending == BATCH_SIZE) {
+                    delete.executeBatch();
+                    pending = 0;
+                }
+            }
+
+            if (pending > 0) {
+                delete.executeBatch();
+            }
+        }
+
+        return indexed;
+    }
+
+    /**
+     * Looks for the elements owned by the {@link com.easymind.api.entities.Project Project} matching the provided id.
+     *
+     * @param ownerId
+     *        The owner project id.
+     *
+     * @throws java.lang.NullPointerException
+     *         If owner id is null.
+     *
+     * @return Possibly-empty list of the owned elements.
+     */
+
+    @Nonnull
+    public List<T> findByOwnerId(@Nonnull String ownerId) {
+
+        Objects.requireNonNull(ownerId);
+
+        String sql = "SELECT " + getColumns() + " FROM " + table + " WHERE OWNER_ID = ?";
+
+        final List<T> elements = new ArrayList<>();
+
+        try (QueryMetrics.Timer timer = metrics.start("findByOwnerId");
+             Connection reader = pool.getReader();
+             PreparedStatement statement = reader.prepareStatement(sql)) {
+
+            statement.setString(1, ownerId);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+
+                while (resultSet.next()) {
+                    elements.add(map(resultSet));
+                }
+            }
+
+            timer.addRows(elements.size());
+
+        } catch (SQLException ex) {
+            logger.error("Failed to find elements for OWNER_ID='" + ownerId + "' from database table='" + table + "'. \nReason: " + ex.getMessage());
+        }
+
+        return elements;
+    }
+
+    /**
+     * Reads the page of elements owned by the {@link com.easymind.api.entities.Project Project} matching the provided
+     * id and following the given cursor, most recently modified first.
+     *
+     * @param ownerId
+     *        The owner project id.
+     *
+     * @param after
+     *        The cursor of the previous page or null for the first page.
+     *
+     * @param size
+     *        The maximum amount of elements of the page.
+     *
+     * @throws java.lang.NullPointerException
+     *         If owner id is null.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If size is not positive.
+     *
+     * @return Non-null page of the owned elements.
+     */
+
+    @Nonnull
+    public Page<T> findPageByOwnerId(@Nonnull String ownerId, @Nullable Page.Cursor after, int size) {
+        return findPage("OWNER_ID = ?", List.of(Objects.requireNonNull(ownerId)), after, size);
+    }
+
+    /**
+     * Looks for the elements matching the provided query, run as a single parameterized statement.
+     *
+     * @param query
+     *        The query to run.
+     *
+     * @throws java.lang.NullPointerException
+     *         If query is null.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the query uses criteria not supported by this table.
+     *
+     * @return Possibly-empty list of the matching elements, in the query order.
+     */
+
+    @Nonnull
+    public List<T> findByQuery(@Nonnull ItemQuery query) {
+
+        Objects.requireNonNull(query);
+
+        final List<String> conditions = new ArrayList<>();
+        final List<Object> params = new ArrayList<>();
+
+        compileConditions(query, conditions, params);
+
+        final StringBuilder sql = new StringBuilder("SELECT " + getColumns() + " FROM " + table);
+
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+
+        final String direction = query.isDescending() ? " DESC" : " ASC";
+
+        sql.append(" ORDER BY ").append(getOrderExpression(query.getOrder())).append(direction)
+                .append(", ID").append(direction);
+
+        if (query.getLimit() > 0) {
+            sql.append(" LIMIT ?");
+            params.add(query.getLimit());
+        }
+
+        try {
+            return select("findByQuery", sql.toString(), params);
+        } catch (SQLException ex) {
+            logger.error("Failed to find elements for query='" + query + "' from database table='" + table + "'. \nReason: " + ex.getMessage());
+        }
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * Translates the criteria of the provided query to <i>WHERE</i> conditions.
+     * <br>The title conditions compare without case first so the <i>TITLE COLLATE NOCASE</i> index can be used.
+     *
+     * @param query
+     *        The query to translate.
+     *
+     * @param conditions
+     *        The conditions to append to, joined with <i>AND</i>.
+     *
+     * @param params
+     *        The parameters of the conditions to append to, in order.
+     */
+
+    protected void compileConditions(@Nonnull ItemQuery query, @Nonnull List<String> conditions, @Nonnull List<Object> params) {
+
+        if (query.getOwnerId() != null) {
+            conditions.add("OWNER_ID = ?");
+            params.add(query.getOwnerId());
+        }
+
+        if (query.getTitle() != null) {
+
+            conditions.add("TITLE = ? COLLATE NOCASE");
+            params.add(query.getTitle());
+
+            if (!query.isIgnoreCase()) {
+                conditions.add("TITLE = ?");
+                params.add(query.getTitle());
+            }
+        }
+
+        if (query.getFavorite() != null) {
+            conditions.add("FAVORITE = ?");
+            params.add(query.getFavorite() ? 1 : 0);
+        }
+    }
+
+    /**
+     * Returns the expression to sort the rows by for the provided order.
+     *
+     * @param order
+     *        The query order.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the order is not supported by this table.
+     *
+     * @return Non-null order expression.
+     */
+
+    @Nonnull
+    protected String getOrderExpression(@Nonnull ItemQuery.Order order) {
+
+        switch (order) {
+            case LAST_MODIFIED_TIME:
+                return "LAST_MODIFIED_TIME";
+            case CREATION_TIME:
+                return "CREATION_TIME";
+            case TITLE:
+                return "TITLE COLLATE NOCASE";
+            default:
+                throw new IllegalArgumentException("Order " + order + " is not supported by table='" + table + "'");
+        }
+    }
+
+    /**
+     * Looks for the elements whose title or content contains every word of the provided text, using the full-text
+     * index.
+     * <br>The words are matched as whole tokens, ignoring case and diacritics, except the last one which also matches
+     * as a prefix. Every match is ranked before the limit applies, so the cost grows with the amount of matching
+     * items rather than with the limit.
+     *
+     * @param ownerId
+     *        The owner project id or null for any owner.
+     *
+     * @param text
+     *        The words to look for.
+     *
+     * @param limit
+     *        The maximum amount of results.
+     *
+     * @throws java.lang.NullPointerException
+     *         If text is null.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If limit is not positive.
+     *
+     * @return Possibly-empty list of the matching elements, most relevant first.
+     */
+
+    @Nonnull
+    public List<SearchResult<T>> search(@Nullable String ownerId, @Nonnull String text, int limit) {
+
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive, found: " + limit);
+        }
+
+        final String match = toMatchQuery(Objects.requireNonNull(text));
+
+        final List<SearchResult<T>> results = new ArrayList<>();
+
+        if (match == null) {
+            return results;
+        }
+
+        String sql = "SELECT " + getColumns("i") + ", i.CONTENT AS SEARCH_CONTENT, " +
+                "bm25(" + searchTable + ") AS SEARCH_RANK " +
+                "FROM " + searchTable + " " +
+                "JOIN " + searchKeyTable + " k ON k.DOC_ID = " + searchTable + ".rowid " +
+                "JOIN " + table + " i ON i.ID = k.ITEM_ID " +
+                "WHERE " + searchTable + " MATCH ?" +
+                (ownerId == null ? "" : " AND i.OWNER_ID = ?") +
+                " ORDER BY SEARCH_RANK LIMIT ?";
+
+        try (QueryMetrics.Timer timer = metrics.start("search");
+             Connection reader = pool.getReader();
+             PreparedStatement statement = reader.prepareStatement(sql)) {
+
+            int index = 1;
+
+            statement.setString(index++, match);
+
+            if (ownerId != null) {
+                statement.setString(index++, ownerId);
+            }
+
+            statement.setInt(index, limit);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+
+                final List<String> terms = SearchSnippet.getTerms(text);
+
+                while (resultSet.next()) {
+
+                    final T item = map(resultSet);
+                    final String content = ContentCodec.read(resultSet, resultSet.findColumn("SEARCH_CONTENT"));
+
+                    results.add(new SearchResult<>(item, SearchSnippet.build(item.getTitle(), content, terms),
+                            resultSet.getDouble("SEARCH_RANK")));
+                }
+            }
+
+            timer.addRows(results.size());
+
+        } catch (SQLException ex) {
+            logger.error("Failed to search text='" + text + "' from database table='" + table + "'. \nReason: " + ex.getMessage());
+        }
+
+        return results;
+    }
+
+    /**
+     * Builds the <i>MATCH</i> expression of the provided text, each word being quoted so the user input is never
+     * interpreted as query syntax.
+     */
+
+    @Nullable
+    private static String toMatchQuery(@Nonnull String text) {
+
+        final StringJoiner match = new StringJoiner(" ");
+
+        for (String word : text.trim().split("\\s+")) {
+
+            if (!word.isEmpty()) {
+                match.add('"' + word.replace("\"", "\"\"") + '"');
+            }
+        }
+
+        return match.length() == 0 ? null : match + "*";
+    }
+
+    private static final class IndexedText {
+
+        private final long docId;
+
+        private final String content;
+
+        private IndexedText(long docId, @Nullable String content) {
+            this.docId = docId;
+            this.content = content;
+        }
+    }
+}
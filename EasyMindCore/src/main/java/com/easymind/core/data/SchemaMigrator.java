@@ -0,0 +1,531 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.easymind.core.data;
+
+import com.easymind.api.utils.TimeUtils;
+import com.easymind.core.utils.AppUtils;
+import org.apache.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Brings the database schema to its latest version by applying the pending
+ * {@link com.easymind.core.data.Migration migrations} in order.
+ * <br>The schema version is stored into the <i>user_version</i> pragma of the database, each migration being applied
+ * within the same transaction as the version update. The rows are migrated in place, nothing is loaded into the caches.
+ */
+
+public class SchemaMigrator {
+
+    /**
+     * The format of the date/time columns written as text by the first versions.
+     */
+
+    private static final String LEGACY_TIME_FORMAT = "dd/MM/yyyy HH:mm";
+
+    private static final String NOTES = "CREATE TABLE IF NOT EXISTS NOTES " +
+            "(ID TEXT PRIMARY KEY, " +
+            "OWNER_ID TEXT, " +
+            "TITLE TEXT, " +
+            "TAGS TEXT, " +
+            "FAVORITE INTEGER, " +
+            "CONTENT TEXT, " +
+            "LAST_MODIFIED_TIME INTEGER, " +
+            "CREATION_TIME INTEGER)";
+
+    private static final String TASKS = "CREATE TABLE IF NOT EXISTS TASKS " +
+            "(ID TEXT PRIMARY KEY, " +
+            "OWNER_ID TEXT, " +
+            "TITLE TEXT, " +
+            "TAGS TEXT, " +
+            "FAVORITE INTEGER, " +
+            "PRIORITY TEXT, " +
+            "DONE INTEGER, " +
+            "START INTEGER, " +
+            "END INTEGER, " +
+            "CONTENT TEXT, " +
+            "LAST_MODIFIED_TIME INTEGER, " +
+            "CREATION_TIME INTEGER)";
+
+    private static final String PROJECTS = "CREATE TABLE IF NOT EXISTS PROJECTS " +
+            "(ID TEXT PRIMARY KEY, " +
+            "NAME TEXT, " +
+            "DESCRIPTION TEXT, " +
+            "TAGS TEXT, " +
+            "FAVORITE INTEGER, " +
+            "LAST_MODIFIED_TIME INTEGER, " +
+            "CREATION_TIME INTEGER)";
+
+    /**
+     * The migrations in version order, the version reached by a migration being its position starting from 1.
+     * <br>Applied migrations must never be modified, schema changes are added as new migrations at the end.
+     */
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            SchemaMigrator::createTables,
+            SchemaMigrator::createTagTables,
+            SchemaMigrator::createIndexes,
+            SchemaMigrator::createTaskIndexes,
+            SchemaMigrator::createPageIndexes,
+            SchemaMigrator::createSearchTables,
+            SchemaMigrator::createChangeTable,
+            SchemaMigrator::dropSearchContents
+    );
+
+    private final Logger logger = AppUtils.getLogger();
+
+    private final Connection connection;
+
+    public SchemaMigrator(@Nonnull Connection connection) {
+        this.connection = Objects.requireNonNull(connection);
+    }
+
+    /**
+     * Applies the migrations newer than the current schema version, stopping at the first failure.
+     *
+     * @return True, If the schema is up to date, else false.
+     */
+
+    public boolean migrate() {
+
+        int version = getVersion();
+
+        if (version > getLatestVersion()) {
+            logger.warn("The database schema version=" + version + " is newer than the supported version=" + getLatestVersion() + ".");
+            return true;
+        }
+
+        while (version < getLatestVersion()) {
+
+            if (!apply(version + 1, MIGRATIONS.get(version))) {
+                return false;
+            }
+
+            version++;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the current schema version of the database, 0 for a database never migrated.
+     *
+     * @return The current schema version, or -1 if it could not be read.
+     */
+
+    public int getVersion() {
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA user_version")) {
+
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+
+        } catch (SQLException ex) {
+            logger.error("Failed to read the database schema version. \nReason: " + ex.getMessage());
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the schema version reached once every migration is applied.
+     *
+     * @return The latest schema version.
+     */
+
+    public static int getLatestVersion() {
+        return MIGRATIONS.size();
+    }
+
+    private boolean apply(int version, @Nonnull Migration migration) {
+
+        try {
+
+            final boolean autoCommit = connection.getAutoCommit();
+
+            connection.setAutoCommit(false);
+
+            try (Statement statement = connection.createStatement()) {
+
+                migration.migrate(connection);
+
+                statement.executeUpdate("PRAGMA user_version = " + version);
+
+                connection.commit();
+            } catch (SQLException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+
+        } catch (SQLException ex) {
+            logger.error("Failed to migrate the database schema to version=" + version + ". \nReason: " + ex.getMessage());
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Version 1: creates the entity tables, converting the date/time columns of the tables created by the first
+     * versions from text to epoch milliseconds.
+     */
+
+    private static void createTables(@Nonnull Connection connection) throws SQLException {
+        createTable(connection, "NOTES", NOTES, "LAST_MODIFIED_TIME", "CREATION_TIME");
+        createTable(connection, "TASKS", TASKS, "START", "END", "LAST_MODIFIED_TIME", "CREATION_TIME");
+        createTable(connection, "PROJECTS", PROJECTS, "LAST_MODIFIED_TIME", "CREATION_TIME");
+    }
+
+    /**
+     * Version 2: creates the tag table of every entity table, holding one row per tag and indexed by tag, filled from
+     * the comma-joined <i>TAGS</i> column.
+     */
+
+    private static void createTagTables(@Nonnull Connection connection) throws SQLException {
+        createTagTable(connection, "NOTES");
+        createTagTable(connection, "TASKS");
+        createTagTable(connection, "PROJECTS");
+    }
+
+    /**
+     * Version 3: indexes the columns used by the owner lookups, the modification time ordering and the title lookups.
+     */
+
+    private static void createIndexes(@Nonnull Connection connection) throws SQLException {
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE INDEX IF NOT EXISTS NOTES_OWNER_ID ON NOTES (OWNER_ID, LAST_MODIFIED_TIME)");
+            statement.executeUpdate("CREATE INDEX IF NOT EXISTS NOTES_TITLE ON NOTES (TITLE COLLATE NOCASE)");
+            statement.executeUpdate("CREATE INDEX IF NOT EXISTS TASKS_OWNER_ID ON TASKS (OWNER_ID, LAST_MODIFIED_TIME)");
+            statement.executeUpdate("CREATE INDEX IF NOT EXISTS TASKS_TITLE ON TASKS (TITLE COLLATE NOCASE)");
+            statement.executeUpdate("CREATE INDEX IF NOT EXISTS PROJECTS_LAST_MODIFIED_TIME ON PROJECTS (LAST_MODIFIED_TIME)");
+            statement.executeUpdate("CREATE INDEX IF NOT EXISTS PROJECTS_NAME ON PROJECTS (NAME COLLATE NOCASE)");
+        }
+    }
+
+    /**
+     * Version 4: indexes the done flag and deadline of the tasks, used by the task queries.
+     */
+
+    private static void createTaskIndexes(@Nonnull Connection connection) throws SQLException {
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE INDEX IF NOT EXISTS TASKS_DONE_END ON TASKS (DONE, END)");
+        }
+    }
+
+    /**
+     * Version 5: extends the modification time indexes with the id, used as tie-breaker by the keyset pagination.
+     */
+
+    private static void createPageIndexes(@Nonnull Connection connection) throws SQLException {
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DROP INDEX IF EXISTS NOTES_OWNER_ID");
+            statement.executeUpdate("DROP INDEX IF EXISTS TASKS_OWNER_ID");
+            statement.executeUpdate("DROP INDEX IF EXISTS PROJECTS_LAST_MODIFIED_TIME");
+            statement.executeUpdate("CREATE INDEX NOTES_OWNER_ID ON NOTES (OWNER_ID, LAST_MODIFIED_TIME, ID)");
+            statement.executeUpdate("CREATE INDEX NOTES_LAST_MODIFIED_TIME ON NOTES (LAST_MODIFIED_TIME, ID)");
+            statement.executeUpdate("CREATE INDEX TASKS_OWNER_ID ON TASKS (OWNER_ID, LAST_MODIFIED_TIME, ID)");
+            statement.executeUpdate("CREATE INDEX TASKS_LAST_MODIFIED_TIME ON TASKS (LAST_MODIFIED_TIME, ID)");
+            statement.executeUpdate("CREATE INDEX PROJECTS_LAST_MODIFIED_TIME ON PROJECTS (LAST_MODIFIED_TIME, ID)");
+        }
+    }
+
+    /**
+     * Version 6: creates the full-text index of the note and task titles and contents, filled from the existing rows.
+     */
+
+    private static void createSearchTables(@Nonnull Connection connection) throws SQLException {
+        createSearchTable(connection, "NOTES");
+        createSearchTable(connection, "TASKS");
+    }
+
+    /**
+     * Version 7: creates the change log read by the cache refresh, holding one row per changed element with the
+     * sequence of its last change. The rows are written by triggers, so the changes of every writer are logged.
+     */
+
+    private static void createChangeTable(@Nonnull Connection connection) throws SQLException {
+
+        try (Statement statement = connection.createStatement()) {
+
+            statement.executeUpdate("CREATE TABLE CHANGES " +
+                    "(SEQ INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    "TABLE_NAME TEXT NOT NULL, " +
+                    "ITEM_ID TEXT NOT NULL, " +
+                    "UNIQUE (TABLE_NAME, ITEM_ID))");
+
+            statement.executeUpdate("CREATE INDEX CHANGES_TABLE_NAME_SEQ ON CHANGES (TABLE_NAME, SEQ)");
+
+            for (String table : List.of("NOTES", "TASKS", "PROJECTS")) {
+                createChangeTrigger(statement, table, "INSERT", "NEW");
+                createChangeTrigger(statement, table, "UPDATE", "NEW");
+                createChangeTrigger(statement, table, "DELETE", "OLD");
+            }
+        }
+    }
+
+    /**
+     * Version 8: creates the full-text indexes again as contentless tables, so they do not store a plain copy of every
+     * title and content next to the compressed one. The snippets are built from the entity rows instead.
+     */
+
+    private static void dropSearchContents(@Nonnull Connection connection) throws SQLException {
+        createContentlessSearchTable(connection, "NOTES");
+        createContentlessSearchTable(connection, "TASKS");
+    }
+
+    /**
+     * Creates the trigger logging the provided event. <i>AUTOINCREMENT</i> gives the replaced row a sequence greater than
+     * any sequence ever used, so the sequences only grow.
+     */
+
+    private static void createChangeTrigger(@Nonnull Statement statement, @Nonnull String table, @Nonnull String event,
+                                            @Nonnull String row) throws SQLException {
+        statement.executeUpdate("CREATE TRIGGER " + table + "_AFTER_" + event + " AFTER " + event + " ON " + table + " " +
+                "BEGIN INSERT OR REPLACE INTO CHANGES (TABLE_NAME, ITEM_ID) VALUES ('" + table + "', " + row + ".ID); END");
+    }
+
+    private static void createTable(@Nonnull Connection connection, @Nonnull String table, @Nonnull String createQuery,
+                                    @Nonnull String... timeColumns) throws SQLException {
+
+        if ("TEXT".equalsIgnoreCase(getColumnType(connection, table, timeColumns[0]))) {
+            convertTimes(connection, table, createQuery, timeColumns);
+            return;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(createQuery);
+        }
+    }
+
+    /**
+     * Renames the table, creates it again with the provided statement, fills it back from the renamed table and writes
+     * the converted date/time values over the copied ones.
+     */
+
+    private static void convertTimes(@Nonnull Connection connection, @Nonnull String table, @Nonnull String createQuery,
+                                     @Nonnull String... columns) throws SQLException {
+
+        final String legacyTable = table + "_LEGACY";
+
+        final Map<String, Long[]> times = new LinkedHashMap<>();
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT ID, " + String.join(", ", columns) + " FROM " + table)) {
+
+            while (resultSet.next()) {
+
+                final Long[] values = new Long[columns.length];
+
+                for (int i = 0; i < columns.length; i++) {
+                    values[i] = TimeUtils.toEpochMillis(TimeUtils.parse(resultSet.getString(columns[i]), LEGACY_TIME_FORMAT));
+                }
+
+                times.put(resultSet.getString("ID"), values);
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("ALTER TABLE " + table + " RENAME TO " + legacyTable);
+            statement.executeUpdate(createQuery);
+            statement.executeUpdate("INSERT INTO " + table + " SELECT * FROM " + legacyTable);
+            statement.executeUpdate("DROP TABLE " + legacyTable);
+        }
+
+        final StringBuilder sql = new StringBuilder("UPDATE " + table + " SET ");
+
+        for (int i = 0; i < columns.length; i++) {
+            sql.append(i == 0 ? "" : ", ").append(columns[i]).append(" = ?");
+        }
+
+        sql.append(" WHERE ID = ?");
+
+        try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+
+            for (Map.Entry<String, Long[]> entry : times.entrySet()) {
+
+                for (int i = 0; i < columns.length; i++) {
+
+                    final Long value = entry.getValue()[i];
+
+                    if (value == null) {
+                        statement.setNull(i + 1, Types.INTEGER);
+                    } else {
+                        statement.setLong(i + 1, value);
+                    }
+                }
+
+                statement.setString(columns.length + 1, entry.getKey());
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+        }
+    }
+
+    private static void createTagTable(@Nonnull Connection connection, @Nonnull String table) throws SQLException {
+
+        final String tagTable = table + "_TAGS";
+
+        if (tableExists(connection, tagTable)) {
+            return;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+
+            statement.executeUpdate("CREATE TABLE " + tagTable + " " +
+                    "(ITEM_ID TEXT NOT NULL, " +
+                    "TAG TEXT NOT NULL, " +
+                    "PRIMARY KEY (ITEM_ID, TAG)) WITHOUT ROWID");
+
+            statement.executeUpdate("CREATE INDEX " + tagTable + "_TAG ON " + tagTable + " (TAG, ITEM_ID)");
+        }
+
+        final Map<String, List<String>> tags = new LinkedHashMap<>();
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT ID, TAGS FROM " + table)) {
+
+            while (resultSet.next()) {
+                tags.put(resultSet.getString("ID"), AbstractAccessObject.splitTags(resultSet.getString("TAGS")));
+            }
+        }
+
+        try (PreparedStatement update = connection.prepareStatement("UPDATE " + table + " SET TAGS = ? WHERE ID = ?");
+             PreparedStatement insert = connection.prepareStatement("INSERT OR IGNORE INTO " + tagTable + " (ITEM_ID, TAG) VALUES(?,?)")) {
+
+            for (Map.Entry<String, List<String>> entry : tags.entrySet()) {
+
+                update.setString(1, AbstractAccessObject.joinTags(entry.getValue()));
+                update.setString(2, entry.getKey());
+                update.addBatch();
+
+                for (String tag : entry.getValue()) {
+                    insert.setString(1, entry.getKey());
+                    insert.setString(2, tag);
+                    insert.addBatch();
+                }
+            }
+
+            update.executeBatch();
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Creates a standalone FTS5 table rather than an external content one, so the indexed text does not depend on how
+     * the entity table stores it. Its row ids are allocated by a key table with an explicit <i>INTEGER PRIMARY KEY</i>,
+     * which unlike the implicit row ids of the entity table are kept by <i>VACUUM</i>.
+     */
+
+    private static void createSearchTable(@Nonnull Connection connection, @Nonnull String table) throws SQLException {
+
+        final String searchTable = table + "_FTS";
+        final String searchKeyTable = table + "_FTS_KEYS";
+
+        try (Statement statement = connection.createStatement()) {
+
+            statement.executeUpdate("CREATE TABLE " + searchKeyTable + " " +
+                    "(DOC_ID INTEGER PRIMARY KEY, " +
+                    "ITEM_ID TEXT NOT NULL UNIQUE)");
+
+            statement.executeUpdate("CREATE VIRTUAL TABLE " + searchTable + " USING fts5" +
+                    "(TITLE, CONTENT, tokenize = 'unicode61 remove_diacritics 2')");
+
+            statement.executeUpdate("INSERT INTO " + searchKeyTable + " (ITEM_ID) SELECT ID FROM " + table);
+
+            statement.executeUpdate("INSERT INTO " + searchTable + " (rowid, TITLE, CONTENT) " +
+                    "SELECT k.DOC_ID, i.TITLE, i.CONTENT FROM " + table + " i " +
+                    "JOIN " + searchKeyTable + " k ON k.ITEM_ID = i.ID");
+        }
+    }
+
+    /**
+     * Replaces the full-text index of the provided table with a contentless one, filled from the decompressed rows.
+     * The row ids of the key table are kept.
+     */
+
+    private static void createContentlessSearchTable(@Nonnull Connection connection, @Nonnull String table) throws SQLException {
+
+        final String searchTable = table + "_FTS";
+        final String searchKeyTable = table + "_FTS_KEYS";
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DROP TABLE " + searchTable);
+            statement.executeUpdate("CREATE VIRTUAL TABLE " + searchTable + " USING fts5" +
+                    "(TITLE, CONTENT, content = '', tokenize = 'unicode61 remove_diacritics 2')");
+        }
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT k.DOC_ID, i.TITLE, i.CONTENT FROM " + table + " i " +
+                     "JOIN " + searchKeyTable + " k ON k.ITEM_ID = i.ID");
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO " + searchTable + " (rowid, TITLE, CONTENT) VALUES(?, ?, ?)")) {
+
+            while (resultSet.next()) {
+                insert.setLong(1, resultSet.getLong(1));
+                insert.setString(2, resultSet.getString(2));
+                insert.setString(3, ContentCodec.read(resultSet, 3));
+                insert.addBatch();
+            }
+
+            insert.executeBatch();
+        }
+    }
+
+    private static boolean tableExists(@Nonnull Connection connection, @Nonnull String table) throws SQLException {
+
+        try (PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+
+            statement.setString(1, table);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    private static String getColumnType(@Nonnull Connection connection, @Nonnull String table, @Nonnull String column) throws SQLException {
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA table_info(" + table + ")")) {
+
+            while (resultSet.next()) {
+
+                if (column.equalsIgnoreCase(resultSet.getString("name"))) {
+                    return resultSet.getString("type");
+                }
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.data;
+
+import com.easymind.api.data.SearchResult;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the snippets of the full-text search results.
+ * <br>The full-text index is contentless, so the FTS5 <i>snippet()</i> function has no text to work on. The snippet is
+ * built from the item text instead, tokenized like the <i>unicode61 remove_diacritics 2</i> tokenizer: a token is a run
+ * of letters and numbers, compared ignoring case and diacritics.
+ */
+
+final class SearchSnippet {
+
+    /**
+     * The maximum amount of tokens of a snippet.
+     */
+
+    static final int SIZE = 16;
+
+    private static final String ELLIPSIS = "…";
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private SearchSnippet() {}
+
+    /**
+     * Returns the normalized terms of the provided search text, the last one matching as a prefix.
+     *
+     * @param text
+     *        The search text.
+     *
+     * @return Non-null terms, possibly empty.
+     */
+
+    @Nonnull
+    static List<String> getTerms(@Nonnull String text) {
+
+        final List<String> terms = new ArrayList<>();
+
+        for (int[] token : tokenize(text)) {
+            terms.add(normalize(text.substring(token[0], token[1])));
+        }
+
+        return terms;
+    }
+
+    /**
+     * Builds the snippet of an item, from the content if it matches the terms, else from the title.
+     *
+     * @param title
+     *        The item title.
+     *
+     * @param content
+     *        The item content or null.
+     *
+     * @param terms
+     *        The search terms, see {@link #getTerms(String)}.
+     *
+     * @return Non-null snippet.
+     */
+
+    @Nonnull
+    static String build(@Nonnull String title, @Nullable String content, @Nonnull List<String> terms) {
+
+        final String snippet = content == null ? null : build(content, terms);
+
+        if (snippet != null) {
+            return snippet;
+        }
+
+        final String titleSnippet = build(title, terms);
+
+        return titleSnippet == null ? title : titleSnippet;
+    }
+
+    /**
+     * Builds the snippet of the window of {@link #SIZE} tokens holding the most matched tokens, the first one if
+     * several windows are equal, moved so its matched tokens are centered.
+     *
+     * @return The snippet or null if no token matches.
+     */
+
+    @Nullable
+    private static String build(@Nonnull String text, @Nonnull List<String> terms) {
+
+        final List<int[]> tokens = tokenize(text);
+        final boolean[] matched = new boolean[tokens.size()];
+
+        int matches = 0;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            matched[i] = matches(normalize(text.substring(tokens.get(i)[0], tokens.get(i)[1])), terms);
+            matches += matched[i] ? 1 : 0;
+        }
+
+        if (matches == 0) {
+            return null;
+        }
+
+        int start = 0;
+        int best = -1;
+        int count = 0;
+
+        for (int i = 0; i < tokens.size(); i++) {
+
+            count += matched[i] ? 1 : 0;
+
+            if (i >= SIZE) {
+                count -= matched[i - SIZE] ? 1 : 0;
+            }
+
+            if (count > best) {
+                best = count;
+                start = Math.max(0, i - SIZE + 1);
+            }
+        }
+
+        int first = start;
+        int last = Math.min(tokens.size(), start + SIZE) - 1;
+
+        while (!matched[first]) {
+            first++;
+        }
+
+        while (!matched[last]) {
+            last--;
+        }
+
+        start = Math.max(0, Math.min(first - (SIZE - (last - first + 1)) / 2, tokens.size() - SIZE));
+
+        final int end = Math.min(tokens.size(), start + SIZE);
+
+        final StringBuilder snippet = new StringBuilder(start > 0 ? ELLIPSIS : "");
+
+        // The text before the first token and after the last one is kept when the snippet reaches them.
+        int position = start == 0 ? 0 : tokens.get(start)[0];
+
+        for (int i = start; i < end; i++) {
+
+            final int[] token = tokens.get(i);
+
+            snippet.append(text, position, token[0]);
+
+            if (matched[i]) {
+                snippet.append(SearchResult.HIGHLIGHT_START).append(text, token[0], token[1]).append(SearchResult.HIGHLIGHT_END);
+            } else {
+                snippet.append(text, token[0], token[1]);
+            }
+
+            position = token[1];
+        }
+
+        return snippet.append(end < tokens.size() ? ELLIPSIS : text.substring(position)).toString();
+    }
+
+    private static boolean matches(@Nonnull String token, @Nonnull List<String> terms) {
+
+        for (int i = 0; i < terms.size(); i++) {
+
+            final String term = terms.get(i);
+
+            if (i == terms.size() - 1 ? token.startsWith(term) : token.equals(term)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the start and end offsets of each token of the provided text.
+     */
+
+    @Nonnull
+    private static List<int[]> tokenize(@Nonnull String text) {
+
+        final List<int[]> tokens = new ArrayList<>();
+
+        int start = -1;
+
+        for (int i = 0; i < text.length(); ) {
+
+            final int codePoint = text.codePointAt(i);
+            final boolean tokenChar = isTokenChar(codePoint);
+
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(new int[] {start, i});
+                start = -1;
+            }
+
+            i += Character.charCount(codePoint);
+        }
+
+        if (start >= 0) {
+            tokens.add(new int[] {start, text.length()});
+        }
+
+        return tokens;
+    }
+
+    private static boolean isTokenChar(int codePoint) {
+
+        switch (Character.getType(codePoint)) {
+            case Character.UPPERCASE_LETTER:
+            case Character.LOWERCASE_LETTER:
+            case Character.TITLECASE_LETTER:
+            case Character.MODIFIER_LETTER:
+            case Character.OTHER_LETTER:
+            case Character.NON_SPACING_MARK:
+            case Character.COMBINING_SPACING_MARK:
+            case Character.ENCLOSING_MARK:
+            case Character.DECIMAL_DIGIT_NUMBER:
+            case Character.LETTER_NUMBER:
+            case Character.OTHER_NUMBER:
+            case Character.PRIVATE_USE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Nonnull
+    private static String normalize(@Nonnull String token) {
+        return DIACRITICS.matcher(Normalizer.normalize(token, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
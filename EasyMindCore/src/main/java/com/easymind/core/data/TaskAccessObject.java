@@ -16,63 +16,53 @@
 
 package com.easymind.core.data;
 
+import com.easymind.api.data.ItemQuery;
 import com.easymind.api.entities.Priority;
 import com.easymind.api.entities.Task;
-import com.easymind.api.utils.TimeUtils;
-import com.easymind.api.data.DataAccessObject;
 import com.easymind.core.entities.TaskImpl;
-import com.easymind.core.utils.AppUtils;
-import org.apache.log4j.Logger;
+import com.easymind.core.utils.ConnectionPool;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
+import java.util.stream.Collectors;
 
-public class TaskAccessObject implements DataAccessObject<Task> {
+public class TaskAccessObject extends ProjectItemAccessObject<Task> {
 
-    private final Logger logger = AppUtils.getLogger();
+    /**
+     * The {@link com.easymind.api.entities.Priority#getKey() priority key} of a row, as priorities are stored by name.
+     */
 
-    private final Connection connection;
+    private static final String PRIORITY_LEVEL = Arrays.stream(Priority.values())
+            .map(priority -> "WHEN '" + priority + "' THEN " + priority.getKey())
+            .collect(Collectors.joining(" ", "CASE PRIORITY ", " ELSE -1 END"));
 
-    public TaskAccessObject(Connection connection) {
-        this.connection = Objects.requireNonNull(connection);
-        this.init();
-    }
+    /**
+     * The columns of the task listings, the content being loaded on demand.
+     */
 
-    @Override
-    public void init() {
+    private static final List<String> SUMMARY_COLUMNS = List.of(
+            "ID", "OWNER_ID", "TITLE", "TAGS", "FAVORITE", "PRIORITY", "DONE", "START", "END",
+            "LAST_MODIFIED_TIME", "CREATION_TIME");
 
-        String sql = "CREATE TABLE IF NOT EXISTS TASKS " +
-                "(ID TEXT PRIMARY KEY, " +
-                "OWNER_ID TEXT, " +
-                "TITLE TEXT, " +
-                "TAGS TEXT, " +
-                "FAVORITE INTEGER, " +
-                "PRIORITY TEXT, " +
-                "DONE INTEGER, " +
-                "START TEXT, " +
-                "END TEXT, " +
-                "CONTENT TEXT, " +
-                "LAST_MODIFIED_TIME TEXT, " +
-                "CREATION_TIME TEXT)";
+    public TaskAccessObject(Connection connection) {
+        this(new ConnectionPool(connection));
+    }
 
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.executeUpdate();
-        } catch (SQLException ex) {
-            logger.error("Failed to create table='TASKS' to database. \nReason: " + ex.getMessage());
-        }
+    public TaskAccessObject(@Nonnull ConnectionPool pool) {
+        super(pool, "TASKS");
+        this.init();
     }
 
+    @Nonnull
     @Override
-    public boolean insert(Task e) {
-
-        String sql = "INSERT INTO TASKS " +
+    protected String getInsertQuery() {
+        return "INSERT INTO TASKS " +
                 "(ID, " +
                 "OWNER_ID, " +
                 "TITLE, " +
@@ -86,35 +76,28 @@ public class TaskAccessObject implements DataAccessObject<Task> {
                 "LAST_MODIFIED_TIME, " +
                 "CREATION_TIME) " +
                 "VALUES(?,?,?,?,?,?,?,?,?,?,?,?)";
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            statement.setString(1, e.getId());
-            statement.setString(2, e.getOwnerId() );
-            statement.setString(3, e.getTitle());
-            statement.setString(4, String.join(", ", e.getTags()));
-            statement.setBoolean(5, e.isFavorite());
-            statement.setBoolean(6, e.isDone());
-            statement.setString(7, e.getPriority().toString());
-            statement.setString(8, TimeUtils.format(e.getStart().orElse(null), "dd/MM/yyyy HH:mm"));
-            statement.setString(9, TimeUtils.format(e.getDeadline().orElse(null), "dd/MM/yyyy HH:mm"));
-            statement.setString(10, e.getContent());
-            statement.setString(11, TimeUtils.format(e.getLastModifiedTime(), "dd/MM/yyyy HH:mm"));
-            statement.setString(12, TimeUtils.format(e.getCreationTime(), "dd/MM/yyyy HH:mm"));
-
-            statement.executeUpdate();
-        } catch (SQLException ex) {
-            logger.error("Failed to insert element for ID='" + e.getId() + "' to database table='TASKS'. \nReason: " + ex.getMessage());
-            return false;
-        }
-
-        return true;
     }
 
     @Override
-    public boolean update(Task e) {
+    protected void bindInsert(@Nonnull PreparedStatement statement, @Nonnull Task e) throws SQLException {
+        statement.setString(1, e.getId());
+        statement.setString(2, e.getOwnerId());
+        statement.setString(3, e.getTitle());
+        statement.setString(4, joinTags(e.getTags()));
+        statement.setBoolean(5, e.isFavorite());
+        statement.setString(6, e.getPriority().toString());
+        statement.setBoolean(7, e.isDone());
+        setTime(statement, 8, e.getStart().orElse(null));
+        setTime(statement, 9, e.getDeadline().orElse(null));
+        ContentCodec.bind(statement, 10, e.getContent());
+        setTime(statement, 11, e.getLastModifiedTime());
+        setTime(statement, 12, e.getCreationTime());
+    }
 
-        String sql = "UPDATE TASKS SET " +
+    @Nonnull
+    @Override
+    protected String getUpdateQuery() {
+        return "UPDATE TASKS SET " +
                 "OWNER_ID = ?, " +
                 "TITLE = ?, " +
                 "TAGS = ?, " +
@@ -123,155 +106,109 @@ public class TaskAccessObject implements DataAccessObject<Task> {
                 "DONE = ?, " +
                 "START = ?, " +
                 "END = ?, " +
-                "TEXT = ?, " +
-                "LAST_MODIFIED_TIME = ?, " +
+                "CONTENT = COALESCE(?, CONTENT), " +
+                "LAST_MODIFIED_TIME = ? " +
                 "WHERE ID = ?";
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            statement.setString(1, e.getOwnerId());
-            statement.setString(2, e.getTitle());
-            statement.setString(3, String.join(", ", e.getTags()));
-            statement.setBoolean(4, e.isFavorite());
-            statement.setBoolean(5, e.isDone());
-            statement.setString(6, e.getPriority().toString());
-            statement.setString(7, TimeUtils.format(e.getStart().orElse(null), "dd/MM/yyyy HH:mm"));
-            statement.setString(8, TimeUtils.format(e.getDeadline().orElse(null),"dd/MM/yyyy HH:mm"));
-            statement.setString(9, e.getContent());
-            statement.setString(10, TimeUtils.format(e.getLastModifiedTime(), "dd/MM/yyyy HH:mm"));
-            statement.setString(11, e.getId());
-
-            statement.executeUpdate();
-        } catch (SQLException ex) {
-            logger.error("Failed to update element for ID='" + e.getId() + "' to database table='TASKS'. \nReason: " + ex.getMessage());
-            return false;
-        }
-
-        return true;
     }
 
     @Override
-    public boolean delete(Task e) {
-
-        String sql = "DELETE FROM TASKS WHERE ID = '" + e.getId() + "'";
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.executeUpdate();
-        } catch (SQLException ex) {
-            logger.error("Failed to delete element for ID='" + e.getId() + "' from database table='TASKS'. \nReason: " + ex.getMessage());
-            return false;
-        }
-
-        return true;
+    protected void bindUpdate(@Nonnull PreparedStatement statement, @Nonnull Task e) throws SQLException {
+        statement.setString(1, e.getOwnerId());
+        statement.setString(2, e.getTitle());
+        statement.setString(3, joinTags(e.getTags()));
+        statement.setBoolean(4, e.isFavorite());
+        statement.setString(5, e.getPriority().toString());
+        statement.setBoolean(6, e.isDone());
+        setTime(statement, 7, e.getStart().orElse(null));
+        setTime(statement, 8, e.getDeadline().orElse(null));
+        ContentCodec.bind(statement, 9, getLoadedContent(e));
+        setTime(statement, 10, e.getLastModifiedTime());
+        statement.setString(11, e.getId());
     }
 
+    @Nonnull
     @Override
-    public Task findById(String id) {
-
-        String sql = "SELECT * FROM TASKS WHERE ID = '" + id + "'";
-
-        Task task = null;
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            ResultSet resultSet = statement.executeQuery();
-
-            if (resultSet.next()) {
-
-                task = new TaskImpl.Builder(resultSet.getString("TITLE"))
-                        .setPriority(Priority.valueOf(resultSet.getString("PRIORITY")))
-                        .setStart(TimeUtils.parse(resultSet.getString("START"), "dd/MM/yyyy HH:mm"))
-                        .setEnd(TimeUtils.parse(resultSet.getString("END"), "dd/MM/yyyy HH:mm"))
-                        .setContent(resultSet.getString("CONTENT"))
-                        .setFavorite(resultSet.getBoolean("FAVORITE"))
-                        .setDone(resultSet.getBoolean("DONE"))
-                        .setTags(new ArrayList<>(Arrays.asList(resultSet.getString("TAGS").split(", "))))
-                        .setLastModifiedTime(TimeUtils.parse(resultSet.getString("LAST_MODIFIED_TIME"), "dd/MM/yyyy HH:mm"))
-                        .setCreationTime(TimeUtils.parse(resultSet.getString("CREATION_TIME"), "dd/MM/yyyy HH:mm"))
-                        .setOwnerId(resultSet.getString("OWNER_ID"))
-                        .setId(id)
-                        .build();
-            }
-
-            resultSet.close();
-        } catch (SQLException ex) {
-            logger.error("Failed to find element for ID='" + id + "' from database table='TASKS'. \nReason: " + ex.getMessage());
-        }
-
-        return task;
+    protected List<String> getTags(@Nonnull Task e) {
+        return e.getTags();
     }
 
     @Override
-    public List<Task> findAll() {
-
-        String sql = "SELECT ID FROM TASKS";
-
-        final List<Task> tasks = new ArrayList<>();
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            ResultSet resultSet = statement.executeQuery();
-
-            while (resultSet.next()) {
-
-                String id = resultSet.getString("ID");
+    protected String getContent(@Nonnull Task e) {
+        return e.getContent();
+    }
 
-                tasks.add(findById(id));
-            }
+    @Nullable
+    @Override
+    protected String getLoadedContent(@Nonnull Task e) {
 
-            resultSet.close();
-        } catch (SQLException ex) {
-            logger.error("Failed to find elements from database table='TASKS'. \nReason: " + ex.getMessage());
+        if (e instanceof TaskImpl) {
+            return ((TaskImpl) e).getLoadedContent();
         }
 
-        return tasks;
+        return e.getContent();
     }
 
+    @Nonnull
     @Override
-    public List<String> getValues(String column) {
-
-        String sql = "SELECT " + column + " FROM TASKS";
+    protected List<String> getSummaryColumns() {
+        return SUMMARY_COLUMNS;
+    }
 
-        final List<String> values = new ArrayList<>();
+    @Override
+    protected void compileConditions(@Nonnull ItemQuery query, @Nonnull List<String> conditions, @Nonnull List<Object> params) {
 
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        super.compileConditions(query, conditions, params);
 
-            ResultSet resultSet = statement.executeQuery();
+        if (query.getDone() != null) {
+            conditions.add("DONE = ?");
+            params.add(query.getDone() ? 1 : 0);
+        }
 
-            while (resultSet.next()) {
-                values.add(resultSet.getString(column));
-            }
+        if (query.getPriority() != null) {
+            conditions.add("PRIORITY = ?");
+            params.add(query.getPriority().toString());
+        }
 
-        } catch (SQLException ex) {
-            logger.error("Failed to retrieve values from database table='TASKS(" + column + ")'. \nReason: " + ex.getMessage());
+        if (query.getDeadlineFrom() != null) {
+            conditions.add("END >= ?");
+            params.add(query.getDeadlineFrom().getTime());
         }
 
-        return values;
+        if (query.getDeadlineTo() != null) {
+            conditions.add("END < ?");
+            params.add(query.getDeadlineTo().getTime());
+        }
     }
 
+    @Nonnull
     @Override
-    public int getCount() {
-
-        String sql = "SELECT COUNT(*) FROM TASKS";
-
-        int count = 0;
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            ResultSet resultSet = statement.executeQuery();
-
-            count = resultSet.getInt(1);
-            resultSet.close();
-        } catch (SQLException ex) {
-            logger.error("Failed to count elements from database table='TASKS'. \nReason: " + ex.getMessage());
+    protected String getOrderExpression(@Nonnull ItemQuery.Order order) {
+
+        switch (order) {
+            case DEADLINE:
+                return "END";
+            case PRIORITY:
+                return PRIORITY_LEVEL;
+            default:
+                return super.getOrderExpression(order);
         }
-
-        return count;
     }
 
     @Nonnull
     @Override
-    public Connection getConnection() {
-        return connection;
+    protected Task map(@Nonnull ResultSet resultSet) throws SQLException {
+        return new TaskImpl.Builder(resultSet.getString("TITLE"))
+                .setPriority(Priority.valueOf(resultSet.getString("PRIORITY")))
+                .setStart(getTime(resultSet, "START"))
+                .setEnd(getTime(resultSet, "END"))
+                .setFavorite(resultSet.getBoolean("FAVORITE"))
+                .setDone(resultSet.getBoolean("DONE"))
+                .setTags(splitTags(resultSet.getString("TAGS")))
+                .setLastModifiedTime(getTime(resultSet, "LAST_MODIFIED_TIME"))
+                .setCreationTime(getTime(resultSet, "CREATION_TIME"))
+                .setOwnerId(resultSet.getString("OWNER_ID"))
+                .setId(resultSet.getString("ID"))
+                .setContentLoader(getContentLoader(resultSet.getString("ID")))
+                .build();
     }
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.entities;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.ref.SoftReference;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * The content of an item read from the database with its summary columns only.
+ * <br>The content is loaded on first access and held through a {@link java.lang.ref.SoftReference SoftReference},
+ * so the garbage collector can release it under memory pressure and it is loaded again on next access.
+ * A content set by the user is not stored yet and is always held strongly.
+ */
+
+public final class LazyContent {
+
+    private final Supplier<String> loader;
+
+    private String content;
+
+    private SoftReference<String> loaded;
+
+    /**
+     * @param content
+     *        The content, or null to load it on first access.
+     *
+     * @param loader
+     *        The loader reading the stored content, or null if the content is provided.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If neither content nor loader is provided.
+     */
+
+    public LazyContent(@Nullable String content, @Nullable Supplier<String> loader) {
+
+        if (content == null && loader == null) {
+            throw new IllegalArgumentException("Either a content or a content loader must be provided");
+        }
+
+        this.content = content;
+        this.loader = loader;
+    }
+
+    /**
+     * Returns the content, loading it if it is not resident.
+     *
+     * <br>A failed load is not kept: the content is empty until it is loaded again, and meanwhile
+     * {@link #peek()} returns null so that saving the item keeps the stored content.
+     *
+     * @return Non-null content, empty if it could not be loaded.
+     */
+
+    @Nonnull
+    public synchronized String get() {
+
+        if (content != null) {
+            return content;
+        }
+
+        String value = loaded == null ? null : loaded.get();
+
+        if (value == null) {
+
+            value = loader.get();
+
+            if (value == null) {
+                return "";
+            }
+
+            this.loaded = new SoftReference<>(value);
+        }
+
+        return value;
+    }
+
+    public synchronized void set(@Nonnull String content) {
+        this.content = Objects.requireNonNull(content);
+        this.loaded = null;
+    }
+
+    /**
+     * Returns the content only if it is resident, without loading it.
+     *
+     * @return The resident content or null if it is not loaded, in which case the stored content is unchanged.
+     */
+
+    @Nullable
+    public synchronized String peek() {
+
+        if (content != null) {
+            return content;
+        }
+
+        return loaded == null ? null : loaded.get();
+    }
+}
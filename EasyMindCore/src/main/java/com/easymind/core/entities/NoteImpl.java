@@ -19,7 +19,9 @@ package com.easymind.core.entities;
 import com.easymind.api.entities.Note;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.*;
+import java.util.function.Supplier;
 
 public class NoteImpl implements Note {
 
@@ -29,12 +31,14 @@ public class NoteImpl implements Note {
 
     private Date lastModifiedTime;
 
-    private String ownerId, title, content;
+    private String ownerId, title;
 
     private boolean isFavorite;
 
     private List<String> tags;
 
+    private final LazyContent content;
+
     public NoteImpl(@Nonnull Builder builder) {
         this.creationTime = Objects.requireNonNull(builder.creationTime);
         this.id = Objects.requireNonNull(builder.id);
@@ -42,7 +46,7 @@ public class NoteImpl implements Note {
         this.setTitle(builder.title);
         this.setTags(builder.tags);
         this.setFavorite(builder.isFavorite);
-        this.setContent(builder.content);
+        this.content = new LazyContent(builder.content, builder.contentLoader);
     }
 
     @Nonnull
@@ -108,12 +112,23 @@ public class NoteImpl implements Note {
     @Nonnull
     @Override
     public String getContent() {
-        return content;
+        return content.get();
     }
 
     @Override
     public void setContent(@Nonnull String content) {
-        this.content = Objects.requireNonNull(content);
+        this.content.set(content);
+    }
+
+    /**
+     * Returns the content of this {@code Note} only if it is resident, without loading it.
+     *
+     * @return The content or null if it has not been loaded.
+     */
+
+    @Nullable
+    public String getLoadedContent() {
+        return content.peek();
     }
 
     @Nonnull
@@ -126,6 +141,8 @@ public class NoteImpl implements Note {
 
         private String content;
 
+        private Supplier<String> contentLoader;
+
         public Builder(@Nonnull String title) {
             super(title);
         }
@@ -179,6 +196,20 @@ public class NoteImpl implements Note {
             return this;
         }
 
+        /**
+         * Sets the loader reading the stored content on first access, used when no content is provided.
+         *
+         * @param contentLoader
+         *        The content loader.
+         *
+         * @return The current builder.
+         */
+
+        public Builder setContentLoader(@Nonnull Supplier<String> contentLoader) {
+            this.contentLoader = contentLoader;
+            return this;
+        }
+
         @Override
         public Note build() {
 
@@ -194,7 +225,7 @@ public class NoteImpl implements Note {
                 this.creationTime = new Date();
             }
 
-            if (content == null) {
+            if (content == null && contentLoader == null) {
                 this.content = "";
             }
 
@@ -22,9 +22,7 @@ import com.easymind.api.entities.Note;
 import com.easymind.api.entities.Project;
 import com.easymind.api.entities.Task;
 import com.easymind.api.utils.cache.ProjectItemCacheStore;
-import com.easymind.core.utils.cache.ProjectItemCacheStoreImpl;
-import com.easymind.core.data.NoteAccessObject;
-import com.easymind.core.data.TaskAccessObject;
+import com.easymind.core.utils.cache.OwnedItemCacheStore;
 
 import javax.annotation.Nonnull;
 import java.util.Date;
@@ -113,17 +111,11 @@ public class ProjectBuilder extends AbstractBuilder<Project> {
         if (easyMind != null) {
 
             if (noteCacheStore == null) {
-
-                final NoteAccessObject nao = new NoteAccessObject(easyMind.getConnection());
-
-                this.noteCacheStore = new ProjectItemCacheStoreImpl<>(nao);
+                this.noteCacheStore = new OwnedItemCacheStore<>(easyMind.getNoteCacheStore(), id);
             }
 
             if (taskCacheStore == null) {
-
-                final TaskAccessObject tao = new TaskAccessObject(easyMind.getConnection());
-
-                this.taskCacheStore = new ProjectItemCacheStoreImpl<>(tao);
+                this.taskCacheStore = new OwnedItemCacheStore<>(easyMind.getTaskCacheStore(), id);
             }
 
         }
@@ -16,6 +16,7 @@
 
 package com.easymind.core.entities;
 
+import com.easymind.api.data.SearchResult;
 import com.easymind.api.entities.*;
 import com.easymind.api.utils.cache.ProjectItemCacheStore;
 
@@ -25,7 +26,6 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 public class ProjectImpl implements Project {
 
@@ -263,7 +263,7 @@ public class ProjectImpl implements Project {
 
         if (note != null) {
 
-            if (note.getOwnerId().equals(id)) {
+            if (note.getOwnerId().equals(this.id)) {
                 return note;
             }
 
@@ -280,7 +280,7 @@ public class ProjectImpl implements Project {
 
         if (task != null) {
 
-            if (task.getOwnerId().equals(id)) {
+            if (task.getOwnerId().equals(this.id)) {
                 return task;
             }
 
@@ -292,9 +292,7 @@ public class ProjectImpl implements Project {
     @Nonnull
     @Override
     public List<Note> getNotesByTitle(@Nonnull String title, boolean ignoreCase) {
-        return noteCacheStore.getElementsByTitle(title, ignoreCase).stream()
-                .filter(note -> note.getOwnerId().equals(id))
-                .collect(Collectors.toUnmodifiableList());
+        return noteCacheStore.getElementsByTitle(id, title, ignoreCase);
     }
 
     @Nonnull
@@ -306,9 +304,7 @@ public class ProjectImpl implements Project {
     @Nonnull
     @Override
     public List<Task> getTasksByTitle(@Nonnull String title, boolean ignoreCase) {
-        return taskCacheStore.getElementsByTitle(title, ignoreCase).stream()
-                .filter(task -> task.getOwnerId().equals(id))
-                .collect(Collectors.toUnmodifiableList());
+        return taskCacheStore.getElementsByTitle(id, title, ignoreCase);
     }
 
     @Nonnull
@@ -320,17 +316,25 @@ public class ProjectImpl implements Project {
     @Nonnull
     @Override
     public List<Note> getNotesByTags(@Nonnull List<String> tags) {
-        return noteCacheStore.getElementsByTags(tags).stream()
-                .filter(note -> note.getOwnerId().equals(id))
-                .collect(Collectors.toUnmodifiableList());
+        return noteCacheStore.getElementsByTags(id, tags);
     }
 
     @Nonnull
     @Override
     public List<Task> getTasksByTags(@Nonnull List<String> tags) {
-        return taskCacheStore.getElementsByTags(tags).stream()
-                .filter(task -> task.getOwnerId().equals(id))
-                .collect(Collectors.toUnmodifiableList());
+        return taskCacheStore.getElementsByTags(id, tags);
+    }
+
+    @Nonnull
+    @Override
+    public List<SearchResult<Note>> searchNotes(@Nonnull String text, int limit) {
+        return noteCacheStore.search(id, text, limit);
+    }
+
+    @Nonnull
+    @Override
+    public List<SearchResult<Task>> searchTasks(@Nonnull String text, int limit) {
+        return taskCacheStore.search(id, text, limit);
     }
 
     @Nonnull
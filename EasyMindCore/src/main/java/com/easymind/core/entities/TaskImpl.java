@@ -23,6 +23,7 @@ import com.easymind.api.entities.Task;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.function.Supplier;
 
 public class TaskImpl implements Task {
 
@@ -30,7 +31,7 @@ public class TaskImpl implements Task {
 
     private final Date creationTime;
 
-    private String ownerId, title, content;
+    private String ownerId, title;
 
     private Date start, deadline, lastModifiedTime;
 
@@ -40,6 +41,8 @@ public class TaskImpl implements Task {
 
     private List<String> tags;
 
+    private final LazyContent content;
+
     public TaskImpl(@Nonnull Builder builder) {
         this.creationTime = Objects.requireNonNull(builder.creationTime);
         this.id = Objects.requireNonNull(builder.id);
@@ -51,7 +54,7 @@ public class TaskImpl implements Task {
         this.setPriority(builder.priority);
         this.setStart(builder.start);
         this.setDeadline(builder.deadline);
-        this.setContent(builder.content);
+        this.content = new LazyContent(builder.content, builder.contentLoader);
     }
 
     @Nonnull
@@ -116,12 +119,23 @@ public class TaskImpl implements Task {
     @Nonnull
     @Override
     public String getContent() {
-        return content;
+        return content.get();
     }
 
     @Override
     public void setContent(@Nonnull String content) {
-        this.content = Objects.requireNonNull(content);
+        this.content.set(content);
+    }
+
+    /**
+     * Returns the content of this {@code Task} only if it is resident, without loading it.
+     *
+     * @return The content or null if it has not been loaded.
+     */
+
+    @Nullable
+    public String getLoadedContent() {
+        return content.peek();
     }
 
     @Nonnull
@@ -196,6 +210,8 @@ public class TaskImpl implements Task {
 
         private String content;
 
+        private Supplier<String> contentLoader;
+
         private boolean isDone;
 
         private Priority priority;
@@ -273,6 +289,20 @@ public class TaskImpl implements Task {
             return this;
         }
 
+        /**
+         * Sets the loader reading the stored content on first access, used when no content is provided.
+         *
+         * @param contentLoader
+         *        The content loader.
+         *
+         * @return The current builder.
+         */
+
+        public Builder setContentLoader(@Nonnull Supplier<String> contentLoader) {
+            this.contentLoader = contentLoader;
+            return this;
+        }
+
         @Override
         public Task build() {
 
@@ -288,6 +318,10 @@ public class TaskImpl implements Task {
                 this.creationTime = new Date();
             }
 
+            if (content == null && contentLoader == null) {
+                this.content = "";
+            }
+
             return new TaskImpl(this);
         }
     }
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.easymind.core.hook;
+
+import com.easymind.api.events.Event;
+import com.easymind.api.hook.BatchListener;
+import com.easymind.api.hook.EventListener;
+import com.easymind.api.hook.Subscription;
+import com.easymind.core.utils.AppUtils;
+import org.apache.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * The coalescing stage of a {@link com.easymind.api.hook.BatchListener BatchListener} subscription.
+ * <br>The events are merged by key into a pending batch, the first event of a window scheduling its delivery. The
+ * pending batch holds one event per key, so its size is bounded by the amount of distinct entities rather than by the
+ * amount of events, and the listener is called at most once per window whatever the event rate.
+ * <br>The batches are delivered one at a time: a batch delivered on shutdown never overlaps a scheduled one.
+ *
+ * @param <E>
+ *        The event type.
+ */
+
+final class CoalescingListener<E extends Event> implements EventListener<E>, Subscription {
+
+    private final Logger logger = AppUtils.getLogger();
+
+    private final Class<E> type;
+
+    private final Function<? super E, ?> key;
+
+    private final long window;
+
+    private final BatchListener<E> listener;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Object delivery = new Object();
+
+    private Map<Object, E> pending = new LinkedHashMap<>();
+
+    private boolean scheduled;
+
+    private volatile Subscription subscription;
+
+    @SuppressWarnings("unchecked")
+    CoalescingListener(@Nonnull Class<E> type, @Nonnull Function<? super E, ?> key, long window,
+                       @Nonnull BatchListener<? super E> listener, @Nonnull ScheduledExecutorService scheduler) {
+
+        if (window <= 0) {
+            throw new IllegalArgumentException("Coalescing window must be positive, found: " + window);
+        }
+
+        this.type = Objects.requireNonNull(type);
+        this.key = Objects.requireNonNull(key);
+        this.window = window;
+        // The batches only hold events of the subscribed type, which the listener accepts.
+        this.listener = (BatchListener<E>) Objects.requireNonNull(listener);
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void onEvent(@Nonnull E event) {
+
+        final Object eventKey = key.apply(event);
+
+        synchronized (this) {
+
+            if (!isActive()) {
+                return;
+            }
+
+            // The last event of a key replaces the previous one, which keeps its position in the batch.
+            pending.put(eventKey, event);
+
+            if (scheduled) {
+                return;
+            }
+
+            scheduled = true;
+        }
+
+        try {
+            scheduler.schedule(this::flush, window, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            // The event handler is shutting down and delivers the pending batches itself.
+            flush();
+        }
+    }
+
+    /**
+     * Delivers the pending batch on the calling thread, if any.
+     */
+
+    void flush() {
+
+        synchronized (delivery) {
+
+            final List<E> batch;
+
+            synchronized (this) {
+
+                scheduled = false;
+
+                if (pending.isEmpty()) {
+                    return;
+                }
+
+                batch = Collections.unmodifiableList(new ArrayList<>(pending.values()));
+                pending = new LinkedHashMap<>();
+            }
+
+            try {
+                listener.onEvents(batch);
+            } catch (RuntimeException ex) {
+                logger.error("Failed to notify batch listener of " + type.getSimpleName() + " for " + batch.size() +
+                        " events. \nReason: " + ex.getMessage());
+            }
+        }
+    }
+
+    void setSubscription(@Nonnull Subscription subscription) {
+        this.subscription = subscription;
+    }
+
+    @Override
+    public void unsubscribe() {
+
+        final Subscription subscription = this.subscription;
+
+        if (subscription != null) {
+            subscription.unsubscribe();
+        }
+
+        synchronized (this) {
+            pending.clear();
+        }
+    }
+
+    @Override
+    public boolean isActive() {
+
+        final Subscription subscription = this.subscription;
+
+        return subscription != null && subscription.isActive();
+    }
+}
@@ -17,42 +17,459 @@
 package com.easymind.core.hook;
 
 import com.easymind.api.events.Event;
+import com.easymind.api.hook.BatchListener;
 import com.easymind.api.hook.EventHandler;
+import com.easymind.api.hook.EventListener;
+import com.easymind.api.hook.Subscription;
+import com.easymind.core.utils.AppUtils;
+import org.apache.log4j.Logger;
 
 import javax.annotation.Nonnull;
-import java.util.Queue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The default {@link com.easymind.api.hook.EventHandler EventHandler}, delivering the events on worker threads.
+ * <br>The workers block on a bounded queue, so they use no CPU while idle and wake up as soon as an event is queued.
+ * When the queue is full, the {@link RejectionPolicy} decides how the caller is pushed back.
+ * <br>With a single worker, the default, the events are delivered in the order they have been handled. Several workers
+ * deliver the events concurrently, in no particular order.
+ * <br>Each event is delivered to its {@link Event#onEvent()} method, then to the listeners subscribed to its type. An
+ * event or a listener failing with an exception is logged and does not stop its worker.
+ * <br>The batches of the coalesced subscriptions are delivered by a single scheduler thread, started on the first
+ * coalesced subscription.
+ */
 
 public class EventHandlerImpl implements EventHandler {
 
-    private final Queue<Event> events;
+    /**
+     * Queued once per worker on shutdown, behind the pending events.
+     */
+
+    private static final Object STOP = new Object();
+
+    private final Logger logger = AppUtils.getLogger();
+
+    private final BlockingQueue<Object> events;
+
+    private final RejectionPolicy rejectionPolicy;
+
+    private final ListenerRegistry listeners = new ListenerRegistry();
+
+    private final List<Thread> workers;
+
+    private final Set<CoalescingListener<?>> coalescers = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * The amount of {@link #STOP} markers queued so far, guarded by {@link #workers}.
+     */
+
+    private int stops;
+
+    /**
+     * The amount of {@link #handle(Event)} calls in progress, so the shutdown delivers the events they queue.
+     */
+
+    private final AtomicInteger handling = new AtomicInteger();
+
+    private volatile boolean running = true;
 
     public EventHandlerImpl() {
-        this.events = new LinkedBlockingQueue<>();
-        this.init();
+        this(new Builder());
     }
 
-    private void init() {
+    private EventHandlerImpl(@Nonnull Builder builder) {
 
-        Thread thread = new Thread(() -> {
+        this.events = new ArrayBlockingQueue<>(builder.capacity);
+        this.rejectionPolicy = builder.rejectionPolicy;
 
-            while (true) {
+        final List<Thread> threads = new ArrayList<>(builder.workers);
+        final ThreadFactory factory = builder.virtualThreads ? getVirtualThreadFactory() : null;
 
-                Event event = events.poll();
+        for (int i = 0; i < builder.workers; i++) {
 
-                if (event != null) {
-                    event.onEvent();
-                }
-            }
+            final Thread worker = factory == null ? new Thread(this::run) : factory.newThread(this::run);
 
-        }, "EventHandler");
+            worker.setName(builder.workers == 1 ? "EventHandler" : "EventHandler-" + (i + 1));
+            worker.setDaemon(true);
 
-        thread.setDaemon(true);
-        thread.start();
+            threads.add(worker);
+        }
+
+        // Started once the list is complete, as the workers read it when handling an event.
+        this.workers = List.copyOf(threads);
+        this.workers.forEach(Thread::start);
     }
 
     @Override
     public void handle(@Nonnull Event event) {
-        events.add(event);
+
+        Objects.requireNonNull(event);
+
+        handling.incrementAndGet();
+
+        try {
+            enqueue(event);
+        } finally {
+            handling.decrementAndGet();
+        }
+    }
+
+    /**
+     * Queues the provided event, or applies the {@link RejectionPolicy} if the queue is full. Only called within a
+     * {@link #handling} increment, so an event accepted before the shutdown is never left in the queue.
+     */
+
+    private void enqueue(@Nonnull Event event) {
+
+        if (!running) {
+            logger.error("Failed to handle event=" + event + ". \nReason: The event handler is shut down");
+            return;
+        }
+
+        if (events.offer(event)) {
+            return;
+        }
+
+        switch (rejectionPolicy) {
+            case BLOCK:
+
+                // A worker waiting for room in the queue it is the only one to drain would wait forever.
+                if (workers.contains(Thread.currentThread())) {
+                    deliver(event);
+                    break;
+                }
+
+                try {
+                    events.put(event);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    logger.error("Failed to handle event=" + event + ". \nReason: Interrupted while the queue is full");
+                }
+
+                break;
+            case CALLER_RUNS:
+                deliver(event);
+                break;
+            case DISCARD:
+                logger.error("Failed to handle event=" + event + ". \nReason: The event queue is full");
+                break;
+        }
+    }
+
+    @Nonnull
+    @Override
+    public <E extends Event> Subscription subscribe(@Nonnull Class<E> type, @Nonnull EventListener<? super E> listener) {
+        return listeners.subscribe(type, listener);
+    }
+
+    @Nonnull
+    @Override
+    public <E extends Event> Subscription subscribe(@Nonnull Class<E> type, @Nonnull Function<? super E, ?> key, long window,
+                                                    @Nonnull BatchListener<? super E> listener) {
+
+        final CoalescingListener<E> coalescer = new CoalescingListener<>(type, key, window, listener, getScheduler());
+
+        coalescer.setSubscription(listeners.subscribe(type, coalescer));
+
+        coalescers.removeIf(subscription -> !subscription.isActive());
+        coalescers.add(coalescer);
+
+        return coalescer;
+    }
+
+    @Override
+    public boolean hasListeners(@Nonnull Class<? extends Event> type) {
+        return listeners.hasListeners(type);
+    }
+
+    /**
+     * Stops accepting events, then waits for the workers to deliver the pending events and delivers the pending
+     * batches of the coalesced subscriptions.
+     * <br>The events handled concurrently with the shutdown are either rejected or delivered: the ones queued behind
+     * the last event of the workers are delivered on the caller thread.
+     * <br>If the queue stays full until the timeout, the workers are left running and a later call completes the
+     * shutdown.
+     */
+
+    @Override
+    public boolean shutdown(long timeout) {
+
+        running = false;
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+
+        synchronized (workers) {
+
+            while (stops < workers.size()) {
+                try {
+
+                    if (!events.offer(STOP, deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                        return false;
+                    }
+
+                    stops++;
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        final boolean delivered = workers.stream().noneMatch(Thread::isAlive) && deliverLateEvents(deadline);
+
+        // Flushed once the workers are done, so the batches hold the last delivered events.
+        for (CoalescingListener<?> coalescer : coalescers) {
+            coalescer.flush();
+        }
+
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+        }
+
+        return delivered;
+    }
+
+    /**
+     * Delivers the events queued once the workers have stopped, by the {@link #handle(Event)} calls which started
+     * before the shutdown, waiting for these calls to return.
+     *
+     * @return True, If every call has returned within the timeout.
+     */
+
+    private boolean deliverLateEvents(long deadline) {
+
+        // An event queued by a call which has returned is in the queue once the call count is read as 0.
+        while (handling.get() > 0) {
+
+            final long remaining = deadline - System.nanoTime();
+
+            if (remaining <= 0) {
+                return false;
+            }
+
+            try {
+                deliverIfEvent(events.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(1)), TimeUnit.NANOSECONDS));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        for (Object event = events.poll(); event != null; event = events.poll()) {
+            deliverIfEvent(event);
+        }
+
+        return true;
+    }
+
+    private void deliverIfEvent(Object event) {
+
+        if (event != null && event != STOP) {
+            deliver((Event) event);
+        }
+    }
+
+    /**
+     * Returns the number of events waiting for a worker.
+     *
+     * @return The pending event count.
+     */
+
+    public int getPendingCount() {
+        return (int) events.stream().filter(event -> event != STOP).count();
+    }
+
+    private void run() {
+
+        while (true) {
+
+            final Object event;
+
+            try {
+                event = events.take();
+            } catch (InterruptedException ex) {
+                return;
+            }
+
+            if (event == STOP) {
+                return;
+            }
+
+            deliver((Event) event);
+        }
+    }
+
+    private void deliver(@Nonnull Event event) {
+
+        try {
+            event.onEvent();
+        } catch (RuntimeException ex) {
+            logger.error("Failed to deliver event=" + event + ". \nReason: " + ex.getMessage());
+        }
+
+        listeners.publish(event);
+    }
+
+    @Nonnull
+    private synchronized ScheduledExecutorService getScheduler() {
+
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+
+                final Thread thread = new Thread(task, "EventHandler-Coalescer");
+
+                thread.setDaemon(true);
+
+                return thread;
+            });
+        }
+
+        return scheduler;
+    }
+
+    /**
+     * Returns the factory of the virtual threads, available from Java 21, looked up reflectively as this project
+     * targets Java 11.
+     */
+
+    private ThreadFactory getVirtualThreadFactory() {
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException ex) {
+            logger.error("Failed to create virtual threads, using platform threads. \nReason: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The behavior of {@link #handle(Event)} when the event queue is full.
+     */
+
+    public enum RejectionPolicy {
+
+        /**
+         * The caller waits for room in the queue, so the events stay in order. A worker handling an event, e.g. from a
+         * listener, delivers it itself instead, as it would otherwise wait for its own queue to be drained.
+         */
+
+        BLOCK,
+
+        /**
+         * The event is delivered on the caller thread, ahead of the queued events.
+         */
+
+        CALLER_RUNS,
+
+        /**
+         * The event is logged and dropped.
+         */
+
+        DISCARD
+    }
+
+    public static class Builder {
+
+        private int workers = 1;
+
+        private int capacity = 1024;
+
+        private RejectionPolicy rejectionPolicy = RejectionPolicy.BLOCK;
+
+        private boolean virtualThreads;
+
+        /**
+         * @param workers
+         *        The amount of worker threads, 1 by default.
+         *
+         * @throws java.lang.IllegalArgumentException
+         *         If workers is not positive.
+         *
+         * @return This builder.
+         */
+
+        public Builder setWorkers(int workers) {
+
+            if (workers <= 0) {
+                throw new IllegalArgumentException("Worker count must be positive, found: " + workers);
+            }
+
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * @param capacity
+         *        The maximum amount of pending events, 1024 by default.
+         *
+         * @throws java.lang.IllegalArgumentException
+         *         If capacity is not positive.
+         *
+         * @return This builder.
+         */
+
+        public Builder setCapacity(int capacity) {
+
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Capacity must be positive, found: " + capacity);
+            }
+
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * @param rejectionPolicy
+         *        The behavior when the queue is full, {@link RejectionPolicy#BLOCK} by default.
+         *
+         * @return This builder.
+         */
+
+        public Builder setRejectionPolicy(@Nonnull RejectionPolicy rejectionPolicy) {
+            this.rejectionPolicy = Objects.requireNonNull(rejectionPolicy);
+            return this;
+        }
+
+        /**
+         * @param virtualThreads
+         *        True, To run the workers on virtual threads when the runtime supports them, else on platform threads.
+         *
+         * @return This builder.
+         */
+
+        public Builder setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        @Nonnull
+        public EventHandlerImpl build() {
+            return new EventHandlerImpl(this);
+        }
     }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.easymind.core.hook;
+
+import com.easymind.api.EasyMind;
+import com.easymind.api.entities.Note;
+import com.easymind.api.entities.Project;
+import com.easymind.api.entities.Task;
+import com.easymind.api.events.Event;
+import com.easymind.core.events.NoteCreateEvent;
+import com.easymind.core.events.NoteDeleteEvent;
+import com.easymind.core.events.NoteUpdateEvent;
+import com.easymind.core.events.ProjectCreateEvent;
+import com.easymind.core.events.ProjectDeleteEvent;
+import com.easymind.core.events.ProjectUpdateEvent;
+import com.easymind.core.events.TaskCreateEvent;
+import com.easymind.core.events.TaskDeleteEvent;
+import com.easymind.core.events.TaskUpdateEvent;
+import com.easymind.core.utils.cache.CommitListener;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * The {@link com.easymind.core.utils.cache.CommitListener CommitListener} handling the create, update and delete events
+ * of the writes committed by a cache store.
+ * <br>The events of a write type are only created if a listener is subscribed to them, as the core events do nothing
+ * on their own. The writes of a commit share the same event time.
+ *
+ * @param <T>
+ *        The element type.
+ */
+
+public class EventPublisher<T> implements CommitListener<T> {
+
+    private final EasyMind api;
+
+    private final Type<T> create;
+
+    private final Type<T> update;
+
+    private final Type<T> delete;
+
+    private EventPublisher(@Nonnull EasyMind api, @Nonnull Type<T> create, @Nonnull Type<T> update, @Nonnull Type<T> delete) {
+        this.api = Objects.requireNonNull(api);
+        this.create = create;
+        this.update = update;
+        this.delete = delete;
+    }
+
+    @Nonnull
+    public static EventPublisher<Note> ofNotes(@Nonnull EasyMind api) {
+        return new EventPublisher<>(api, new Type<>(NoteCreateEvent.class, NoteCreateEvent::new),
+                new Type<>(NoteUpdateEvent.class, NoteUpdateEvent::new), new Type<>(NoteDeleteEvent.class, NoteDeleteEvent::new));
+    }
+
+    @Nonnull
+    public static EventPublisher<Task> ofTasks(@Nonnull EasyMind api) {
+        return new EventPublisher<>(api, new Type<>(TaskCreateEvent.class, TaskCreateEvent::new),
+                new Type<>(TaskUpdateEvent.class, TaskUpdateEvent::new), new Type<>(TaskDeleteEvent.class, TaskDeleteEvent::new));
+    }
+
+    @Nonnull
+    public static EventPublisher<Project> ofProjects(@Nonnull EasyMind api) {
+        return new EventPublisher<>(api, new Type<>(ProjectCreateEvent.class, ProjectCreateEvent::new),
+                new Type<>(ProjectUpdateEvent.class, ProjectUpdateEvent::new), new Type<>(ProjectDeleteEvent.class, ProjectDeleteEvent::new));
+    }
+
+    @Override
+    public void committed(@Nonnull Collection<? extends T> inserted, @Nonnull Collection<? extends T> updated,
+                          @Nonnull Collection<? extends T> deleted) {
+
+        final long time = System.currentTimeMillis();
+
+        publish(create, inserted, time);
+        publish(update, updated, time);
+        publish(delete, deleted, time);
+    }
+
+    private void publish(@Nonnull Type<T> type, @Nonnull Collection<? extends T> elements, long time) {
+
+        if (elements.isEmpty() || !api.getEventHandler().hasListeners(type.eventClass)) {
+            return;
+        }
+
+        for (T element : elements) {
+            api.handle(type.factory.create(api, time, element));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Factory<T> {
+
+        Event create(EasyMind api, long time, T element);
+    }
+
+    private static final class Type<T> {
+
+        private final Class<? extends Event> eventClass;
+
+        private final Factory<T> factory;
+
+        private Type(Class<? extends Event> eventClass, Factory<T> factory) {
+            this.eventClass = eventClass;
+            this.factory = factory;
+        }
+    }
+}
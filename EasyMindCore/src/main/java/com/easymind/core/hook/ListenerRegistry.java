@@ -0,0 +1,212 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.easymind.core.hook;
+
+import com.easymind.api.events.Event;
+import com.easymind.api.hook.EventListener;
+import com.easymind.api.hook.Subscription;
+import com.easymind.core.utils.AppUtils;
+import org.apache.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link com.easymind.api.hook.EventListener EventListener} subscriptions of an event handler, keyed by event type.
+ * <br>The listeners of a concrete event class, subscribed to the class itself or to any of its superclasses and
+ * interfaces, are resolved once into a dispatch table. Publishing an event is then a map lookup and a loop over an
+ * array, without reflection. The tables are dropped on every subscription change, which is rare compared to events.
+ */
+
+final class ListenerRegistry {
+
+    private static final Registration[] NONE = new Registration[0];
+
+    private final Logger logger = AppUtils.getLogger();
+
+    /**
+     * The registrations of each subscribed type, guarded by this registry.
+     */
+
+    private final Map<Class<?>, List<Registration>> registrations = new ConcurrentHashMap<>();
+
+    /**
+     * The registrations to call for each published event class, in subscription order.
+     */
+
+    private final Map<Class<?>, Registration[]> dispatchTables = new ConcurrentHashMap<>();
+
+    private long sequence;
+
+    @Nonnull
+    synchronized <E extends Event> Subscription subscribe(@Nonnull Class<E> type, @Nonnull EventListener<? super E> listener) {
+
+        Objects.requireNonNull(type);
+        Objects.requireNonNull(listener);
+
+        final Registration registration = new Registration(type, listener, sequence++);
+
+        registrations.computeIfAbsent(type, key -> new ArrayList<>()).add(registration);
+        dispatchTables.clear();
+
+        return registration;
+    }
+
+    /**
+     * Calls the listeners of the provided event, each failure being logged without stopping the others.
+     *
+     * @param event
+     *        The event to publish.
+     */
+
+    void publish(@Nonnull Event event) {
+
+        Registration[] table = dispatchTables.get(event.getClass());
+
+        if (table == null) {
+            table = resolve(event.getClass());
+        }
+
+        for (Registration registration : table) {
+
+            if (!registration.active) {
+                continue;
+            }
+
+            try {
+                registration.listener.onEvent(event);
+            } catch (RuntimeException ex) {
+                logger.error("Failed to notify listener of " + registration.type.getSimpleName() + " for event=" + event +
+                        ". \nReason: " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Checks if a listener is subscribed to the provided event class or to one of its supertypes.
+     *
+     * @param eventClass
+     *        The event class.
+     *
+     * @return True, If publishing an event of this class calls a listener.
+     */
+
+    boolean hasListeners(@Nonnull Class<?> eventClass) {
+
+        final Registration[] table = dispatchTables.get(eventClass);
+
+        return (table == null ? resolve(eventClass) : table).length > 0;
+    }
+
+    /**
+     * Builds the dispatch table of the provided event class from its whole type hierarchy.
+     */
+
+    @Nonnull
+    private synchronized Registration[] resolve(@Nonnull Class<?> eventClass) {
+
+        final Registration[] cached = dispatchTables.get(eventClass);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        final List<Registration> matching = new ArrayList<>();
+        final Set<Class<?>> visited = new HashSet<>();
+        final Deque<Class<?>> types = new ArrayDeque<>();
+
+        types.add(eventClass);
+
+        while (!types.isEmpty()) {
+
+            final Class<?> type = types.poll();
+
+            if (!visited.add(type)) {
+                continue;
+            }
+
+            matching.addAll(registrations.getOrDefault(type, List.of()));
+
+            if (type.getSuperclass() != null) {
+                types.add(type.getSuperclass());
+            }
+
+            types.addAll(List.of(type.getInterfaces()));
+        }
+
+        matching.sort(Comparator.comparingLong(registration -> registration.sequence));
+
+        final Registration[] table = matching.isEmpty() ? NONE : matching.toArray(NONE);
+
+        dispatchTables.put(eventClass, table);
+
+        return table;
+    }
+
+    private synchronized void unsubscribe(@Nonnull Registration registration) {
+
+        final List<Registration> listeners = registrations.get(registration.type);
+
+        if (listeners != null && listeners.remove(registration)) {
+
+            if (listeners.isEmpty()) {
+                registrations.remove(registration.type);
+            }
+
+            dispatchTables.clear();
+        }
+    }
+
+    private final class Registration implements Subscription {
+
+        private final Class<?> type;
+
+        private final EventListener<Event> listener;
+
+        private final long sequence;
+
+        private volatile boolean active = true;
+
+        @SuppressWarnings("unchecked")
+        private Registration(Class<?> type, EventListener<?> listener, long sequence) {
+            this.type = type;
+            // Only the events of the subscribed type are dispatched to the listener.
+            this.listener = (EventListener<Event>) listener;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void unsubscribe() {
+            active = false;
+            ListenerRegistry.this.unsubscribe(this);
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+    }
+}
@@ -0,0 +1,478 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils;
+
+import org.apache.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The connections to a SQLite database: a single writer connection and a fixed amount of read-only connections.
+ * <br>In <i>WAL</i> journaling mode, the readers see the last committed state and never wait for the writer, nor the
+ * writer for the readers. The writes are serialized by the {@link #getWriteLock() write lock}.
+ * <br>A thread holding the write lock reads through the writer, so it sees its own uncommitted writes. A pool without
+ * readers reads through the writer as well, holding the write lock while reading.
+ * <br>Every connection has a {@link com.easymind.core.utils.StatementCache StatementCache}: the statements prepared
+ * through the connections returned by this pool are reused by SQL instead of being parsed again.
+ */
+
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * The default maximum amount of cached statements per connection.
+     */
+
+    public static final int STATEMENT_CACHE_SIZE = 128;
+
+    private final Logger logger = AppUtils.getLogger();
+
+    private final Connection writer;
+
+    private final List<Connection> readers;
+
+    private final BlockingQueue<Connection> idleReaders;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final Map<Connection, StatementCache> statementCaches = new IdentityHashMap<>();
+
+    private final Connection writerHandle;
+
+    /**
+     * Creates a pool around the provided connection, used both to read and to write. Its pragmas are left unchanged.
+     *
+     * @param connection
+     *        The database connection.
+     */
+
+    public ConnectionPool(@Nonnull Connection connection) {
+        this.writer = Objects.requireNonNull(connection);
+        this.readers = List.of();
+        this.idleReaders = new ArrayBlockingQueue<>(1);
+        this.statementCaches.put(writer, new StatementCache(writer, STATEMENT_CACHE_SIZE));
+        this.writerHandle = lease(writer, null);
+    }
+
+    private ConnectionPool(@Nonnull Builder builder) throws SQLException {
+
+        this.writer = DriverManager.getConnection(builder.database);
+        this.readers = new ArrayList<>(builder.readers);
+        this.idleReaders = new ArrayBlockingQueue<>(Math.max(1, builder.readers));
+        this.statementCaches.put(writer, new StatementCache(writer, builder.statementCacheSize));
+        this.writerHandle = lease(writer, null);
+
+        try {
+
+            try (Statement statement = writer.createStatement()) {
+                statement.execute("PRAGMA journal_mode = WAL");
+            }
+
+            configure(writer, builder);
+
+            for (int i = 0; i < builder.readers; i++) {
+
+                final Connection reader = DriverManager.getConnection(builder.database);
+
+                readers.add(reader);
+                statementCaches.put(reader, new StatementCache(reader, builder.statementCacheSize));
+                configure(reader, builder);
+
+                try (Statement statement = reader.createStatement()) {
+                    statement.execute("PRAGMA query_only = 1");
+                }
+
+                idleReaders.add(reader);
+            }
+
+        } catch (SQLException ex) {
+            close();
+            throw ex;
+        }
+    }
+
+    private static void configure(@Nonnull Connection connection, @Nonnull Builder builder) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA synchronous = " + builder.synchronous);
+            statement.execute("PRAGMA cache_size = " + builder.cacheSize);
+            statement.execute("PRAGMA mmap_size = " + builder.mmapSize);
+            statement.execute("PRAGMA busy_timeout = " + builder.busyTimeout);
+        }
+    }
+
+    /**
+     * Returns the writer connection, to be used while holding the {@link #getWriteLock() write lock}.
+     * <br>Its statements are cached, and closing it has no effect, see {@link #close()}.
+     *
+     * @return Non-null writer connection.
+     */
+
+    @Nonnull
+    public Connection getWriter() {
+        return writerHandle;
+    }
+
+    /**
+     * Borrows a read-only connection, waiting for one to be returned if they are all in use.
+     * <br>Closing the returned connection gives it back to the pool.
+     *
+     * @throws java.sql.SQLException
+     *         If the thread has been interrupted while waiting.
+     *
+     * @return Non-null connection, to be closed once read.
+     */
+
+    @Nonnull
+    public Connection getReader() throws SQLException {
+
+        if (writeLock.isHeldByCurrentThread()) {
+            return lease(writer, () -> {});
+        }
+
+        if (readers.isEmpty()) {
+            writeLock.lock();
+            return lease(writer, writeLock::unlock);
+        }
+
+        try {
+
+            final Connection reader = idleReaders.take();
+
+            return lease(reader, () -> idleReaders.add(reader));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database reader", ex);
+        }
+    }
+
+    /**
+     * Returns the lock serializing the use of the {@link #getWriter() writer connection}.
+     *
+     * @return Non-null reentrant write lock.
+     */
+
+    @Nonnull
+    public ReentrantLock getWriteLock() {
+        return writeLock;
+    }
+
+    /**
+     * Runs the provided writes within a single transaction on the writer connection, holding the write lock.
+     *
+     * @see DBUtil#transaction(Connection, BooleanSupplier)
+     *
+     * @param writes
+     *        The writes to run, returning false on failure.
+     *
+     * @return True, If the writes succeeded and the transaction has been committed, else it is rolled back.
+     */
+
+    public boolean transaction(@Nonnull BooleanSupplier writes) {
+
+        writeLock.lock();
+
+        try {
+            return DBUtil.transaction(writerHandle, writes);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the amount of read-only connections of this pool.
+     *
+     * @return The reader count, 0 if every read goes through the writer.
+     */
+
+    public int getReaderCount() {
+        return readers.size();
+    }
+
+    /**
+     * Closes every cached statement and connection of this pool, including the borrowed readers.
+     */
+
+    @Override
+    public void close() {
+
+        for (StatementCache statementCache : statementCaches.values()) {
+            statementCache.close();
+        }
+
+        for (Connection reader : readers) {
+            close(reader);
+        }
+
+        close(writer);
+    }
+
+    private void close(@Nonnull Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            logger.error("Failed to close the database connection. \nReason: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Wraps the provided connection so its statements are cached and closing it gives it back instead.
+     *
+     * @param release
+     *        The action giving the connection back, or null if the connection is never given back.
+     */
+
+    @Nonnull
+    private Connection lease(@Nonnull Connection connection, @Nullable Runnable release) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                new Lease(connection, release));
+    }
+
+    /**
+     * A borrowed connection, given back to the pool instead of being closed.
+     */
+
+    private final class Lease implements InvocationHandler {
+
+        private final Connection connection;
+
+        private final Runnable release;
+
+        private boolean closed;
+
+        private Lease(Connection connection, Runnable release) {
+            this.connection = connection;
+            this.release = release;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+            switch (method.getName()) {
+                case "close":
+
+                    if (!closed && release != null) {
+                        this.closed = true;
+                        release.run();
+                    }
+
+                    return null;
+                case "isClosed":
+
+                    if (closed) {
+                        return true;
+                    }
+
+                    break;
+                case "prepareStatement":
+
+                    if (closed) {
+                        throw new SQLException("The connection has been given back to the pool");
+                    }
+
+                    if (args.length == 1) {
+                        return statementCaches.get(connection).prepare((String) args[0]);
+                    }
+
+                    break;
+                default:
+
+                    if (closed) {
+                        throw new SQLException("The connection has been given back to the pool");
+                    }
+            }
+
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+
+    /**
+     * The SQLite <i>synchronous</i> modes.
+     * <br>{@link #NORMAL} is durable in <i>WAL</i> mode except for the last transactions on power loss.
+     */
+
+    public enum Synchronous {
+        OFF, NORMAL, FULL, EXTRA
+    }
+
+    public static class Builder {
+
+        private final String database;
+
+        private int readers = 2;
+
+        private Synchronous synchronous = Synchronous.NORMAL;
+
+        private int cacheSize = -2000;
+
+        private long mmapSize;
+
+        private int busyTimeout = 5000;
+
+        private int statementCacheSize = STATEMENT_CACHE_SIZE;
+
+        /**
+         * @param database
+         *        The database URL, for example <i>jdbc:sqlite:file.db</i>. An in-memory database needs 0 reader,
+         *        as it is not shared between connections.
+         */
+
+        public Builder(@Nonnull String database) {
+            this.database = Objects.requireNonNull(database);
+        }
+
+        /**
+         * @param readers
+         *        The amount of read-only connections, 2 by default.
+         *
+         * @throws java.lang.IllegalArgumentException
+         *         If readers is negative.
+         *
+         * @return This builder.
+         */
+
+        public Builder setReaders(int readers) {
+
+            if (readers < 0) {
+                throw new IllegalArgumentException("Reader count must be positive or 0, found: " + readers);
+            }
+
+            this.readers = readers;
+            return this;
+        }
+
+        /**
+         * @param synchronous
+         *        The <i>synchronous</i> pragma, {@link Synchronous#NORMAL} by default.
+         *
+         * @return This builder.
+         */
+
+        public Builder setSynchronous(@Nonnull Synchronous synchronous) {
+            this.synchronous = Objects.requireNonNull(synchronous);
+            return this;
+        }
+
+        /**
+         * @param cacheSize
+         *        The <i>cache_size</i> pragma of each connection, in pages if positive or in KiB if negative.
+         *        -2000 by default.
+         *
+         * @return This builder.
+         */
+
+        public Builder setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+            return this;
+        }
+
+        /**
+         * @param mmapSize
+         *        The <i>mmap_size</i> pragma in bytes, 0 by default to disable memory-mapped I/O.
+         *
+         * @throws java.lang.IllegalArgumentException
+         *         If size is negative.
+         *
+         * @return This builder.
+         */
+
+        public Builder setMmapSize(long mmapSize) {
+
+            if (mmapSize < 0) {
+                throw new IllegalArgumentException("Size must be positive or 0, found: " + mmapSize);
+            }
+
+            this.mmapSize = mmapSize;
+            return this;
+        }
+
+        /**
+         * @param busyTimeout
+         *        The time a connection waits for a database lock in milliseconds, 5000 by default.
+         *
+         * @throws java.lang.IllegalArgumentException
+         *         If timeout is negative.
+         *
+         * @return This builder.
+         */
+
+        public Builder setBusyTimeout(int busyTimeout) {
+
+            if (busyTimeout < 0) {
+                throw new IllegalArgumentException("Timeout must be positive or 0, found: " + busyTimeout);
+            }
+
+            this.busyTimeout = busyTimeout;
+            return this;
+        }
+
+        /**
+         * @param statementCacheSize
+         *        The maximum amount of cached statements per connection, {@link #STATEMENT_CACHE_SIZE} by default or
+         *        0 to disable the cache.
+         *
+         * @throws java.lang.IllegalArgumentException
+         *         If size is negative.
+         *
+         * @return This builder.
+         */
+
+        public Builder setStatementCacheSize(int statementCacheSize) {
+
+            if (statementCacheSize < 0) {
+                throw new IllegalArgumentException("Size must be positive or 0, found: " + statementCacheSize);
+            }
+
+            this.statementCacheSize = statementCacheSize;
+            return this;
+        }
+
+        /**
+         * Opens the connections and applies the pragmas.
+         *
+         * @throws java.sql.SQLException
+         *         If a connection could not be opened or configured, in which case the opened ones are closed.
+         *
+         * @return Non-null connection pool.
+         */
+
+        @Nonnull
+        public ConnectionPool build() throws SQLException {
+            return new ConnectionPool(this);
+        }
+    }
+}
@@ -20,11 +20,15 @@ import javax.annotation.Nonnull;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.function.BooleanSupplier;
 
 public class DBUtil {
 
     /**
      * Attempts to establish a connection to the given database URL.
+     * <br>A single connection serves both the reads and the writes. The pooled connections in <i>WAL</i> mode are
+     * opened by {@link ConnectionPool.Builder}, which {@link com.easymind.core.EasyMindBuilder#setDatabase(String)
+     * EasyMindBuilder#setDatabase(String)} uses by default.
      *
      * @see DriverManager#getConnection(String)
      *
@@ -49,4 +53,51 @@ public class DBUtil {
 
         return connection;
     }
+
+    /**
+     * Runs the provided writes within a single transaction on the given connection, the writes joining it instead of
+     * committing on their own.
+     * <br>If a transaction is already opened on the connection, the writes join it and the commit is left to its owner.
+     *
+     * @param connection
+     *        The connection to run the transaction on.
+     *
+     * @param writes
+     *        The writes to run, returning false on failure.
+     *
+     * @return True, If the writes succeeded and the transaction has been committed, else it is rolled back.
+     */
+
+    public static boolean transaction(@Nonnull Connection connection, @Nonnull BooleanSupplier writes) {
+
+        try {
+
+            if (!connection.getAutoCommit()) {
+                return writes.getAsBoolean();
+            }
+
+            connection.setAutoCommit(false);
+
+            try {
+
+                if (writes.getAsBoolean()) {
+                    connection.commit();
+                    return true;
+                }
+
+                connection.rollback();
+            } catch (SQLException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+
+        } catch (SQLException ex) {
+            AppUtils.getLogger()
+                    .error("Failed to run the transaction on the database. \nReason: " + ex.getMessage());
+        }
+
+        return false;
+    }
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils;
+
+import org.apache.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The prepared statements of a single connection, kept open and reused by SQL so SQLite parses and plans each
+ * statement once.
+ * <br>Closing a returned statement gives it back to the cache, its parameters being cleared. Its result sets must be
+ * closed first, as an open result set keeps its read transaction open.
+ * <br>A statement is used by one caller at a time: the SQL of a statement in use gets an uncached statement, and the
+ * least recently used statements not in use are closed beyond the cache capacity.
+ * <br>The statements of a connection are never shared, so concurrent callers each get their own statement.
+ */
+
+final class StatementCache {
+
+    private final Logger logger = AppUtils.getLogger();
+
+    private final Connection connection;
+
+    private final int capacity;
+
+    private final Map<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Set<String> used = new HashSet<>();
+
+    StatementCache(@Nonnull Connection connection, int capacity) {
+        this.connection = connection;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the cached statement for the provided SQL, preparing it on first use.
+     *
+     * @param sql
+     *        The statement SQL.
+     *
+     * @throws java.sql.SQLException
+     *         If the statement could not be prepared.
+     *
+     * @return Non-null statement, to be closed once used.
+     */
+
+    @Nonnull
+    synchronized PreparedStatement prepare(@Nonnull String sql) throws SQLException {
+
+        if (capacity == 0 || used.contains(sql)) {
+            return connection.prepareStatement(sql);
+        }
+
+        PreparedStatement statement = statements.get(sql);
+
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+            evict();
+        }
+
+        used.add(sql);
+
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, new Borrowed(sql, statement));
+    }
+
+    /**
+     * Closes every cached statement.
+     */
+
+    synchronized void close() {
+
+        for (PreparedStatement statement : statements.values()) {
+            close(statement);
+        }
+
+        statements.clear();
+        used.clear();
+    }
+
+    private synchronized void release(@Nonnull String sql) {
+        used.remove(sql);
+    }
+
+    private void evict() {
+
+        final Iterator<Map.Entry<String, PreparedStatement>> iterator = statements.entrySet().iterator();
+
+        while (statements.size() > capacity && iterator.hasNext()) {
+
+            final Map.Entry<String, PreparedStatement> entry = iterator.next();
+
+            if (!used.contains(entry.getKey())) {
+                close(entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    private void close(@Nonnull PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ex) {
+            logger.error("Failed to close a cached statement. \nReason: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * A cached statement in use, given back to the cache instead of being closed.
+     */
+
+    private final class Borrowed implements InvocationHandler {
+
+        private final String sql;
+
+        private final PreparedStatement statement;
+
+        private boolean closed;
+
+        private Borrowed(String sql, PreparedStatement statement) {
+            this.sql = sql;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+            switch (method.getName()) {
+                case "close":
+
+                    if (!closed) {
+
+                        this.closed = true;
+
+                        try {
+                            statement.clearParameters();
+                            statement.clearBatch();
+                        } finally {
+                            release(sql);
+                        }
+                    }
+
+                    return null;
+                case "isClosed":
+                    return closed || statement.isClosed();
+                default:
+
+                    if (closed) {
+                        throw new SQLException("The statement has been given back to the cache");
+                    }
+            }
+
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+}
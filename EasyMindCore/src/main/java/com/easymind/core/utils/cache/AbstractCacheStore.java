@@ -17,44 +17,364 @@
 package com.easymind.core.utils.cache;
 
 import com.easymind.api.behaviors.Identifiable;
-import com.easymind.api.utils.cache.CacheStore;
+import com.easymind.api.data.ChangeSet;
 import com.easymind.api.data.DataAccessObject;
+import com.easymind.api.utils.cache.CacheStore;
+import com.easymind.core.utils.AppUtils;
+import com.easymind.core.utils.metrics.CacheMetrics;
+import com.easymind.core.utils.metrics.Metrics;
+import org.apache.log4j.Logger;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
 
+/**
+ * The base {@link com.easymind.api.utils.cache.CacheStore CacheStore}, safe for use by concurrent threads such as the
+ * FX thread and the event handler thread.
+ * <br>The reads are lock-free: the elements are held by a concurrent map, and the snapshots, streams and iterators
+ * are immutable lists of the cached elements, built once per modification of the cache.
+ * <br>The writes are serialized by the {@link #lock store lock}, as each of them updates the eviction policy, the
+ * secondary indexes and the write-behind queue along with the map. The store lock is always taken before the database
+ * write lock, so a database transaction must not write through a cache store.
+ *
+ * @param <T>
+ *         The element type.
+ */
+
 public abstract class AbstractCacheStore<T extends Identifiable> implements CacheStore<T> {
 
+    protected final Logger logger = AppUtils.getLogger();
+
     protected final DataAccessObject<T> dataSource;
 
-    protected List<T> cachedElements;
+    /**
+     * The hit, miss, load and eviction counters of this cache, named after its data source class.
+     */
+
+    protected final CacheMetrics metrics;
+
+    /**
+     * The cached elements indexed by id, read without locking and modified while holding the {@link #lock}.
+     */
+
+    protected final Map<String, T> cachedElements;
+
+    /**
+     * The lock held by every modification of this cache.
+     */
+
+    protected final ReentrantLock lock = new ReentrantLock();
+
+    protected volatile long lastUpdateTime;
+
+    /**
+     * The number of modifications of this cache, stamping the snapshot of the cached elements.
+     */
+
+    private volatile long modifications;
+
+    private volatile Snapshot<T> snapshot;
+
+    /**
+     * The sequence of the last data source change applied to this cache, written holding {@link #lock}.
+     */
+
+    protected volatile long changeSequence;
+
+    private final boolean preload;
+
+    private boolean loaded;
+
+    /**
+     * The queue of the pending writes in write-behind mode, null in write-through mode.
+     */
 
-    protected long lastUpdateTime;
+    protected volatile WriteBehindQueue<T> writeBehind;
+
+    /**
+     * The listener of the committed writes, null if none.
+     */
+
+    private volatile CommitListener<? super T> commitListener;
+
+    /**
+     * The eviction policy of a bounded cache, null if the cache is unbounded.
+     */
+
+    private volatile TinyLfuPolicy policy;
+
+    private ToLongFunction<? super T> weigher;
+
+    /**
+     * The accesses recorded without locking, replayed into the eviction policy while holding the lock.
+     */
+
+    private final Queue<T> accesses = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger accessCount = new AtomicInteger();
+
+    private static final int ACCESS_BUFFER_SIZE = 64;
+
+    /**
+     * The maximum number of ids remembered as absent from the data source.
+     */
+
+    private static final int ABSENT_IDS_SIZE = 1024;
+
+    /**
+     * The ids known to be absent from the data source, least recently looked up first, so a lookup of a stale or
+     * foreign id does not query the data source again. Guarded by its own monitor, as it is read without the lock.
+     * <br>An id is only trusted absent while the data source has no change left to apply, as another writer may have
+     * inserted it since.
+     */
+
+    private final Map<String, Boolean> absentIds = new LinkedHashMap<>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > ABSENT_IDS_SIZE;
+        }
+    };
+
+    private final LongAdder absentHits = new LongAdder();
+
+    private final LongAdder absentMisses = new LongAdder();
+
+    /**
+     * The pin count of the pinned element ids.
+     */
+
+    private final Map<String, Integer> pins = new HashMap<>();
 
     public AbstractCacheStore(@Nonnull final DataAccessObject<T> dataSource) {
+        this(dataSource, true);
+    }
+
+    /**
+     * @param dataSource
+     *        The data source backing this cache.
+     *
+     * @param preload
+     *        True, To load every element of the data source right away, else the cache starts empty.
+     */
+
+    protected AbstractCacheStore(@Nonnull final DataAccessObject<T> dataSource, boolean preload) {
         this.dataSource = Objects.requireNonNull(dataSource);
-        this.cachedElements = new LinkedList<>(dataSource.findAll());
+        this.metrics = Metrics.getCacheMetrics(dataSource.getClass().getSimpleName());
+        this.cachedElements = new ConcurrentHashMap<>();
+        this.preload = preload;
+
+        if (preload) {
+            load();
+        } else {
+            this.changeSequence = dataSource.getChangeSequence();
+        }
     }
 
     @Nonnull
     @Override
     public List<T> asList() {
         updateCache();
-        return Collections.unmodifiableList(cachedElements);
+        return snapshot();
     }
 
     @Nonnull
     @Override
     public Set<T> asSet() {
         updateCache();
-        return new LinkedHashSet<>(cachedElements);
+        return new LinkedHashSet<>(snapshot());
+    }
+
+    /**
+     * Switches this cache to write-behind mode: the writes only modify the cache on the caller thread and are
+     * persisted by a background writer, see {@link com.easymind.core.utils.cache.WriteBehindQueue WriteBehindQueue}.
+     * <br>The queries answered by the data source flush the pending writes first, so they never miss a write.
+     *
+     * @param name
+     *        The name of the writer thread.
+     *
+     * @param delay
+     *        The delay between two background flushes, in milliseconds.
+     *
+     * @throws java.lang.IllegalStateException
+     *         If write-behind is already enabled.
+     */
+
+    public void enableWriteBehind(@Nonnull String name, long delay) {
+
+        lock.lock();
+
+        try {
+            if (writeBehind != null) {
+                throw new IllegalStateException("Write-behind is already enabled");
+            }
+
+            this.writeBehind = new WriteBehindQueue<>(dataSource, name, delay);
+            writeBehind.setCommitListener(commitListener);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the listener notified of the writes of this cache once they are committed, such as an
+     * {@link com.easymind.core.hook.EventPublisher EventPublisher}.
+     * <br>The listener is called without holding the store lock, on the caller thread in write-through mode and on
+     * the flushing thread after each flush in write-behind mode.
+     *
+     * @param commitListener
+     *        The listener or null to remove it.
+     */
+
+    public void setCommitListener(@Nullable CommitListener<? super T> commitListener) {
+
+        lock.lock();
+
+        try {
+            this.commitListener = commitListener;
+
+            if (writeBehind != null) {
+                writeBehind.setCommitListener(commitListener);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bounds this cache to the provided maximum weight, the least valuable elements being evicted beyond it, see
+     * {@link com.easymind.core.utils.cache.TinyLfuPolicy TinyLfuPolicy}. An evicted element is loaded again from the
+     * data source on its next access, as a new instance.
+     * <br>The pinned elements and the elements with a pending write-behind write are never evicted. The cache may
+     * exceed its maximum weight for the duration of an operation.
+     *
+     * @param maximumWeight
+     *        The maximum total weight of the cached elements.
+     *
+     * @param weigher
+     *        The weight of an element, e.g. 1 to bound the number of elements. It is computed again on every access.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If maximumWeight is not positive.
+     *
+     * @throws java.lang.IllegalStateException
+     *         If this cache is already bounded, or preloads the data source and must hold every element.
+     */
+
+    public void setMaximumWeight(long maximumWeight, @Nonnull ToLongFunction<? super T> weigher) {
+
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive, found: " + maximumWeight);
+        }
+
+        Objects.requireNonNull(weigher);
+
+        lock.lock();
+
+        try {
+            if (preload) {
+                throw new IllegalStateException("A preloading cache store holds every element");
+            }
+
+            if (policy != null) {
+                throw new IllegalStateException("The cache store is already bounded");
+            }
+
+            this.weigher = weigher;
+            this.policy = new TinyLfuPolicy(maximumWeight);
+
+            cachedElements.values().forEach(element -> policy.add(element.getId(), weigher.applyAsLong(element)));
+
+            trim();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void pin(@Nonnull String id) {
+
+        Objects.requireNonNull(id);
+
+        lock.lock();
+
+        try {
+            pins.merge(id, 1, Integer::sum);
+        } finally {
+            lock.unlock();
+        }
     }
 
+    @Override
+    public void unpin(@Nonnull String id) {
+
+        Objects.requireNonNull(id);
+
+        lock.lock();
+
+        try {
+            pins.computeIfPresent(id, (key, count) -> count == 1 ? null : count - 1);
+            trim();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean flush() {
+        return writeBehind == null || writeBehind.flush();
+    }
+
+    @Override
+    public boolean close() {
+        return writeBehind == null || writeBehind.close();
+    }
+
+    /**
+     * Empties this cache, the elements being loaded again on next access.
+     * <br>The pending writes are flushed first, without holding the lock, as the flush publishes their events.
+     */
+
     @Override
     public void clear() {
+
+        flush();
+
+        lock.lock();
+
+        try {
+            clearCache();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the cached elements. Must be called holding {@link #lock}.
+     */
+
+    protected void clearCache() {
         cachedElements.clear();
+        modifications++;
+        clearAbsent();
+
+        if (policy != null) {
+            policy.clear();
+            accesses.clear();
+            accessCount.set(0);
+        }
+
+        this.loaded = false;
+        this.changeSequence = dataSource.getChangeSequence();
     }
 
     @Override
@@ -70,19 +390,19 @@ public abstract class AbstractCacheStore<T extends Identifiable> implements Cach
     @Nonnull
     @Override
     public Stream<T> stream() {
-        return cachedElements.stream();
+        return snapshot().stream();
     }
 
     @Nonnull
     @Override
     public Stream<T> parallelStream() {
-        return cachedElements.parallelStream();
+        return snapshot().parallelStream();
     }
 
     @Nonnull
     @Override
     public Iterator<T> iterator() {
-        return cachedElements.iterator();
+        return snapshot().iterator();
     }
 
     @Override
@@ -90,17 +410,55 @@ public abstract class AbstractCacheStore<T extends Identifiable> implements Cach
 
         Objects.requireNonNull(element);
 
-        updateCache();
+        final boolean inserted;
 
-        if (getElementById(element.getId()) == null) {
-            return dataSource.insert(element);
-        }
+        lock.lock();
+
+        try {
+            if (writeBehind != null) {
+
+                if (isStored(element)) {
+                    writeBehind.update(element);
+                } else {
+                    writeBehind.insert(element);
+                }
+
+                cache(element);
+                trim();
+                return true;
+            }
+
+            updateCache();
 
-        if (!cachedElements.contains(element)) {
-            cachedElements.add(element);
+            inserted = getElementById(element.getId()) == null;
+
+            if (inserted) {
+
+                if (!dataSource.insert(element)) {
+                    return false;
+                }
+
+                cache(element);
+            } else {
+
+                cache(element);
+
+                if (!dataSource.update(element)) {
+                    trim();
+                    return false;
+                }
+            }
+
+            trim();
+        } finally {
+            lock.unlock();
         }
 
-        return dataSource.update(element);
+        final List<T> written = List.of(element);
+
+        publish(inserted ? written : List.of(), inserted ? List.of() : written, List.of());
+
+        return true;
     }
 
     @Override
@@ -108,32 +466,458 @@ public abstract class AbstractCacheStore<T extends Identifiable> implements Cach
 
         Objects.requireNonNull(element);
 
-        updateCache();
+        boolean deleted = false;
+
+        lock.lock();
 
-        if (getElementById(element.getId()) != null) {
-            dataSource.delete(element);
+        try {
+            if (writeBehind != null) {
+
+                final boolean queued = isStored(element);
+
+                if (queued) {
+                    writeBehind.delete(element);
+                }
+
+                // A queued delete is persisted even if the element was not cached or has been evicted.
+                return evict(element.getId()) != null || queued;
+            }
+
+            updateCache();
+
+            if (getElementById(element.getId()) != null) {
+                deleted = dataSource.delete(element);
+            }
+
+            if (evict(element.getId()) == null) {
+                return false;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (deleted) {
+            publish(List.of(), List.of(), List.of(element));
         }
 
-        return cachedElements.remove(element);
+        return true;
+    }
+
+    @Override
+    public boolean writeThroughAll(@Nonnull Collection<? extends T> elements) {
+
+        Objects.requireNonNull(elements);
+
+        final List<T> inserted = new ArrayList<>();
+        final List<T> updated = new ArrayList<>();
+
+        lock.lock();
+
+        try {
+            if (writeBehind != null) {
+                elements.forEach(this::writeThrough);
+                return true;
+            }
+
+            updateCache();
+
+            for (T element : elements) {
+
+                if (getElementById(element.getId()) == null) {
+                    inserted.add(element);
+                } else {
+                    updated.add(element);
+                }
+            }
+
+            if (!transaction(() -> dataSource.insertAll(inserted) && dataSource.updateAll(updated))) {
+                return false;
+            }
+
+            inserted.forEach(this::cache);
+            updated.forEach(this::cache);
+
+            trim();
+        } finally {
+            lock.unlock();
+        }
+
+        publish(inserted, updated, List.of());
+
+        return true;
+    }
+
+    @Override
+    public boolean deleteThroughAll(@Nonnull Collection<? extends T> elements) {
+
+        Objects.requireNonNull(elements);
+
+        final List<T> deleted = new ArrayList<>();
+
+        lock.lock();
+
+        try {
+            if (writeBehind != null) {
+                elements.forEach(this::deleteThrough);
+                return true;
+            }
+
+            updateCache();
+
+            // Only the stored elements are deleted, so no event is published for the others.
+            for (T element : elements) {
+
+                if (getElementById(element.getId()) != null) {
+                    deleted.add(element);
+                }
+            }
+
+            if (!dataSource.deleteAll(deleted)) {
+                return false;
+            }
+
+            elements.forEach(element -> evict(element.getId()));
+        } finally {
+            lock.unlock();
+        }
+
+        publish(List.of(), List.of(), deleted);
+
+        return true;
     }
 
+    /**
+     * Applies the data source changes made since the last refresh, by this cache or any other writer, see
+     * {@link com.easymind.api.data.DataAccessObject#findChangesSince(long) DataAccessObject#findChangesSince(long)}.
+     * <br>Only the changed rows are read. The elements with a pending write-behind write are left unchanged, as their
+     * cached state is the newest one.
+     */
+
     @Override
     public int updateCache() {
 
-        int count = dataSource.getCount();
+        lock.lock();
+
+        try {
+            if (preload && !loaded) {
+                load();
+                return size();
+            }
+
+            final ChangeSet<T> changes = dataSource.findChangesSince(changeSequence);
+
+            int applied = 0;
+
+            for (T element : changes.getUpdated()) {
+
+                // Inserted by this cache or by another writer, the id is not absent anymore.
+                invalidateAbsent(element.getId());
+
+                if (isPending(element.getId())) {
+                    continue;
+                }
+
+                final T cached = getCachedElement(element.getId());
+
+                if (cached == null ? isTracked(element) : isStale(cached, element)) {
+                    cache(element);
+                    metrics.recordLoads(1);
+                    applied++;
+                }
+            }
+
+            for (String id : changes.getDeleted()) {
+
+                if (!isPending(id) && evict(id) != null) {
+                    applied++;
+                }
+            }
+
+            this.changeSequence = changes.getSequence();
+
+            if (applied > 0) {
+                this.lastUpdateTime = System.currentTimeMillis();
+                trim();
+            }
+
+            return applied;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks if a changed element which is not cached belongs to the elements held by this cache.
+     *
+     * @param element
+     *        The changed element.
+     *
+     * @return True, If the element must be cached, which is always the case by default.
+     */
+
+    protected boolean isTracked(@Nonnull T element) {
+        return true;
+    }
+
+    /**
+     * Checks if the cached element must be replaced by the changed one read from the data source.
+     * <br>The writes of this cache are logged as well, so the element written by this cache must be kept.
+     *
+     * @param cached
+     *        The cached element.
+     *
+     * @param loaded
+     *        The changed element.
+     *
+     * @return True, If the cached element is replaced, which is always the case by default.
+     */
 
-        if (count > size()) {
+    protected boolean isStale(@Nonnull T cached, @Nonnull T loaded) {
+        return true;
+    }
+
+    /**
+     * Loads every element of the data source, the change sequence being read first so no later change is missed.
+     */
+
+    private void load() {
+
+        this.changeSequence = dataSource.getChangeSequence();
+
+        try (CacheMetrics.Load load = metrics.startLoad("*");
+             Stream<T> elements = dataSource.streamAll(0)) {
+            elements.filter(element -> !cachedElements.containsKey(element.getId()) && !isPendingDelete(element.getId()))
+                    .forEach(element -> {
+                        cache(element);
+                        load.addLoaded(1);
+                    });
+        }
+
+        this.loaded = true;
+        this.lastUpdateTime = System.currentTimeMillis();
+    }
+
+    private void publish(@Nonnull Collection<? extends T> inserted, @Nonnull Collection<? extends T> updated,
+                         @Nonnull Collection<? extends T> deleted) {
+
+        final CommitListener<? super T> listener = commitListener;
 
-            dataSource.getValues("ID")
-                    .stream()
-                    .filter(id -> getElementById(id) == null)
-                    .map(dataSource::findById)
-                    .forEach(cachedElements::add);
+        if (listener != null) {
+            listener.committed(inserted, updated, deleted);
+        }
+    }
+
+    private boolean isPending(@Nonnull String id) {
+        return writeBehind != null && writeBehind.isPending(id);
+    }
+
+    /**
+     * Checks, in write-behind mode, if the provided element is stored or about to be stored into the data source.
+     * <br>Only the elements which are neither cached nor queued are looked for into the data source.
+     */
 
-            this.lastUpdateTime = System.currentTimeMillis();
+    private boolean isStored(@Nonnull T element) {
+
+        final String id = element.getId();
+
+        if (cachedElements.containsKey(id)) {
+            return true;
         }
 
-        return count - size();
+        // A pending delete still has its row, a pending insert is always cached.
+        return writeBehind.isPendingDelete(id) || (!isAbsent(id) && dataSource.findById(id) != null);
+    }
+
+    /**
+     * Checks if the element matching the given id is deleted by the next write-behind flush, in which case it must
+     * not be loaded again from the data source.
+     *
+     * @param id
+     *        The element id.
+     *
+     * @return True, If the element has a pending delete.
+     */
+
+    protected boolean isPendingDelete(@Nonnull String id) {
+        return writeBehind != null && writeBehind.isPendingDelete(id);
+    }
+
+    /**
+     * Puts the provided element into this cache, replacing the cached element with the same id if any.
+     *
+     * @param element
+     *        The element to cache.
+     */
+
+    protected void cache(@Nonnull T element) {
+
+        cachedElements.put(element.getId(), element);
+        modifications++;
+        invalidateAbsent(element.getId());
+
+        if (policy != null) {
+            policy.add(element.getId(), weigher.applyAsLong(element));
+        }
+    }
+
+    /**
+     * Removes the element matching the given id from this cache only, the data source is not affected.
+     *
+     * @param id
+     *        The target id.
+     *
+     * @return The removed element or null if it was not cached.
+     */
+
+    @Nullable
+    protected T evict(@Nonnull String id) {
+
+        if (policy != null) {
+            policy.remove(id);
+        }
+
+        final T element = cachedElements.remove(id);
+
+        if (element != null) {
+            modifications++;
+        }
+
+        return element;
+    }
+
+    /**
+     * Records an access to a cached element, in a bounded cache the frequently and recently used elements being the
+     * last ones evicted.
+     *
+     * @param element
+     *        The accessed element.
+     */
+
+    protected void recordAccess(@Nonnull T element) {
+
+        if (policy == null) {
+            return;
+        }
+
+        accesses.offer(element);
+
+        // The buffer is replayed by the writers, or by a reader once it is full if the lock is free.
+        if (accessCount.incrementAndGet() > ACCESS_BUFFER_SIZE && lock.tryLock()) {
+            try {
+                replayAccesses();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Evicts the elements selected by the eviction policy of a bounded cache, until its weight is back under its
+     * maximum. This is called at the end of the operations caching elements, once their result has been collected.
+     */
+
+    protected void trim() {
+
+        if (policy == null) {
+            return;
+        }
+
+        replayAccesses();
+
+        final List<String> victims = policy.evict(this::isEvictable);
+
+        for (String id : victims) {
+
+            final T element = evict(id);
+
+            if (element != null) {
+                evicted(element);
+            }
+        }
+
+        metrics.recordEvictions(victims.size());
+    }
+
+    /**
+     * Called once an element has been evicted by the eviction policy of a bounded cache, so the loaded element sets
+     * can be marked incomplete.
+     *
+     * @param element
+     *        The evicted element.
+     */
+
+    protected void evicted(@Nonnull T element) {}
+
+    private void replayAccesses() {
+
+        T element;
+
+        while ((element = accesses.poll()) != null) {
+
+            accessCount.decrementAndGet();
+
+            // An access to an evicted element must not track it again.
+            if (cachedElements.get(element.getId()) == element) {
+                policy.record(element.getId(), weigher.applyAsLong(element));
+            }
+        }
+    }
+
+    private boolean isEvictable(@Nonnull String id) {
+        return !pins.containsKey(id) && !isPending(id);
+    }
+
+    /**
+     * Runs the provided writes within a single data source transaction, the writes joining it instead of
+     * committing on their own.
+     *
+     * @param writes
+     *        The writes to run, returning false on failure.
+     *
+     * @return True, If the writes succeeded and the transaction has been committed, else it is rolled back.
+     */
+
+    protected boolean transaction(@Nonnull BooleanSupplier writes) {
+        return dataSource.transaction(writes);
+    }
+
+    /**
+     * Replaces the provided data source elements by their cached instance, caching the ones not cached yet.
+     *
+     * @param elements
+     *        The elements loaded from the data source.
+     *
+     * @return Non-null unmodifiable list of the cached instances, in the same order.
+     */
+
+    @Nonnull
+    protected List<T> resolve(@Nonnull List<T> elements) {
+
+        lock.lock();
+
+        try {
+            final List<T> resolved = new ArrayList<>(elements.size());
+
+            for (T element : elements) {
+
+                final T cached = getCachedElement(element.getId());
+
+                if (cached == null) {
+                    cache(element);
+                    metrics.recordLoads(1);
+                    resolved.add(element);
+                } else {
+                    recordAccess(cached);
+                    resolved.add(cached);
+                }
+            }
+
+            trim();
+
+            return Collections.unmodifiableList(resolved);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Nullable
@@ -142,14 +926,173 @@ public abstract class AbstractCacheStore<T extends Identifiable> implements Cach
 
         Objects.requireNonNull(id);
 
-        return stream()
-                .filter(element -> element.getId().equals(id))
-                .findAny()
-                .orElse(dataSource.findById(id));
+        T element = cachedElements.get(id);
+
+        if (element != null) {
+            metrics.recordHit();
+            recordAccess(element);
+            return element;
+        }
+
+        if (isAbsent(id)) {
+
+            // The changes of the other writers drop the ids they have inserted from the absent ones.
+            if (dataSource.getChangeSequence() != changeSequence) {
+                updateCache();
+                element = cachedElements.get(id);
+            }
+
+            if (element != null) {
+                metrics.recordHit();
+                recordAccess(element);
+                return element;
+            }
+
+            if (isAbsent(id)) {
+                metrics.recordHit();
+                absentHits.increment();
+                return null;
+            }
+        }
+
+        lock.lock();
+
+        try {
+            element = cachedElements.get(id);
+
+            if (element == null && !isPendingDelete(id)) {
+
+                metrics.recordMiss();
+                absentMisses.increment();
+
+                try (CacheMetrics.Load load = metrics.startLoad(id)) {
+
+                    element = dataSource.findById(id);
+
+                    if (element != null) {
+                        load.addLoaded(1);
+                    }
+                }
+
+                if (element != null) {
+                    cache(element);
+                    trim();
+                } else {
+                    synchronized (absentIds) {
+                        absentIds.put(id, Boolean.TRUE);
+                    }
+                }
+            }
+
+            return element;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the amount of write-behind writes dropped after failing
+     * {@link com.easymind.core.utils.cache.WriteBehindQueue#MAX_ATTEMPTS WriteBehindQueue#MAX_ATTEMPTS} flushes.
+     *
+     * @return The amount of dropped writes, 0 if this cache writes through.
+     */
+
+    public long getDroppedWriteCount() {
+
+        final WriteBehindQueue<T> queue = writeBehind;
+
+        return queue == null ? 0 : queue.getDroppedCount();
+    }
+
+    /**
+     * Returns the number of lookups of an id absent from the data source answered without querying it.
+     *
+     * @return The negative lookup hit count.
+     */
+
+    public long getAbsentHitCount() {
+        return absentHits.sum();
+    }
+
+    /**
+     * Returns the number of lookups of an id not cached which have queried the data source.
+     *
+     * @return The negative lookup miss count.
+     */
+
+    public long getAbsentMissCount() {
+        return absentMisses.sum();
+    }
+
+    private boolean isAbsent(@Nonnull String id) {
+        synchronized (absentIds) {
+            return absentIds.get(id) != null;
+        }
+    }
+
+    private void invalidateAbsent(@Nonnull String id) {
+        synchronized (absentIds) {
+            absentIds.remove(id);
+        }
+    }
+
+    private void clearAbsent() {
+        synchronized (absentIds) {
+            absentIds.clear();
+        }
+    }
+
+    /**
+     * Looks for the element matching the given id into this cache only, without querying the data source.
+     *
+     * @param id
+     *        The target id.
+     *
+     * @return The cached element with the given id or null.
+     */
+
+    @Nullable
+    protected T getCachedElement(@Nonnull String id) {
+        return cachedElements.get(id);
     }
 
     @Override
     public long getLastUpdateTime() {
         return (System.currentTimeMillis() - lastUpdateTime) / 1000;
     }
+
+    /**
+     * Returns the immutable list of the cached elements, built again only if this cache has been modified since the
+     * last one.
+     */
+
+    @Nonnull
+    private List<T> snapshot() {
+
+        // Read first, so a snapshot is never stamped with a later modification than the one it reflects.
+        final long version = modifications;
+        final Snapshot<T> current = snapshot;
+
+        if (current != null && current.version == version) {
+            return current.elements;
+        }
+
+        final List<T> elements = List.copyOf(cachedElements.values());
+
+        this.snapshot = new Snapshot<>(version, elements);
+
+        return elements;
+    }
+
+    private static final class Snapshot<T> {
+
+        private final long version;
+
+        private final List<T> elements;
+
+        private Snapshot(long version, List<T> elements) {
+            this.version = version;
+            this.elements = elements;
+        }
+    }
 }
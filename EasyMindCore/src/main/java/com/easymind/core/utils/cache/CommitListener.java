@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils.cache;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+
+/**
+ * A listener of the writes committed by an {@link com.easymind.core.utils.cache.AbstractCacheStore AbstractCacheStore},
+ * see {@link AbstractCacheStore#setCommitListener(CommitListener)}.
+ * <br>The writes of a commit are passed at once, so a bulk write costs a single call.
+ *
+ * @param <T>
+ *        The element type.
+ */
+
+@FunctionalInterface
+public interface CommitListener<T> {
+
+    /**
+     * Called once the provided writes have been committed to the data source.
+     *
+     * @param inserted
+     *        The inserted elements, possibly empty.
+     *
+     * @param updated
+     *        The updated elements, possibly empty.
+     *
+     * @param deleted
+     *        The deleted elements, possibly empty.
+     */
+
+    void committed(@Nonnull Collection<? extends T> inserted, @Nonnull Collection<? extends T> updated,
+                   @Nonnull Collection<? extends T> deleted);
+}
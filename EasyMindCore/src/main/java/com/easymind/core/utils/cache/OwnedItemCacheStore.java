@@ -0,0 +1,280 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils.cache;
+
+import com.easymind.api.data.ItemQuery;
+import com.easymind.api.data.SearchResult;
+import com.easymind.api.entities.ProjectItem;
+import com.easymind.api.utils.cache.ProjectItemCacheStore;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * A per-project view of the shared {@link com.easymind.api.utils.cache.ProjectItemCacheStore ProjectItemCacheStore}
+ * that only exposes the items owned by a single {@link com.easymind.api.entities.Project Project}.
+ * <br>The view holds no element itself, the owner items are loaded by the shared store on first access.
+ *
+ * @param <T>
+ *        The item type.
+ */
+
+public class OwnedItemCacheStore<T extends ProjectItem> implements ProjectItemCacheStore<T> {
+
+    private final ProjectItemCacheStore<T> store;
+
+    private final String ownerId;
+
+    public OwnedItemCacheStore(@Nonnull ProjectItemCacheStore<T> store, @Nonnull String ownerId) {
+        this.store = Objects.requireNonNull(store);
+        this.ownerId = Objects.requireNonNull(ownerId);
+    }
+
+    @Nonnull
+    @Override
+    public List<T> asList() {
+        return store.getElementsByOwnerId(ownerId);
+    }
+
+    @Nonnull
+    @Override
+    public Set<T> asSet() {
+        return new LinkedHashSet<>(asList());
+    }
+
+    /**
+     * Clears the shared store, the items of every project are reloaded on their next access.
+     */
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    @Override
+    public void pin(@Nonnull String id) {
+        store.pin(id);
+    }
+
+    @Override
+    public void unpin(@Nonnull String id) {
+        store.unpin(id);
+    }
+
+    @Override
+    public boolean flush() {
+        return store.flush();
+    }
+
+    /**
+     * Closes the shared store, which is then closed for every project.
+     */
+
+    @Override
+    public boolean close() {
+        return store.close();
+    }
+
+    @Override
+    public int size() {
+        return asList().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return asList().isEmpty();
+    }
+
+    @Nonnull
+    @Override
+    public Stream<T> stream() {
+        return asList().stream();
+    }
+
+    @Nonnull
+    @Override
+    public Stream<T> parallelStream() {
+        return asList().parallelStream();
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<T> iterator() {
+        return asList().iterator();
+    }
+
+    @Override
+    public boolean writeThrough(@Nonnull T element) {
+        return store.writeThrough(checkOwner(element));
+    }
+
+    @Override
+    public boolean deleteThrough(@Nonnull T element) {
+        return store.deleteThrough(checkOwner(element));
+    }
+
+    @Override
+    public boolean writeThroughAll(@Nonnull Collection<? extends T> elements) {
+        elements.forEach(this::checkOwner);
+        return store.writeThroughAll(elements);
+    }
+
+    @Override
+    public boolean deleteThroughAll(@Nonnull Collection<? extends T> elements) {
+        elements.forEach(this::checkOwner);
+        return store.deleteThroughAll(elements);
+    }
+
+    @Override
+    public int updateCache() {
+        return store.updateCache();
+    }
+
+    @Nullable
+    @Override
+    public T getElementById(String id) {
+
+        final T element = store.getElementById(id);
+
+        if (element != null && ownerId.equals(element.getOwnerId())) {
+            return element;
+        }
+
+        return null;
+    }
+
+    @Override
+    public long getLastUpdateTime() {
+        return store.getLastUpdateTime();
+    }
+
+    @Nonnull
+    @Override
+    public List<T> getElementsByTitle(@Nonnull String title, boolean ignoreCase) {
+        return store.getElementsByTitle(ownerId, title, ignoreCase);
+    }
+
+    @Nonnull
+    @Override
+    public List<T> getElementsByTitle(@Nonnull String ownerId, @Nonnull String title, boolean ignoreCase) {
+
+        Objects.requireNonNull(ownerId);
+
+        if (!this.ownerId.equals(ownerId)) {
+            return List.of();
+        }
+
+        return store.getElementsByTitle(ownerId, title, ignoreCase);
+    }
+
+    @Nonnull
+    @Override
+    public List<T> getElementsByTags(@Nonnull List<String> tags) {
+        return store.getElementsByTags(ownerId, tags);
+    }
+
+    @Nonnull
+    @Override
+    public List<T> getElementsByTags(@Nonnull String ownerId, @Nonnull List<String> tags) {
+
+        Objects.requireNonNull(ownerId);
+
+        if (!this.ownerId.equals(ownerId)) {
+            return List.of();
+        }
+
+        return store.getElementsByTags(ownerId, tags);
+    }
+
+    @Nonnull
+    @Override
+    public List<T> getElementsByOwnerId(@Nonnull String ownerId) {
+
+        Objects.requireNonNull(ownerId);
+
+        if (!this.ownerId.equals(ownerId)) {
+            return List.of();
+        }
+
+        return asList();
+    }
+
+    /**
+     * Runs the provided query restricted to the owner of this view.
+     */
+
+    @Nonnull
+    @Override
+    public List<T> getElementsByQuery(@Nonnull ItemQuery query) {
+
+        Objects.requireNonNull(query);
+
+        if (query.getOwnerId() != null && !ownerId.equals(query.getOwnerId())) {
+            return List.of();
+        }
+
+        return store.getElementsByQuery(new ItemQuery.Builder(query).setOwnerId(ownerId).build());
+    }
+
+    @Nonnull
+    @Override
+    public List<SearchResult<T>> search(@Nonnull String text, int limit) {
+        return store.search(ownerId, text, limit);
+    }
+
+    @Nonnull
+    @Override
+    public List<SearchResult<T>> search(@Nonnull String ownerId, @Nonnull String text, int limit) {
+
+        Objects.requireNonNull(ownerId);
+
+        if (!this.ownerId.equals(ownerId)) {
+            return List.of();
+        }
+
+        return store.search(ownerId, text, limit);
+    }
+
+    /**
+     * Returns the owner {@link com.easymind.api.entities.Project Project} id of this view.
+     *
+     * @return Non-null owner id.
+     */
+
+    @Nonnull
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    private T checkOwner(@Nonnull T element) {
+
+        Objects.requireNonNull(element);
+
+        if (!ownerId.equals(element.getOwnerId())) {
+            throw new IllegalArgumentException("Item for id='" + element.getId() + "' is not owned by project for id='" + ownerId + "'");
+        }
+
+        return element;
+    }
+}
@@ -2,7 +2,7 @@ package com.easymind.core.utils.cache;
 
 import com.easymind.api.entities.Project;
 import com.easymind.api.utils.cache.ProjectCacheStore;
-import com.easymind.api.data.DataAccessObject;
+import com.easymind.core.data.AbstractAccessObject;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
@@ -13,8 +13,16 @@ import java.util.stream.Collectors;
 
 public class ProjectCacheStoreImpl extends AbstractCacheStore<Project> implements ProjectCacheStore {
 
-    public ProjectCacheStoreImpl(@Nonnull DataAccessObject<Project> dataSource) {
+    private final AbstractAccessObject<Project> projectSource;
+
+    public ProjectCacheStoreImpl(@Nonnull AbstractAccessObject<Project> dataSource) {
         super(dataSource);
+        this.projectSource = dataSource;
+    }
+
+    @Override
+    protected boolean isStale(@Nonnull Project cached, @Nonnull Project loaded) {
+        return loaded.getLastModifiedTime().after(cached.getLastModifiedTime());
     }
 
     @Nonnull
@@ -43,7 +51,12 @@ public class ProjectCacheStoreImpl extends AbstractCacheStore<Project> implement
     @Nonnull
     @Override
     public List<Project> getElementsByTags(@Nonnull List<String> tags) {
-        return stream()
+
+        Objects.requireNonNull(tags);
+
+        flush();
+
+        return resolve(projectSource.findByTags(tags)).stream()
                 .filter(project -> project.getTags().containsAll(tags))
                 .collect(Collectors.toUnmodifiableList());
     }
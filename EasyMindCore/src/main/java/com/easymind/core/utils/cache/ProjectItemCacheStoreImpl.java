@@ -1,20 +1,61 @@
 package com.easymind.core.utils.cache;
 
+import com.easymind.api.data.ItemQuery;
+import com.easymind.api.data.SearchResult;
 import com.easymind.api.entities.ProjectItem;
 import com.easymind.api.utils.cache.ProjectItemCacheStore;
-import com.easymind.api.data.DataAccessObject;
+import com.easymind.core.data.ProjectItemAccessObject;
+import com.easymind.core.utils.metrics.CacheMetrics;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * The process wide {@link com.easymind.api.utils.cache.ProjectItemCacheStore ProjectItemCacheStore} shared by all the
+ * projects.
+ * <br>Items are loaded per owner on first access, see {@link #getElementsByOwnerId(String)}. Owner-less tag queries are
+ * run against the indexed tag table and only load the matching items, the whole data source is loaded by the other
+ * owner-less queries.
+ * <br>Owner, title and tag queries are answered from secondary indexes updated on every write-through and delete-through,
+ * so their cost is proportional to the matching items rather than to the cache size. They first apply the changes of
+ * the other writers, see {@link #updateCache()}.
+ *
+ * @see com.easymind.core.utils.cache.OwnedItemCacheStore
+ *
+ * @param <T>
+ *         The item type.
+ */
+
 public class ProjectItemCacheStoreImpl<T extends ProjectItem> extends AbstractCacheStore<T> implements ProjectItemCacheStore<T> {
 
-    public ProjectItemCacheStoreImpl(@Nonnull DataAccessObject<T> dataSource) {
-        super(dataSource);
+    private final ProjectItemAccessObject<T> itemSource;
+
+    private final ProjectItemIndex index;
+
+    private final Set<String> loadedOwners;
+
+    private boolean fullyLoaded;
+
+    public ProjectItemCacheStoreImpl(@Nonnull ProjectItemAccessObject<T> dataSource) {
+        super(dataSource, false);
+        this.itemSource = dataSource;
+        this.index = new ProjectItemIndex();
+        this.loadedOwners = new HashSet<>();
+    }
+
+    @Override
+    protected void clearCache() {
+        super.clearCache();
+        index.clear();
+        loadedOwners.clear();
+        fullyLoaded = false;
     }
 
     @Nonnull
@@ -23,21 +64,35 @@ public class ProjectItemCacheStoreImpl<T extends ProjectItem> extends AbstractCa
 
         Objects.requireNonNull(title);
 
-        final List<T> items = new ArrayList<>();
+        lock.lock();
 
-        for (T item : asList()) {
+        try {
+            updateCache();
+            loadAll();
 
-            if (ignoreCase && item.getTitle().equalsIgnoreCase(title)) {
-                items.add(item);
-            }
+            return query(null, title, ignoreCase, null);
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            if (!ignoreCase && item.getTitle().equals(title)) {
-                items.add(item);
-            }
+    @Nonnull
+    @Override
+    public List<T> getElementsByTitle(@Nonnull String ownerId, @Nonnull String title, boolean ignoreCase) {
 
-        }
+        Objects.requireNonNull(ownerId);
+        Objects.requireNonNull(title);
 
-        return Collections.unmodifiableList(items);
+        lock.lock();
+
+        try {
+            updateCache();
+            loadOwner(ownerId);
+
+            return query(ownerId, title, ignoreCase, null);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Nonnull
@@ -46,19 +101,241 @@ public class ProjectItemCacheStoreImpl<T extends ProjectItem> extends AbstractCa
 
         Objects.requireNonNull(tags);
 
-        return stream()
+        lock.lock();
+
+        try {
+            updateCache();
+
+            if (fullyLoaded) {
+                return query(null, null, false, tags);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // The tag table index answers without loading the items of every owner. The pending writes are flushed
+        // without holding the lock, as the flush publishes their events.
+        flush();
+
+        return resolve(itemSource.findByTags(tags)).stream()
                 .filter(item -> item.getTags().containsAll(tags))
                 .collect(Collectors.toUnmodifiableList());
     }
 
+    @Nonnull
+    @Override
+    public List<T> getElementsByTags(@Nonnull String ownerId, @Nonnull List<String> tags) {
+
+        Objects.requireNonNull(ownerId);
+        Objects.requireNonNull(tags);
+
+        lock.lock();
+
+        try {
+            updateCache();
+            loadOwner(ownerId);
+
+            return query(ownerId, null, false, tags);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @Nonnull
     @Override
     public List<T> getElementsByOwnerId(@Nonnull String ownerId) {
 
         Objects.requireNonNull(ownerId);
 
-        return stream()
-                .filter(item -> Objects.equals(item.getOwnerId(), ownerId))
-                .collect(Collectors.toUnmodifiableList());
+        lock.lock();
+
+        try {
+            updateCache();
+            loadOwner(ownerId);
+
+            return query(ownerId, null, false, null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Nonnull
+    @Override
+    public List<T> getElementsByQuery(@Nonnull ItemQuery query) {
+
+        flush();
+
+        return resolve(itemSource.findByQuery(query));
+    }
+
+    @Nonnull
+    @Override
+    public List<SearchResult<T>> search(@Nonnull String text, int limit) {
+
+        flush();
+
+        return resolveResults(itemSource.search(null, text, limit));
+    }
+
+    @Nonnull
+    @Override
+    public List<SearchResult<T>> search(@Nonnull String ownerId, @Nonnull String text, int limit) {
+
+        flush();
+
+        return resolveResults(itemSource.search(Objects.requireNonNull(ownerId), text, limit));
+    }
+
+    /**
+     * Only the changed items of the loaded owners are cached, the other owners being loaded on first access.
+     */
+
+    @Override
+    protected boolean isTracked(@Nonnull T element) {
+        return fullyLoaded || loadedOwners.contains(element.getOwnerId());
+    }
+
+    @Override
+    protected boolean isStale(@Nonnull T cached, @Nonnull T loaded) {
+        return loaded.getLastModifiedTime().after(cached.getLastModifiedTime());
+    }
+
+    /**
+     * Once an item of an owner is evicted, the owner items are loaded again on the next owner query.
+     */
+
+    @Override
+    protected void evicted(@Nonnull T element) {
+        loadedOwners.remove(element.getOwnerId());
+        fullyLoaded = false;
+    }
+
+    @Override
+    protected void cache(@Nonnull T element) {
+        // Indexed first, so an item evicted right away is removed from the index as well.
+        index.add(element);
+        super.cache(element);
+    }
+
+    @Nullable
+    @Override
+    protected T evict(@Nonnull String id) {
+        index.remove(id);
+        return super.evict(id);
+    }
+
+    /**
+     * Resolves the candidates of the secondary indexes and checks them against the current item state, as an item
+     * may have been modified since it has been indexed.
+     */
+
+    @Nonnull
+    private List<T> query(@Nullable String ownerId, @Nullable String title, boolean ignoreCase, @Nullable List<String> tags) {
+
+        final List<T> items = new ArrayList<>();
+
+        for (String id : index.find(ownerId, title, tags, cachedElements.keySet())) {
+
+            final T item = getCachedElement(id);
+
+            if (item == null) {
+                continue;
+            }
+
+            if (ownerId != null && !ownerId.equals(item.getOwnerId())) {
+                continue;
+            }
+
+            if (title != null && !(ignoreCase ? item.getTitle().equalsIgnoreCase(title) : item.getTitle().equals(title))) {
+                continue;
+            }
+
+            if (tags != null && !item.getTags().containsAll(tags)) {
+                continue;
+            }
+
+            recordAccess(item);
+            items.add(item);
+        }
+
+        trim();
+
+        return Collections.unmodifiableList(items);
+    }
+
+    @Nonnull
+    private List<SearchResult<T>> resolveResults(@Nonnull List<SearchResult<T>> results) {
+
+        lock.lock();
+
+        try {
+            final List<SearchResult<T>> resolved = new ArrayList<>(results.size());
+
+            for (SearchResult<T> result : results) {
+
+                final T cached = getCachedElement(result.getItem().getId());
+
+                if (cached == null) {
+                    cache(result.getItem());
+                    metrics.recordLoads(1);
+                    resolved.add(result);
+                } else {
+                    recordAccess(cached);
+                    resolved.add(new SearchResult<>(cached, result.getSnippet(), result.getRank()));
+                }
+            }
+
+            trim();
+
+            return Collections.unmodifiableList(resolved);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void loadOwner(@Nonnull String ownerId) {
+
+        if (fullyLoaded || !loadedOwners.add(ownerId)) {
+            metrics.recordHit();
+            return;
+        }
+
+        metrics.recordMiss();
+
+        try (CacheMetrics.Load load = metrics.startLoad(ownerId)) {
+            load.addLoaded(cacheAll(itemSource.findByOwnerId(ownerId)));
+        }
+    }
+
+    private void loadAll() {
+
+        if (fullyLoaded) {
+            metrics.recordHit();
+            return;
+        }
+
+        metrics.recordMiss();
+
+        try (CacheMetrics.Load load = metrics.startLoad("*")) {
+            load.addLoaded(cacheAll(itemSource.findAll()));
+        }
+
+        this.fullyLoaded = true;
+        this.lastUpdateTime = System.currentTimeMillis();
+    }
+
+    private int cacheAll(@Nonnull List<T> items) {
+
+        int cached = 0;
+
+        for (T item : items) {
+
+            if (getCachedElement(item.getId()) == null && !isPendingDelete(item.getId())) {
+                cache(item);
+                cached++;
+            }
+        }
+
+        return cached;
     }
 }
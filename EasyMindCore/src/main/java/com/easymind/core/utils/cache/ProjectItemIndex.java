@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils.cache;
+
+import com.easymind.api.entities.ProjectItem;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The secondary indexes of a {@link com.easymind.core.utils.cache.ProjectItemCacheStoreImpl ProjectItemCacheStoreImpl}:
+ * owner id, case-folded title and tag, each mapped to the ids of the matching items.
+ * <br>The indexed keys of every item are remembered so an item can be re-indexed after being modified.
+ */
+
+final class ProjectItemIndex {
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private final Map<String, Set<String>> owners = new HashMap<>();
+
+    private final Map<String, Set<String>> titles = new HashMap<>();
+
+    private final Map<String, Set<String>> tags = new HashMap<>();
+
+    /**
+     * Indexes the provided item, replacing the keys indexed for the same id if any.
+     *
+     * @param item
+     *        The item to index.
+     */
+
+    void add(@Nonnull ProjectItem item) {
+
+        final String id = item.getId();
+
+        remove(id);
+
+        final Entry entry = new Entry(item.getOwnerId(), fold(item.getTitle()), List.copyOf(item.getTags()));
+
+        entries.put(id, entry);
+        post(owners, entry.ownerId, id);
+        post(titles, entry.title, id);
+        entry.tags.forEach(tag -> post(tags, tag, id));
+    }
+
+    /**
+     * Removes the item matching the given id from every index.
+     *
+     * @param id
+     *        The item id.
+     */
+
+    void remove(@Nonnull String id) {
+
+        final Entry entry = entries.remove(id);
+
+        if (entry == null) {
+            return;
+        }
+
+        unpost(owners, entry.ownerId, id);
+        unpost(titles, entry.title, id);
+        entry.tags.forEach(tag -> unpost(tags, tag, id));
+    }
+
+    void clear() {
+        entries.clear();
+        owners.clear();
+        titles.clear();
+        tags.clear();
+    }
+
+    /**
+     * Returns the ids of the items matching every non-null criteria, computed by intersecting the posting sets
+     * starting from the smallest one.
+     *
+     * @param ownerId
+     *        The owner id or null for any owner.
+     *
+     * @param title
+     *        The title, compared case-insensitively, or null for any title.
+     *
+     * @param tags
+     *        The tags the items must all have or null for any tags.
+     *
+     * @param all
+     *        The ids of every cached item, used when no criteria is provided.
+     *
+     * @return Non-null ids of the candidate items.
+     */
+
+    @Nonnull
+    Collection<String> find(@Nullable String ownerId, @Nullable String title, @Nullable Collection<String> tags,
+                            @Nonnull Collection<String> all) {
+
+        final List<Set<String>> postings = new ArrayList<>();
+
+        if (ownerId != null) {
+            postings.add(owners.getOrDefault(ownerId, Set.of()));
+        }
+
+        if (title != null) {
+            postings.add(titles.getOrDefault(fold(title), Set.of()));
+        }
+
+        if (tags != null) {
+
+            for (String tag : tags) {
+                postings.add(this.tags.getOrDefault(tag, Set.of()));
+            }
+        }
+
+        if (postings.isEmpty()) {
+            return all;
+        }
+
+        postings.sort(Comparator.comparingInt(Set::size));
+
+        final Set<String> smallest = postings.get(0);
+
+        if (postings.size() == 1) {
+            return smallest;
+        }
+
+        final List<String> ids = new ArrayList<>();
+
+        for (String id : smallest) {
+
+            boolean matches = true;
+
+            for (int i = 1; i < postings.size() && matches; i++) {
+                matches = postings.get(i).contains(id);
+            }
+
+            if (matches) {
+                ids.add(id);
+            }
+        }
+
+        return ids;
+    }
+
+    @Nonnull
+    static String fold(@Nonnull String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
+
+    private static void post(@Nonnull Map<String, Set<String>> index, @Nonnull String key, @Nonnull String id) {
+        index.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(id);
+    }
+
+    private static void unpost(@Nonnull Map<String, Set<String>> index, @Nonnull String key, @Nonnull String id) {
+
+        final Set<String> ids = index.get(key);
+
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static final class Entry {
+
+        private final String ownerId;
+
+        private final String title;
+
+        private final List<String> tags;
+
+        private Entry(String ownerId, String title, List<String> tags) {
+            this.ownerId = ownerId;
+            this.title = title;
+            this.tags = tags;
+        }
+    }
+}
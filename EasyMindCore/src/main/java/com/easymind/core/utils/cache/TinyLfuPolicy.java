@@ -0,0 +1,374 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils.cache;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The W-TinyLFU eviction policy of a bounded {@link com.easymind.core.utils.cache.AbstractCacheStore AbstractCacheStore}.
+ * <br>New elements enter a small LRU window. The elements leaving the window are candidates to the main space, a
+ * segmented LRU made of a probation and a protected segment: a candidate is admitted only if it has been accessed more
+ * often than the probation element it would evict, the access frequencies being estimated by a count-min sketch.
+ * <br>Hence a scan over many elements used once, such as an owner loaded for a search, only flushes the window and
+ * does not evict the frequently used elements.
+ * <br>The policy only tracks ids and weights, the caller evicting the returned victims from its cache.
+ */
+
+final class TinyLfuPolicy {
+
+    private static final int WINDOW_PERCENT = 1;
+
+    private static final int PROTECTED_PERCENT = 80;
+
+    private final long maximumWeight;
+
+    private final long windowMaximum;
+
+    private final long protectedMaximum;
+
+    private final FrequencySketch sketch = new FrequencySketch();
+
+    private final Map<String, Long> window = new LinkedHashMap<>();
+
+    private final Map<String, Long> probation = new LinkedHashMap<>();
+
+    private final Map<String, Long> protectedSegment = new LinkedHashMap<>();
+
+    private long windowWeight;
+
+    private long probationWeight;
+
+    private long protectedWeight;
+
+    /**
+     * @param maximumWeight
+     *        The maximum total weight of the tracked elements.
+     */
+
+    TinyLfuPolicy(long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, maximumWeight * WINDOW_PERCENT / 100);
+        this.protectedMaximum = (maximumWeight - windowMaximum) * PROTECTED_PERCENT / 100;
+    }
+
+    /**
+     * Tracks a cached element, or updates its weight if it is already tracked.
+     *
+     * @param id
+     *        The element id.
+     *
+     * @param weight
+     *        The element weight.
+     */
+
+    void add(@Nonnull String id, long weight) {
+
+        if (contains(id)) {
+            record(id, weight);
+            return;
+        }
+
+        sketch.increment(id);
+
+        window.put(id, weight);
+        windowWeight += weight;
+
+        sketch.ensureCapacity(window.size() + probation.size() + protectedSegment.size());
+    }
+
+    /**
+     * Records an access to a tracked element, which promotes a probation element to the protected segment.
+     *
+     * @param id
+     *        The element id.
+     *
+     * @param weight
+     *        The current element weight.
+     */
+
+    void record(@Nonnull String id, long weight) {
+
+        sketch.increment(id);
+
+        Long previous = window.remove(id);
+
+        if (previous != null) {
+            window.put(id, weight);
+            windowWeight += weight - previous;
+            return;
+        }
+
+        previous = protectedSegment.remove(id);
+
+        if (previous == null) {
+            previous = probation.remove(id);
+
+            if (previous == null) {
+                return;
+            }
+
+            probationWeight -= previous;
+            previous = 0L;
+        }
+
+        protectedSegment.put(id, weight);
+        protectedWeight += weight - previous;
+
+        // The least recently used protected elements are given another chance in probation.
+        while (protectedWeight > protectedMaximum && protectedSegment.size() > 1) {
+
+            final Iterator<Map.Entry<String, Long>> iterator = protectedSegment.entrySet().iterator();
+            final Map.Entry<String, Long> demoted = iterator.next();
+
+            iterator.remove();
+            protectedWeight -= demoted.getValue();
+
+            probation.put(demoted.getKey(), demoted.getValue());
+            probationWeight += demoted.getValue();
+        }
+    }
+
+    /**
+     * Stops tracking an element removed from the cache.
+     *
+     * @param id
+     *        The element id.
+     */
+
+    void remove(@Nonnull String id) {
+
+        Long weight = window.remove(id);
+
+        if (weight != null) {
+            windowWeight -= weight;
+            return;
+        }
+
+        weight = probation.remove(id);
+
+        if (weight != null) {
+            probationWeight -= weight;
+            return;
+        }
+
+        weight = protectedSegment.remove(id);
+
+        if (weight != null) {
+            protectedWeight -= weight;
+        }
+    }
+
+    void clear() {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        windowWeight = 0;
+        probationWeight = 0;
+        protectedWeight = 0;
+    }
+
+    /**
+     * Selects the elements to evict to get back under the maximum weight, and stops tracking them.
+     * <br>The elements which are not evictable are skipped, so the total weight may remain above the maximum.
+     *
+     * @param evictable
+     *        The test of the elements which can be evicted.
+     *
+     * @return Non-null list of the ids to evict from the cache.
+     */
+
+    @Nonnull
+    List<String> evict(@Nonnull Predicate<String> evictable) {
+
+        final List<String> victims = new ArrayList<>();
+
+        while (windowWeight > windowMaximum && !window.isEmpty()) {
+
+            final Iterator<Map.Entry<String, Long>> iterator = window.entrySet().iterator();
+            final Map.Entry<String, Long> entry = iterator.next();
+            final String candidate = entry.getKey();
+
+            iterator.remove();
+            windowWeight -= entry.getValue();
+
+            probation.put(candidate, entry.getValue());
+            probationWeight += entry.getValue();
+
+            while (getWeight() > maximumWeight) {
+
+                final String victim = findEvictable(probation, evictable, candidate);
+
+                if (victim == null) {
+                    break;
+                }
+
+                if (!evictable.test(candidate) || sketch.frequency(candidate) > sketch.frequency(victim)) {
+                    remove(victim);
+                    victims.add(victim);
+                } else {
+                    remove(candidate);
+                    victims.add(candidate);
+                    break;
+                }
+            }
+        }
+
+        while (getWeight() > maximumWeight) {
+
+            String victim = findEvictable(probation, evictable, null);
+
+            if (victim == null) {
+                victim = findEvictable(protectedSegment, evictable, null);
+            }
+
+            if (victim == null) {
+                victim = findEvictable(window, evictable, null);
+            }
+
+            if (victim == null) {
+                break;
+            }
+
+            remove(victim);
+            victims.add(victim);
+        }
+
+        return victims;
+    }
+
+    long getWeight() {
+        return windowWeight + probationWeight + protectedWeight;
+    }
+
+    private boolean contains(@Nonnull String id) {
+        return window.containsKey(id) || probation.containsKey(id) || protectedSegment.containsKey(id);
+    }
+
+    @Nullable
+    private static String findEvictable(@Nonnull Map<String, Long> segment, @Nonnull Predicate<String> evictable,
+                                        @Nullable String excluded) {
+
+        for (String id : segment.keySet()) {
+
+            if (!id.equals(excluded) && evictable.test(id)) {
+                return id;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * The estimated access frequencies, as 4-bit counters in a count-min sketch of depth 4.
+     * <br>Every counter is halved once the sample size is reached, so the old accesses age out.
+     */
+
+    private static final class FrequencySketch {
+
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private long[] table = new long[16];
+
+        private int sampleSize = 10 * table.length;
+
+        private int additions;
+
+        void ensureCapacity(int entries) {
+
+            final int length = Integer.highestOneBit(Math.max(16, entries - 1)) << 1;
+
+            if (length > table.length && length > 0) {
+                this.table = new long[length];
+                this.sampleSize = 10 * length;
+                this.additions = 0;
+            }
+        }
+
+        int frequency(@Nonnull String id) {
+
+            final int hash = spread(id.hashCode());
+
+            int frequency = 15;
+
+            for (int i = 0; i < SEEDS.length; i++) {
+                final long index = index(hash, i);
+                frequency = Math.min(frequency, (int) (table[slot(index)] >>> offset(index)) & 15);
+            }
+
+            return frequency;
+        }
+
+        void increment(@Nonnull String id) {
+
+            final int hash = spread(id.hashCode());
+
+            boolean added = false;
+
+            for (int i = 0; i < SEEDS.length; i++) {
+
+                final long index = index(hash, i);
+                final int slot = slot(index);
+                final int offset = offset(index);
+
+                if (((table[slot] >>> offset) & 15) != 15) {
+                    table[slot] += 1L << offset;
+                    added = true;
+                }
+            }
+
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+
+            additions /= 2;
+        }
+
+        private long index(int hash, int i) {
+            long index = (hash + SEEDS[i]) * SEEDS[i];
+            return index + (index >>> 32);
+        }
+
+        private int slot(long index) {
+            return (int) index & (table.length - 1);
+        }
+
+        private static int offset(long index) {
+            return (int) (index >>> 40 & 15) << 2;
+        }
+
+        private static int spread(int hash) {
+            hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+            return (hash >>> 16) ^ hash;
+        }
+    }
+}
@@ -0,0 +1,495 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.easymind.core.utils.cache;
+
+import com.easymind.api.behaviors.Identifiable;
+import com.easymind.api.data.DataAccessObject;
+import com.easymind.core.utils.AppUtils;
+import org.apache.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The pending writes of a write-behind {@link com.easymind.core.utils.cache.AbstractCacheStore AbstractCacheStore},
+ * persisted by a background writer instead of the caller thread.
+ * <br>Writes are coalesced per element id, so an element modified many times between two flushes is only written
+ * once: an insert followed by updates stays an insert, an insert followed by a delete is dropped, an update followed
+ * by a delete becomes a delete.
+ * <br>Every flush writes all the pending elements as batches within a single transaction. The writes being flushed
+ * are still reported as pending until they are committed, so a flushed delete is never loaded again in the meantime.
+ * <br>If the transaction fails, each write is retried alone so the failing ones are isolated from the others. A failed
+ * write is queued again, behind the writes received in the meantime, and dropped with a logged error once it has
+ * failed {@link #MAX_ATTEMPTS} flushes. A dropped write makes the next {@link #flush()} return false, even if it is
+ * made by the background writer in the meantime, and is counted by {@link #getDroppedCount()}.
+ *
+ * @param <T>
+ *        The data type.
+ */
+
+public class WriteBehindQueue<T extends Identifiable> {
+
+    /**
+     * The amount of flushes a write may fail before being dropped.
+     */
+
+    public static final int MAX_ATTEMPTS = 3;
+
+    private final Logger logger = AppUtils.getLogger();
+
+    private final DataAccessObject<T> dataSource;
+
+    private final Map<String, Write<T>> pending = new LinkedHashMap<>();
+
+    /**
+     * The writes of the flush in progress, guarded by {@link #pending}.
+     */
+
+    private Map<String, Write<T>> inFlight = Map.of();
+
+    /**
+     * The writes dropped since the last {@link #flush()} call, guarded by {@link #pending}.
+     */
+
+    private int unreported;
+
+    private long dropped;
+
+    /**
+     * Held while writing, so a flush returns only once the writes of a concurrent flush have been committed.
+     */
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    private volatile CommitListener<? super T> commitListener;
+
+    /**
+     * @param dataSource
+     *        The data source to write to.
+     *
+     * @param name
+     *        The name of the writer thread.
+     *
+     * @param delay
+     *        The delay between two background flushes, in milliseconds.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If delay is not positive.
+     */
+
+    public WriteBehindQueue(@Nonnull DataAccessObject<T> dataSource, @Nonnull String name, long delay) {
+
+        if (delay <= 0) {
+            throw new IllegalArgumentException("Delay must be positive, found: " + delay);
+        }
+
+        this.dataSource = Objects.requireNonNull(dataSource);
+        this.writer = new Thread(() -> run(delay), Objects.requireNonNull(name));
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public void insert(@Nonnull T element) {
+        enqueue(element, Operation.INSERT);
+    }
+
+    public void update(@Nonnull T element) {
+        enqueue(element, Operation.UPDATE);
+    }
+
+    public void delete(@Nonnull T element) {
+        enqueue(element, Operation.DELETE);
+    }
+
+    /**
+     * Checks if the element matching the given id has a pending write, in which case its cached state is newer than
+     * the data source one.
+     *
+     * @param id
+     *        The element id.
+     *
+     * @return True, If the element is written by the next flush.
+     */
+
+    public boolean isPending(@Nonnull String id) {
+        return getPendingOperation(id) != null;
+    }
+
+    /**
+     * Checks if the element matching the given id has a pending insert.
+     *
+     * @param id
+     *        The element id.
+     *
+     * @return True, If the element is inserted by the next flush.
+     */
+
+    public boolean isPendingInsert(@Nonnull String id) {
+        return getPendingOperation(id) == Operation.INSERT;
+    }
+
+    /**
+     * Checks if the element matching the given id has a pending delete, in which case it is still in the data source
+     * but must not be loaded again.
+     *
+     * @param id
+     *        The element id.
+     *
+     * @return True, If the element is deleted by the next flush.
+     */
+
+    public boolean isPendingDelete(@Nonnull String id) {
+        return getPendingOperation(id) == Operation.DELETE;
+    }
+
+    /**
+     * Returns the amount of elements waiting to be written.
+     *
+     * @return The pending elements count.
+     */
+
+    public int size() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Sets the listener notified of the writes of each committed flush, on the flushing thread.
+     *
+     * @param commitListener
+     *        The listener or null to remove it.
+     */
+
+    public void setCommitListener(@Nullable CommitListener<? super T> commitListener) {
+        this.commitListener = commitListener;
+    }
+
+    /**
+     * Writes every pending element to the data source within a single transaction, on the caller thread.
+     * <br>This is a barrier: once it returns true, every write queued before the call has been committed.
+     *
+     * @return True, If the pending writes have been committed and no write has been dropped since the previous call,
+     *         else the failed ones are queued again or dropped.
+     */
+
+    public boolean flush() {
+
+        final boolean committed = write();
+
+        synchronized (pending) {
+
+            final boolean lost = unreported > 0;
+
+            this.unreported = 0;
+
+            return committed && !lost;
+        }
+    }
+
+    /**
+     * Returns the amount of writes dropped after failing {@link #MAX_ATTEMPTS} flushes, since this queue was created.
+     *
+     * @return The amount of dropped writes.
+     */
+
+    public long getDroppedCount() {
+
+        synchronized (pending) {
+            return dropped;
+        }
+    }
+
+    /**
+     * Writes the pending writes, without reporting the ones previously dropped.
+     *
+     * @return True, If the pending writes have been committed.
+     */
+
+    private boolean write() {
+
+        final List<Write<T>> committed = new ArrayList<>();
+
+        final List<Write<T>> failed = new ArrayList<>();
+
+        flushLock.lock();
+
+        try {
+
+            final List<Write<T>> writes;
+
+            synchronized (pending) {
+
+                if (pending.isEmpty()) {
+                    return true;
+                }
+
+                writes = new ArrayList<>(pending.values());
+                inFlight = new LinkedHashMap<>(pending);
+                pending.clear();
+            }
+
+            try {
+
+                if (commit(writes)) {
+                    committed.addAll(writes);
+                } else {
+                    logger.error("Failed to flush " + writes.size() + " pending writes, retrying them one by one.");
+                    isolate(writes, committed, failed);
+                }
+            } catch (RuntimeException ex) {
+                failed.addAll(writes.subList(committed.size() + failed.size(), writes.size()));
+                throw ex;
+            } finally {
+                synchronized (pending) {
+                    requeue(failed);
+                    inFlight = Map.of();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+
+        // Notified without the flush lock, so a listener may flush in turn.
+        final CommitListener<? super T> listener = commitListener;
+
+        if (listener != null && !committed.isEmpty()) {
+            listener.committed(select(committed, Operation.INSERT), select(committed, Operation.UPDATE),
+                    select(committed, Operation.DELETE));
+        }
+
+        return failed.isEmpty();
+    }
+
+    /**
+     * Stops the background writer and flushes the remaining writes on the caller thread.
+     *
+     * @return True, If the remaining writes have been committed.
+     */
+
+    public boolean close() {
+
+        running = false;
+        writer.interrupt();
+
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        return flush();
+    }
+
+    private void run(long delay) {
+
+        while (running) {
+
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException ex) {
+                return;
+            }
+
+            write();
+        }
+    }
+
+    private void enqueue(@Nonnull T element, @Nonnull Operation operation) {
+
+        Objects.requireNonNull(element);
+
+        if (!running) {
+            throw new IllegalStateException("The write-behind queue has been closed");
+        }
+
+        synchronized (pending) {
+
+            final String id = element.getId();
+            final Write<T> flushing = inFlight.get(id);
+
+            // The row of a delete being flushed is gone once committed, so it has to be inserted again.
+            final boolean reinserted = operation == Operation.UPDATE && !pending.containsKey(id) && flushing != null &&
+                    flushing.operation == Operation.DELETE;
+
+            merge(new Write<>(element, reinserted ? Operation.INSERT : operation, 0));
+        }
+    }
+
+    /**
+     * Writes the provided writes within a single transaction.
+     *
+     * @return True, If the writes have been committed, else the transaction has been rolled back.
+     */
+
+    private boolean commit(@Nonnull List<Write<T>> writes) {
+
+        final List<T> inserted = select(writes, Operation.INSERT);
+        final List<T> updated = select(writes, Operation.UPDATE);
+        final List<T> deleted = select(writes, Operation.DELETE);
+
+        return dataSource.transaction(
+                () -> dataSource.insertAll(inserted) && dataSource.updateAll(updated) && dataSource.deleteAll(deleted));
+    }
+
+    /**
+     * Commits each provided write alone, so a failing write does not prevent the others from being committed.
+     */
+
+    private void isolate(@Nonnull List<Write<T>> writes, @Nonnull List<Write<T>> committed, @Nonnull List<Write<T>> failed) {
+
+        for (Write<T> write : writes) {
+            (commit(List.of(write)) ? committed : failed).add(write);
+        }
+    }
+
+    @Nonnull
+    private List<T> select(@Nonnull List<Write<T>> writes, @Nonnull Operation operation) {
+
+        final List<T> elements = new ArrayList<>();
+
+        for (Write<T> write : writes) {
+
+            if (write.operation == operation) {
+                elements.add(write.element);
+            }
+        }
+
+        return elements;
+    }
+
+    /**
+     * Puts back the failed writes of a flush, each one being merged with the newer write of the same element if any.
+     * A write having failed {@link #MAX_ATTEMPTS} flushes is dropped instead. Must be called holding {@link #pending}.
+     */
+
+    private void requeue(@Nonnull List<Write<T>> writes) {
+
+        final Map<String, Write<T>> newer = new LinkedHashMap<>(pending);
+
+        pending.clear();
+
+        for (Write<T> write : writes) {
+
+            final int attempts = write.attempts + 1;
+
+            if (attempts < MAX_ATTEMPTS) {
+                merge(new Write<>(write.element, write.operation, attempts));
+            } else if (!newer.containsKey(write.element.getId())) {
+                logger.error("Failed to " + write.operation.name().toLowerCase() + " element id='" + write.element.getId() +
+                        "' after " + attempts + " attempts, the write is dropped.");
+                unreported++;
+                dropped++;
+            }
+        }
+
+        newer.values().forEach(this::merge);
+    }
+
+    private void merge(@Nonnull Write<T> write) {
+
+        final String id = write.element.getId();
+        final Write<T> previous = pending.get(id);
+
+        final Operation operation = previous == null ? write.operation : previous.operation.then(write.operation);
+
+        if (operation == null) {
+            pending.remove(id);
+        } else {
+            // A newer write of the element starts over with its own attempts.
+            pending.put(id, new Write<>(write.element, operation, write.attempts));
+        }
+    }
+
+    /**
+     * Returns the operation of the newest write of the provided element, queued or being flushed.
+     */
+
+    @Nullable
+    private Operation getPendingOperation(@Nonnull String id) {
+
+        synchronized (pending) {
+
+            Write<T> write = pending.get(id);
+
+            if (write == null) {
+                write = inFlight.get(id);
+            }
+
+            return write == null ? null : write.operation;
+        }
+    }
+
+    private enum Operation {
+
+        INSERT,
+
+        UPDATE,
+
+        DELETE;
+
+        /**
+         * Returns the operation equivalent to this operation followed by the given one.
+         *
+         * @return The coalesced operation or null if both cancel out.
+         */
+
+        @Nullable
+        private Operation then(@Nonnull Operation next) {
+
+            switch (this) {
+                case INSERT:
+                    return next == DELETE ? null : INSERT;
+                case UPDATE:
+                    return next == DELETE ? DELETE : UPDATE;
+                default:
+                    // The row is still stored until the delete is flushed.
+                    return next == DELETE ? DELETE : UPDATE;
+            }
+        }
+    }
+
+    private static final class Write<T> {
+
+        private final T element;
+
+        private final Operation operation;
+
+        /**
+         * The amount of flushes this write has failed.
+         */
+
+        private final int attempts;
+
+        private Write(T element, Operation operation, int attempts) {
+            this.element = element;
+            this.operation = operation;
+            this.attempts = attempts;
+        }
+    }
+}
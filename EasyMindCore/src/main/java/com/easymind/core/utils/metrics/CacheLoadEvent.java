@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The flight recorder event of a cache store load from its data source, see {@link CacheMetrics#startLoad(String)}.
+ * <br>The queries run by the load are recorded as nested {@link QueryEvent QueryEvent}.
+ */
+
+@Name("com.easymind.CacheLoad")
+@Label("Cache Load")
+@Category({"EasyMind", "Cache"})
+@Description("A cache store miss loading elements from its data source")
+final class CacheLoadEvent extends jdk.jfr.Event {
+
+    @Label("Store")
+    String store;
+
+    @Label("Key")
+    String key;
+
+    @Label("Loaded")
+    int loaded;
+}
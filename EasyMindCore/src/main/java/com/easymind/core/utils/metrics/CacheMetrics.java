@@ -0,0 +1,164 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils.metrics;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters of a cache store: hits, misses, elements loaded from the data source and elements evicted.
+ * <br>The counters are lock-free, and the loads and evictions are recorded as flight recorder events as well.
+ *
+ * @see Metrics#getCacheMetrics(String)
+ */
+
+public final class CacheMetrics {
+
+    private final String name;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    CacheMetrics(@Nonnull String name) {
+        this.name = Objects.requireNonNull(name);
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void recordLoads(int count) {
+        loads.add(count);
+    }
+
+    public void recordEvictions(int count) {
+
+        if (count == 0) {
+            return;
+        }
+
+        evictions.add(count);
+
+        final CacheEvictionEvent event = new CacheEvictionEvent();
+
+        if (event.shouldCommit()) {
+            event.store = name;
+            event.evicted = count;
+            event.commit();
+        }
+    }
+
+    /**
+     * Starts timing a load of the store from its data source, to be closed once done.
+     *
+     * @param key
+     *        The loaded key, such as an element id or an owner id.
+     *
+     * @return Non-null load, recording the loaded elements on close.
+     */
+
+    @Nonnull
+    public Load startLoad(@Nonnull String key) {
+        return new Load(key);
+    }
+
+    @Nonnull
+    public String getName() {
+        return name;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return The ratio of the lookups answered by the cache, or 1 if nothing has been looked up.
+     */
+
+    public double getHitRatio() {
+
+        final long hitCount = getHitCount();
+        final long total = hitCount + getMissCount();
+
+        return total == 0 ? 1 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": hits=" + getHitCount() + ", misses=" + getMissCount() + ", loads=" + getLoadCount() +
+                ", evictions=" + getEvictionCount();
+    }
+
+    /**
+     * A load in progress, see {@link #startLoad(String)}.
+     */
+
+    public final class Load implements AutoCloseable {
+
+        private final CacheLoadEvent event = new CacheLoadEvent();
+
+        private final String key;
+
+        private int loaded;
+
+        private Load(String key) {
+            this.key = key;
+            event.begin();
+        }
+
+        public void addLoaded(int count) {
+            this.loaded += count;
+        }
+
+        @Override
+        public void close() {
+
+            recordLoads(loaded);
+
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.store = name;
+                event.key = key;
+                event.loaded = loaded;
+                event.commit();
+            }
+        }
+    }
+}
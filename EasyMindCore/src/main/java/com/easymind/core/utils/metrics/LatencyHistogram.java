@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A latency histogram with power of two buckets, the bucket <i>i</i> counting the latencies between 2<sup>i-1</sup>
+ * and 2<sup>i</sup> nanoseconds.
+ * <br>Recording is lock-free, so the histogram can be updated by concurrent threads.
+ */
+
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 48;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+
+    private final LongAdder total = new LongAdder();
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos
+     *        The latency in nanoseconds.
+     */
+
+    public void record(long nanos) {
+
+        final long latency = Math.max(0, nanos);
+
+        counts[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(latency))].increment();
+        total.add(latency);
+        max.accumulate(latency);
+    }
+
+    public long getCount() {
+
+        long count = 0;
+
+        for (LongAdder bucket : counts) {
+            count += bucket.sum();
+        }
+
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return total.sum();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile.
+     *
+     * @param percentile
+     *        The percentile, between 0 and 100.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If percentile is not between 0 and 100.
+     *
+     * @return The percentile latency in nanoseconds, at most twice the exact value, or 0 if nothing is recorded.
+     */
+
+    public long getPercentileNanos(double percentile) {
+
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100, found: " + percentile);
+        }
+
+        final long[] snapshot = new long[BUCKETS];
+
+        long count = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+            count += snapshot[i];
+        }
+
+        final long rank = (long) Math.ceil(count * percentile / 100);
+
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+
+            seen += snapshot[i];
+
+            if (seen >= rank && seen > 0) {
+                return Math.min(1L << i, getMaxNanos());
+            }
+        }
+
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+
+        final long count = getCount();
+
+        return "count=" + count +
+                ", mean=" + (count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(getTotalNanos() / count)) + "us" +
+                ", p50=" + TimeUnit.NANOSECONDS.toMicros(getPercentileNanos(50)) + "us" +
+                ", p99=" + TimeUnit.NANOSECONDS.toMicros(getPercentileNanos(99)) + "us" +
+                ", max=" + TimeUnit.NANOSECONDS.toMicros(getMaxNanos()) + "us";
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils.metrics;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * The process wide registry of the cache store and data access object metrics.
+ * <br>Every metric is also emitted as a flight recorder event in the <i>EasyMind</i> category, so a recording started
+ * with <i>-XX:StartFlightRecording</i> shows the queries and cache loads of a slow operation along with its stacks.
+ */
+
+public final class Metrics {
+
+    private static final Map<String, CacheMetrics> CACHES = new ConcurrentHashMap<>();
+
+    private static final Map<String, QueryMetrics> TABLES = new ConcurrentHashMap<>();
+
+    private Metrics() {}
+
+    /**
+     * Returns the metrics of the named cache store, shared by the stores with the same name.
+     *
+     * @param name
+     *        The cache store name.
+     *
+     * @return Non-null cache metrics.
+     */
+
+    @Nonnull
+    public static CacheMetrics getCacheMetrics(@Nonnull String name) {
+        return CACHES.computeIfAbsent(name, CacheMetrics::new);
+    }
+
+    /**
+     * Returns the metrics of the data access objects of the provided table.
+     *
+     * @param table
+     *        The table name.
+     *
+     * @return Non-null query metrics.
+     */
+
+    @Nonnull
+    public static QueryMetrics getQueryMetrics(@Nonnull String table) {
+        return TABLES.computeIfAbsent(table, QueryMetrics::new);
+    }
+
+    @Nonnull
+    public static List<CacheMetrics> getCacheMetrics() {
+        return List.copyOf(CACHES.values());
+    }
+
+    @Nonnull
+    public static List<QueryMetrics> getQueryMetrics() {
+        return List.copyOf(TABLES.values());
+    }
+
+    /**
+     * Formats every metric, one cache store or method per line.
+     *
+     * @return Non-null metrics report.
+     */
+
+    @Nonnull
+    public static String report() {
+        return CACHES.values().stream().map(CacheMetrics::toString).sorted().collect(Collectors.joining("\n")) + "\n" +
+                TABLES.values().stream().map(QueryMetrics::toString).sorted().collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The flight recorder event of a data access object query, see {@link QueryMetrics#start(String)}.
+ */
+
+@Name("com.easymind.Query")
+@Label("Query")
+@Category({"EasyMind", "Database"})
+@Description("A query or a write of a data access object")
+@StackTrace(false)
+final class QueryEvent extends jdk.jfr.Event {
+
+    @Label("Table")
+    String table;
+
+    @Label("Method")
+    String method;
+
+    @Label("Rows")
+    int rows;
+}
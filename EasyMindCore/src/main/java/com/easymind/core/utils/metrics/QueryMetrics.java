@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils.metrics;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The latency histograms of the methods of a data access object, and the number of rows it has hydrated into
+ * elements.
+ * <br>Each query is recorded as a flight recorder event as well.
+ *
+ * @see Metrics#getQueryMetrics(String)
+ */
+
+public final class QueryMetrics {
+
+    private final String table;
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private final LongAdder rows = new LongAdder();
+
+    QueryMetrics(@Nonnull String table) {
+        this.table = Objects.requireNonNull(table);
+    }
+
+    /**
+     * Starts timing a query of the provided method, to be closed once its rows are read.
+     *
+     * @param method
+     *        The method name.
+     *
+     * @return Non-null timer, recording the query on close.
+     */
+
+    @Nonnull
+    public Timer start(@Nonnull String method) {
+        return new Timer(Objects.requireNonNull(method));
+    }
+
+    @Nonnull
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * @return Non-null immutable map of the latency histogram of each method, sorted by method name.
+     */
+
+    @Nonnull
+    public Map<String, LatencyHistogram> getHistograms() {
+        return Collections.unmodifiableMap(new TreeMap<>(histograms));
+    }
+
+    public long getRowsHydrated() {
+        return rows.sum();
+    }
+
+    @Override
+    public String toString() {
+
+        final StringBuilder builder = new StringBuilder(table).append(": rows=").append(getRowsHydrated());
+
+        getHistograms().forEach((method, histogram) -> builder.append("\n  ").append(method).append(": ").append(histogram));
+
+        return builder.toString();
+    }
+
+    /**
+     * A query in progress, see {@link #start(String)}.
+     */
+
+    public final class Timer implements AutoCloseable {
+
+        private final QueryEvent event = new QueryEvent();
+
+        private final String method;
+
+        private final long start = System.nanoTime();
+
+        private int rows;
+
+        private Timer(String method) {
+            this.method = method;
+            event.begin();
+        }
+
+        /**
+         * Adds rows hydrated into elements, or written, by the query.
+         *
+         * @param count
+         *        The amount of rows.
+         */
+
+        public void addRows(int count) {
+            this.rows += count;
+        }
+
+        @Override
+        public void close() {
+
+            histograms.computeIfAbsent(method, key -> new LatencyHistogram()).record(System.nanoTime() - start);
+            QueryMetrics.this.rows.add(rows);
+
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.table = table;
+                event.method = method;
+                event.rows = rows;
+                event.commit();
+            }
+        }
+    }
+}
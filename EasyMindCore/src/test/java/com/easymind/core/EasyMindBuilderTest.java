@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.easymind.core;
+
+import com.easymind.api.EasyMind;
+import com.easymind.api.entities.Note;
+import com.easymind.core.entities.NoteImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the connections opened by the {@link EasyMindBuilder} default path.
+ */
+
+public class EasyMindBuilderTest {
+
+    private File database;
+
+    @Before
+    public void setUp() throws IOException {
+        database = File.createTempFile("easymind", ".db");
+    }
+
+    @After
+    public void tearDown() {
+        for (String suffix : new String[] {"", "-wal", "-shm"}) {
+            new File(database.getPath() + suffix).delete();
+        }
+    }
+
+    @Test
+    public void databaseIsOpenedWithAConnectionPool() throws SQLException {
+
+        final EasyMind easyMind = new EasyMindBuilder().setDatabase("jdbc:sqlite:" + database.getPath()).build();
+
+        try {
+            final Note note = new NoteImpl.Builder("Note").setOwnerId("project").build();
+
+            assertTrue(easyMind.getNoteCacheStore().writeThrough(note));
+
+            try (Statement statement = easyMind.getConnection().createStatement();
+                 ResultSet resultSet = statement.executeQuery("PRAGMA journal_mode")) {
+                assertEquals("wal", resultSet.getString(1));
+            }
+        } finally {
+            assertTrue(easyMind.shutdown());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void buildWithoutDatabaseFails() {
+        new EasyMindBuilder().build();
+    }
+}
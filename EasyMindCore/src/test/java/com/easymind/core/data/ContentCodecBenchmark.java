@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.data;
+
+import com.easymind.api.entities.Note;
+import com.easymind.core.entities.NoteImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the storage size and the throughput of the compressed note contents, see {@link ContentCodec}. Excluded
+ * from the test task, run with {@code gradle :EasyMindCore:benchmark}.
+ */
+
+public class ContentCodecBenchmark {
+
+    private static final int NOTES = 500;
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void storedNotes() throws SQLException {
+
+        final NoteAccessObject notes = new NoteAccessObject(connection);
+        final List<Note> elements = new ArrayList<>(NOTES);
+
+        long rawSize = 0;
+
+        for (int i = 0; i < NOTES; i++) {
+
+            final String content = ("Meeting notes #" + i + ": the release is planned for next week, pending review. ").repeat(100);
+
+            rawSize += content.length();
+            elements.add(new NoteImpl.Builder("Note " + i).setOwnerId("project").setContent(content).build());
+        }
+
+        final long emptySize = getDatabaseSize();
+
+        long start = System.nanoTime();
+
+        assertTrue(notes.insertAll(elements));
+
+        final long writeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+
+        for (Note note : elements) {
+            notes.findContent(note.getId());
+        }
+
+        final long readNanos = System.nanoTime() - start;
+
+        System.out.printf("%d notes: raw %d bytes, CONTENT column %d bytes, database grown by %d bytes, " +
+                        "write %.1f MB/s, read %.1f MB/s%n", NOTES, rawSize, getLong("SELECT SUM(LENGTH(CONTENT)) FROM NOTES"),
+                getDatabaseSize() - emptySize, rawSize / 1e6 / (writeNanos / 1e9), rawSize / 1e6 / (readNanos / 1e9));
+    }
+
+    private long getDatabaseSize() throws SQLException {
+        return getLong("PRAGMA page_count") * getLong("PRAGMA page_size");
+    }
+
+    private long getLong(String sql) throws SQLException {
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+
+            assertTrue(resultSet.next());
+
+            return resultSet.getLong(1);
+        }
+    }
+}
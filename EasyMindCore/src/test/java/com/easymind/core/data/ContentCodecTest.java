@@ -0,0 +1,234 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.data;
+
+import com.easymind.api.entities.Note;
+import com.easymind.core.entities.NoteImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the storage format of {@link ContentCodec} against SQLite, including the rows written before compression.
+ */
+
+public class ContentCodecTest {
+
+    private static final byte[] MAGIC = {'E', 'M', 'Z', 1};
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws SQLException {
+
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE CONTENTS (ID INTEGER PRIMARY KEY, CONTENT TEXT)");
+        }
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void smallContentRoundTripsAsText() throws SQLException {
+
+        final long id = write("A short note");
+
+        assertEquals("text", typeOf(id));
+        assertEquals("A short note", read(id));
+    }
+
+    @Test
+    public void contentAtThresholdStaysText() throws SQLException {
+
+        final String content = "a".repeat(ContentCodec.COMPRESSION_THRESHOLD);
+        final long id = write(content);
+
+        assertEquals("text", typeOf(id));
+        assertEquals(content, read(id));
+    }
+
+    @Test
+    public void largeContentRoundTripsCompressed() throws SQLException {
+
+        final String content = "Déjà vu, 日本語 and plain ASCII text. ".repeat(200);
+        final long id = write(content);
+
+        final byte[] stored = readBytes(id);
+
+        assertEquals("blob", typeOf(id));
+        assertArrayEquals(MAGIC, Arrays.copyOf(stored, MAGIC.length));
+        assertTrue(stored.length < content.getBytes(StandardCharsets.UTF_8).length);
+        assertEquals(content, read(id));
+    }
+
+    @Test
+    public void incompressibleContentStaysText() throws SQLException {
+
+        final Random random = new Random(42);
+        final StringBuilder builder = new StringBuilder();
+
+        while (builder.toString().getBytes(StandardCharsets.UTF_8).length < 1100) {
+            builder.appendCodePoint(random.nextBoolean() ? random.nextInt(0x80) : 0x80 + random.nextInt(0x780));
+        }
+
+        final String content = builder.toString();
+        final long id = write(content);
+
+        assertEquals("text", typeOf(id));
+        assertEquals(content, read(id));
+    }
+
+    @Test
+    public void nullContentRoundTrips() throws SQLException {
+
+        final long id = write(null);
+
+        assertEquals("null", typeOf(id));
+        assertNull(read(id));
+    }
+
+    @Test
+    public void legacyTextRowsReadUnchanged() throws SQLException {
+
+        final String content = "Written before compression. ".repeat(100);
+
+        assertEquals(content, read(insert(statement -> statement.setString(1, content))));
+    }
+
+    @Test
+    public void blobWithoutMarkerReadsAsUtf8() throws SQLException {
+        final byte[] bytes = "Plain bytes é".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("Plain bytes é", read(insert(statement -> statement.setBytes(1, bytes))));
+    }
+
+    @Test(expected = SQLException.class)
+    public void corruptedCompressedContentFails() throws SQLException {
+        read(insert(statement -> statement.setBytes(1, new byte[] {'E', 'M', 'Z', 1, 42, 42, 42})));
+    }
+
+    /**
+     * Compares the stored size and the throughput of notes written with compression against their raw size.
+     */
+
+    @Test
+    public void compressionShrinksStoredNotes() throws SQLException {
+
+        final NoteAccessObject notes = new NoteAccessObject(connection);
+        final List<Note> elements = new ArrayList<>();
+
+        long rawSize = 0;
+
+        for (int i = 0; i < 500; i++) {
+
+            final String content = ("Meeting notes #" + i + ": the release is planned for next week, pending review. ").repeat(100);
+
+            rawSize += content.length();
+            elements.add(new NoteImpl.Builder("Note " + i).setOwnerId("project").setContent(content).build());
+        }
+
+        final long emptySize = getDatabaseSize();
+
+        assertTrue(notes.insertAll(elements));
+
+        for (Note note : elements) {
+            assertEquals(note.getContent(), notes.findContent(note.getId()));
+        }
+
+        final long storedSize = query("SELECT SUM(LENGTH(CONTENT)) FROM NOTES", resultSet -> resultSet.getLong(1));
+
+        assertTrue(storedSize < rawSize / 2);
+
+        // The full-text index must not keep a plain copy of the contents.
+        assertTrue(getDatabaseSize() - emptySize < rawSize / 2);
+    }
+
+    private long getDatabaseSize() throws SQLException {
+        return query("PRAGMA page_count", resultSet -> resultSet.getLong(1)) * query("PRAGMA page_size", resultSet -> resultSet.getLong(1));
+    }
+
+    private long write(String content) throws SQLException {
+        return insert(statement -> ContentCodec.bind(statement, 1, content));
+    }
+
+    private long insert(Binder binder) throws SQLException {
+
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO CONTENTS (CONTENT) VALUES(?)")) {
+            binder.bind(statement);
+            statement.executeUpdate();
+        }
+
+        return query("SELECT last_insert_rowid()", resultSet -> resultSet.getLong(1));
+    }
+
+    private String read(long id) throws SQLException {
+        return query("SELECT CONTENT FROM CONTENTS WHERE ID = " + id, resultSet -> ContentCodec.read(resultSet, 1));
+    }
+
+    private byte[] readBytes(long id) throws SQLException {
+        return query("SELECT CONTENT FROM CONTENTS WHERE ID = " + id, resultSet -> resultSet.getBytes(1));
+    }
+
+    private String typeOf(long id) throws SQLException {
+        return query("SELECT typeof(CONTENT) FROM CONTENTS WHERE ID = " + id, resultSet -> resultSet.getString(1));
+    }
+
+    private <R> R query(String sql, Reader<R> reader) throws SQLException {
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+
+            assertTrue(resultSet.next());
+
+            return reader.read(resultSet);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface Reader<R> {
+
+        R read(ResultSet resultSet) throws SQLException;
+    }
+}
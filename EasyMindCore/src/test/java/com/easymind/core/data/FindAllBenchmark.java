@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.data;
+
+import com.easymind.api.entities.Note;
+import com.easymind.core.entities.NoteImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Times the single scan {@link AbstractAccessObject#findAll()} against the former path reading the ids then each row
+ * by id. Excluded from the test task, run with {@code gradle :EasyMindCore:benchmark}.
+ */
+
+public class FindAllBenchmark {
+
+    private static final int ROWS = 5_000;
+
+    private static final int RUNS = 5;
+
+    private Connection connection;
+
+    private NoteAccessObject notes;
+
+    @Before
+    public void setUp() throws SQLException {
+
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        notes = new NoteAccessObject(connection);
+
+        final List<Note> elements = new ArrayList<>(ROWS);
+
+        for (int i = 0; i < ROWS; i++) {
+            elements.add(new NoteImpl.Builder("Note " + i).setOwnerId("project-" + i % 10).setContent("Content " + i).build());
+        }
+
+        assertTrue(notes.insertAll(elements));
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void findAll() {
+
+        final long bulk = bestOf(notes::findAll);
+        final long perId = bestOf(() -> notes.getValues("ID").stream().map(notes::findById).collect(Collectors.toList()));
+
+        System.out.printf("findAll of %d rows: single scan %.2f ms, per id %.2f ms%n", ROWS, bulk / 1e6, perId / 1e6);
+    }
+
+    private static long bestOf(Runnable query) {
+
+        long best = Long.MAX_VALUE;
+
+        for (int i = 0; i < RUNS; i++) {
+
+            final long start = System.nanoTime();
+
+            query.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.data;
+
+import com.easymind.api.entities.Note;
+import com.easymind.core.entities.NoteImpl;
+import com.easymind.core.utils.metrics.LatencyHistogram;
+import com.easymind.core.utils.metrics.Metrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Regression test of the single scan {@link AbstractAccessObject#findAll()}, compared with the former path reading the
+ * ids then each row by id. The timings are measured by {@link FindAllBenchmark}.
+ */
+
+public class FindAllTest {
+
+    private static final int ROWS = 5_000;
+
+    private Connection connection;
+
+    private NoteAccessObject notes;
+
+    @Before
+    public void setUp() throws SQLException {
+
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        notes = new NoteAccessObject(connection);
+
+        final List<Note> elements = new ArrayList<>(ROWS);
+
+        for (int i = 0; i < ROWS; i++) {
+            elements.add(new NoteImpl.Builder("Note " + i).setOwnerId("project-" + i % 10).setContent("Content " + i).build());
+        }
+
+        assertTrue(notes.insertAll(elements));
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void findAllReadsEveryRowWithASingleQuery() {
+
+        final long findAllCount = getCallCount("findAll");
+        final long findByIdCount = getCallCount("findById");
+
+        final List<Note> elements = notes.findAll();
+
+        assertEquals(ROWS, elements.size());
+        assertEquals(findAllCount + 1, getCallCount("findAll"));
+        assertEquals("findAll must not look rows up one by one", findByIdCount, getCallCount("findById"));
+    }
+
+    @Test
+    public void findAllMatchesPerIdLookups() {
+
+        final Map<String, String> bulk = titlesById(notes.findAll());
+        final Map<String, String> perId = titlesById(findAllById());
+
+        assertEquals(perId, bulk);
+    }
+
+    /**
+     * The former findAll, issuing one query per row.
+     */
+
+    private List<Note> findAllById() {
+        return notes.getValues("ID").stream().map(notes::findById).collect(Collectors.toList());
+    }
+
+    private long getCallCount(String method) {
+
+        final LatencyHistogram histogram = Metrics.getQueryMetrics("NOTES").getHistograms().get(method);
+
+        return histogram == null ? 0 : histogram.getCount();
+    }
+
+    private static Map<String, String> titlesById(List<Note> elements) {
+        return elements.stream().collect(Collectors.toMap(Note::getId, Note::getTitle));
+    }
+}
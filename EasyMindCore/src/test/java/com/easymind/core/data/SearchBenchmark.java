@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.data;
+
+import com.easymind.api.entities.Note;
+import com.easymind.core.entities.NoteImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Times {@link ProjectItemAccessObject#search(String, String, int)} over 100k notes. Excluded from the test task, run
+ * with {@code gradle :EasyMindCore:benchmark}.
+ */
+
+public class SearchBenchmark {
+
+    private static final int NOTES = 100_000;
+
+    private static final int RUNS = 20;
+
+    private static final int VOCABULARY = 5_000;
+
+    /**
+     * Terms from the most frequent to the rarest, then two words and a prefix.
+     */
+
+    private static final String[] QUERIES = {"common", "term10", "term300", "term3000", "term10 term300", "term49"};
+
+    private Connection connection;
+
+    private NoteAccessObject notes;
+
+    @Before
+    public void setUp() throws SQLException {
+
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        notes = new NoteAccessObject(connection);
+
+        final Random random = new Random(42);
+        final List<Note> elements = new ArrayList<>(NOTES);
+
+        for (int i = 0; i < NOTES; i++) {
+
+            final StringBuilder content = new StringBuilder();
+
+            content.append("common");
+
+            // Zipf-like: the low term numbers are much more frequent than the high ones.
+            for (int word = 0; word < 40; word++) {
+                content.append(" term").append((int) Math.pow(VOCABULARY, random.nextDouble()));
+            }
+
+            elements.add(new NoteImpl.Builder("Note " + i).setOwnerId("project-" + i % 100).setContent(content.toString()).build());
+        }
+
+        assertTrue(notes.insertAll(elements));
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void search() throws SQLException {
+
+        for (String query : QUERIES) {
+
+            final long matches = count(query);
+
+            long best = Long.MAX_VALUE;
+            long ownerBest = Long.MAX_VALUE;
+
+            for (int run = 0; run < RUNS; run++) {
+
+                long start = System.nanoTime();
+
+                notes.search(null, query, 20);
+                best = Math.min(best, System.nanoTime() - start);
+
+                start = System.nanoTime();
+
+                notes.search("project-7", query, 20);
+                ownerBest = Math.min(ownerBest, System.nanoTime() - start);
+            }
+
+            System.out.printf("search '%s' over %d notes, %d matches: top 20 in %.2f ms, within one project %.2f ms%n",
+                    query, NOTES, matches, best / 1e6, ownerBest / 1e6);
+        }
+    }
+
+    private long count(String query) throws SQLException {
+
+        final StringJoiner match = new StringJoiner(" ");
+
+        for (String word : query.split(" ")) {
+            match.add('"' + word + '"');
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) FROM NOTES_FTS WHERE NOTES_FTS MATCH ?")) {
+
+            statement.setString(1, match + "*");
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.data;
+
+import com.easymind.api.data.SearchResult;
+import com.easymind.api.entities.Note;
+import com.easymind.core.entities.NoteImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the full-text search of {@link ProjectItemAccessObject#search(String, String, int)}.
+ */
+
+public class SearchTest {
+
+    private Connection connection;
+
+    private NoteAccessObject notes;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        notes = new NoteAccessObject(connection);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void lastWordMatchesAsPrefix() {
+
+        final Note release = insert("project", "Planning", "The release is planned for next week.");
+
+        insert("project", "Groceries", "Apples and relish.");
+
+        assertEquals(List.of(release.getId()), ids(notes.search(null, "planned rele", 10)));
+        assertTrue(notes.search(null, "rele planned", 10).isEmpty());
+    }
+
+    @Test
+    public void wordsMatchIgnoringCaseAndDiacritics() {
+
+        final Note note = insert("project", "Café", "Crème brûlée recipe.");
+
+        assertEquals(List.of(note.getId()), ids(notes.search(null, "CREME brulee", 10)));
+        assertEquals(List.of(note.getId()), ids(notes.search(null, "cafe", 10)));
+    }
+
+    @Test
+    public void resultsAreOrderedByRelevance() {
+
+        final Note rare = insert("project", "Meeting", "Budget review, then a long discussion about the roadmap and hiring.");
+        final Note frequent = insert("project", "Budget", "Budget, budget and budget.");
+
+        assertEquals(List.of(frequent.getId(), rare.getId()), ids(notes.search(null, "budget", 10)));
+    }
+
+    @Test
+    public void snippetHighlightsMatchedTerms() {
+
+        insert("project", "Notes", "Some introduction. " + "Unrelated words. ".repeat(20) + "The deadline is Friday.");
+
+        final String snippet = notes.search(null, "deadline", 10).get(0).getSnippet();
+
+        assertTrue(snippet, snippet.startsWith("…"));
+        assertTrue(snippet, snippet.contains(SearchResult.HIGHLIGHT_START + "deadline" + SearchResult.HIGHLIGHT_END));
+        assertTrue(snippet, snippet.endsWith("Friday."));
+    }
+
+    @Test
+    public void snippetFallsBackToTheTitle() {
+
+        insert("project", "Quarterly report", "Nothing to see here.");
+
+        assertEquals(SearchResult.HIGHLIGHT_START + "Quarterly" + SearchResult.HIGHLIGHT_END + " report",
+                notes.search(null, "quarterly", 10).get(0).getSnippet());
+    }
+
+    @Test
+    public void ownerFilterRestrictsResults() {
+
+        final Note first = insert("first", "Ideas", "Shared keyword.");
+
+        insert("second", "Ideas", "Shared keyword.");
+
+        assertEquals(List.of(first.getId()), ids(notes.search("first", "keyword", 10)));
+        assertEquals(2, notes.search(null, "keyword", 10).size());
+    }
+
+    @Test
+    public void limitCapsResults() {
+
+        for (int i = 0; i < 5; i++) {
+            insert("project", "Note " + i, "Repeated term.");
+        }
+
+        assertEquals(3, notes.search(null, "term", 3).size());
+    }
+
+    @Test
+    public void updatesAndDeletesAreIndexed() {
+
+        final Note note = insert("project", "Draft", "Original wording.");
+
+        ((NoteImpl) note).setContent("Revised wording.");
+        assertTrue(notes.update(note));
+
+        assertTrue(notes.search(null, "original", 10).isEmpty());
+        assertEquals(List.of(note.getId()), ids(notes.search(null, "revised", 10)));
+
+        // A title change of an item whose content is not loaded keeps the indexed content.
+        final Note loaded = notes.findById(note.getId());
+
+        ((NoteImpl) loaded).setTitle("Final");
+        assertTrue(notes.update(loaded));
+
+        assertEquals(List.of(note.getId()), ids(notes.search(null, "final revised", 10)));
+        assertTrue(notes.search(null, "draft", 10).isEmpty());
+
+        assertTrue(notes.delete(note));
+        assertTrue(notes.search(null, "revised", 10).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void limitMustBePositive() {
+        notes.search(null, "term", 0);
+    }
+
+    private Note insert(String ownerId, String title, String content) {
+
+        final Note note = new NoteImpl.Builder(title).setOwnerId(ownerId).setContent(content).build();
+
+        assertTrue(notes.insert(note));
+
+        return note;
+    }
+
+    private static List<String> ids(List<SearchResult<Note>> results) {
+        return results.stream().map(result -> result.getItem().getId()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.entities;
+
+import com.easymind.api.entities.Note;
+import com.easymind.core.data.NoteAccessObject;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that {@link LazyContent} does not keep a failed load, so an item whose content could not be read is saved
+ * without overwriting its stored content.
+ */
+
+public class LazyContentTest {
+
+    @Test
+    public void failedLoadIsNotKept() {
+
+        final AtomicReference<String> stored = new AtomicReference<>();
+        final LazyContent content = new LazyContent(null, stored::get);
+
+        assertEquals("", content.get());
+        assertNull(content.peek());
+
+        stored.set("Stored content");
+
+        assertEquals("Stored content", content.get());
+        assertEquals("Stored content", content.peek());
+    }
+
+    @Test
+    public void saveAfterFailedLoadKeepsStoredContent() throws SQLException {
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+
+            final NoteAccessObject notes = new NoteAccessObject(connection);
+            final Note note = new NoteImpl.Builder("Note").setOwnerId("project").setContent("Stored content").build();
+
+            assertTrue(notes.insert(note));
+
+            final Note unreadable = new NoteImpl.Builder("Renamed")
+                    .setId(note.getId())
+                    .setOwnerId("project")
+                    .setCreationTime(note.getCreationTime())
+                    .setContentLoader(() -> null)
+                    .build();
+
+            assertEquals("", unreadable.getContent());
+            assertTrue(notes.update(unreadable));
+
+            assertEquals("Stored content", notes.findContent(note.getId()));
+            assertEquals("Renamed", notes.findById(note.getId()).getTitle());
+            assertEquals(1, notes.search("project", "Stored", 10).size());
+        }
+    }
+}
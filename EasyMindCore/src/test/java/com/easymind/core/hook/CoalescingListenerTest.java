@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.easymind.core.hook;
+
+import com.easymind.api.hook.Subscription;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the batches of the coalesced subscriptions of an {@link EventHandlerImpl}, through {@link CoalescingListener}.
+ * <br>The events are described as <i>id@version</i>, the id being the coalescing key.
+ */
+
+public class CoalescingListenerTest {
+
+    private static final long TIMEOUT = 5_000;
+
+    private final EventHandlerImpl handler = new EventHandlerImpl();
+
+    private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    private final Semaphore delivered = new Semaphore(0);
+
+    @After
+    public void tearDown() {
+        handler.shutdown(TIMEOUT);
+    }
+
+    @Test
+    public void sameKeyEventsAreMergedIntoTheLast() throws InterruptedException {
+
+        subscribe(200);
+
+        handler.handle(new TestEvent(1, 0));
+        handler.handle(new TestEvent(2, 0));
+        handler.handle(new TestEvent(1, 1));
+        handler.handle(new TestEvent(3, 0));
+        handler.handle(new TestEvent(1, 2));
+
+        awaitBatches(1);
+
+        // A merged event keeps the position of the first event of its key.
+        assertEquals(List.of(List.of("1@2", "2@0", "3@0")), batches);
+    }
+
+    @Test
+    public void listenerIsCalledOncePerWindow() throws InterruptedException {
+
+        subscribe(100);
+
+        for (int i = 0; i < 100; i++) {
+            handler.handle(new TestEvent(i % 10, i / 10));
+        }
+
+        awaitBatches(1);
+
+        handler.handle(new TestEvent(0, 10));
+
+        awaitBatches(1);
+
+        // No batch is left once the events of the second window have been delivered.
+        assertFalse(delivered.tryAcquire(300, TimeUnit.MILLISECONDS));
+        assertEquals(2, batches.size());
+        assertEquals(List.of("0@9", "1@9", "2@9", "3@9", "4@9", "5@9", "6@9", "7@9", "8@9", "9@9"), batches.get(0));
+        assertEquals(List.of("0@10"), batches.get(1));
+    }
+
+    @Test
+    public void shutdownDeliversThePendingBatch() {
+
+        subscribe(60_000);
+
+        handler.handle(new TestEvent(1, 0));
+        handler.handle(new TestEvent(1, 1));
+        handler.handle(new TestEvent(2, 0));
+
+        assertTrue(handler.shutdown(TIMEOUT));
+        assertEquals(List.of(List.of("1@1", "2@0")), batches);
+    }
+
+    @Test
+    public void unsubscribeDropsThePendingBatch() throws InterruptedException {
+
+        final Subscription subscription = subscribe(60_000);
+        final CountDownLatch received = new CountDownLatch(2);
+
+        // Called after the coalescing listener, which therefore holds both events.
+        handler.subscribe(TestEvent.class, event -> received.countDown());
+
+        handler.handle(new TestEvent(1, 0));
+        handler.handle(new TestEvent(2, 0));
+
+        assertTrue(received.await(TIMEOUT, TimeUnit.MILLISECONDS));
+
+        subscription.unsubscribe();
+
+        handler.handle(new TestEvent(3, 0));
+
+        assertFalse(subscription.isActive());
+        assertTrue(handler.shutdown(TIMEOUT));
+        assertTrue(batches.isEmpty());
+    }
+
+    private Subscription subscribe(long window) {
+        return handler.subscribe(TestEvent.class, TestEvent::getId, window, events -> {
+            batches.add(events.stream().map(event -> event.getId() + "@" + event.getVersion()).collect(Collectors.toList()));
+            delivered.release();
+        });
+    }
+
+    private void awaitBatches(int count) throws InterruptedException {
+        assertTrue(delivered.tryAcquire(count, TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.easymind.core.hook;
+
+import com.easymind.core.hook.EventHandlerImpl.RejectionPolicy;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the delivery of the events by the {@link EventHandlerImpl} workers, its rejection policies and its shutdown.
+ * <br>The event 0 blocks the worker until {@link #release} is counted down, to fill the queue on purpose.
+ */
+
+public class EventHandlerImplTest {
+
+    private static final long TIMEOUT = 5_000;
+
+    private final List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+
+    private final Map<Integer, Thread> deliveryThreads = new ConcurrentHashMap<>();
+
+    private final CountDownLatch blocked = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private EventHandlerImpl handler;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        handler.shutdown(TIMEOUT);
+    }
+
+    @Test
+    public void workerDeliversEventsInOrder() {
+
+        start(new EventHandlerImpl());
+
+        handler.handle(new TestEvent(1));
+        handler.handle(new TestEvent(2));
+        handler.handle(new TestEvent(3));
+
+        assertTrue(handler.shutdown(TIMEOUT));
+        assertEquals(List.of(1, 2, 3), delivered);
+        assertNotSame(Thread.currentThread(), deliveryThreads.get(1));
+        assertEquals(0, handler.getPendingCount());
+    }
+
+    @Test
+    public void blockPolicyWaitsForRoomInTheQueue() throws InterruptedException {
+
+        start(newHandler(RejectionPolicy.BLOCK));
+        blockWorker();
+
+        handler.handle(new TestEvent(1));
+
+        final Thread caller = new Thread(() -> handler.handle(new TestEvent(2)));
+
+        caller.start();
+
+        awaitWaiting(caller);
+        assertEquals(List.of(0), delivered);
+
+        release.countDown();
+        caller.join(TIMEOUT);
+
+        assertTrue(handler.shutdown(TIMEOUT));
+        assertEquals(List.of(0, 1, 2), delivered);
+    }
+
+    @Test
+    public void blockPolicyDeliversInlineOnTheWorker() throws InterruptedException {
+
+        final CountDownLatch handled = new CountDownLatch(1);
+
+        start(newHandler(RejectionPolicy.BLOCK));
+
+        // The worker fills the queue from a listener, then has no one to wait for.
+        handler.subscribe(TestEvent.class, event -> {
+            if (event.getId() == 10) {
+                handler.handle(new TestEvent(11));
+                handler.handle(new TestEvent(12));
+                handled.countDown();
+            }
+        });
+
+        handler.handle(new TestEvent(10));
+
+        assertTrue(handled.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertTrue(handler.shutdown(TIMEOUT));
+        assertEquals(List.of(10, 12, 11), delivered);
+        assertSame(deliveryThreads.get(10), deliveryThreads.get(12));
+    }
+
+    @Test
+    public void callerRunsPolicyDeliversOnTheCaller() throws InterruptedException {
+
+        start(newHandler(RejectionPolicy.CALLER_RUNS));
+        blockWorker();
+
+        handler.handle(new TestEvent(1));
+        handler.handle(new TestEvent(2));
+
+        assertEquals(List.of(0, 2), delivered);
+        assertSame(Thread.currentThread(), deliveryThreads.get(2));
+
+        release.countDown();
+
+        assertTrue(handler.shutdown(TIMEOUT));
+        assertEquals(List.of(0, 2, 1), delivered);
+    }
+
+    @Test
+    public void discardPolicyDropsTheEvent() throws InterruptedException {
+
+        start(newHandler(RejectionPolicy.DISCARD));
+        blockWorker();
+
+        handler.handle(new TestEvent(1));
+        handler.handle(new TestEvent(2));
+
+        release.countDown();
+
+        assertTrue(handler.shutdown(TIMEOUT));
+        assertEquals(List.of(0, 1), delivered);
+    }
+
+    @Test
+    public void shutdownDeliversThePendingEvents() throws InterruptedException {
+
+        start(new EventHandlerImpl());
+        blockWorker();
+
+        for (int i = 1; i <= 5; i++) {
+            handler.handle(new TestEvent(i));
+        }
+
+        assertEquals(5, handler.getPendingCount());
+
+        releaseLater();
+
+        assertTrue(handler.shutdown(TIMEOUT));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), delivered);
+
+        handler.handle(new TestEvent(6));
+
+        assertEquals(0, handler.getPendingCount());
+        assertEquals(6, delivered.size());
+    }
+
+    @Test
+    public void timedOutShutdownReturnsFalse() throws InterruptedException {
+
+        start(newHandler(RejectionPolicy.BLOCK));
+        blockWorker();
+
+        handler.handle(new TestEvent(1));
+
+        // The queue stays full, so the worker cannot be told to stop.
+        assertFalse(handler.shutdown(50));
+        assertEquals(List.of(0), delivered);
+
+        release.countDown();
+
+        assertTrue(handler.shutdown(TIMEOUT));
+        assertEquals(List.of(0, 1), delivered);
+    }
+
+    @Test
+    public void timedOutShutdownWaitingForTheWorkerReturnsFalse() throws InterruptedException {
+
+        start(new EventHandlerImpl());
+        blockWorker();
+
+        handler.handle(new TestEvent(1));
+
+        assertFalse(handler.shutdown(50));
+
+        release.countDown();
+
+        assertTrue(handler.shutdown(TIMEOUT));
+        assertEquals(List.of(0, 1), delivered);
+    }
+
+    @Test
+    public void eventHandledDuringShutdownIsDelivered() throws InterruptedException {
+
+        start(newHandler(RejectionPolicy.BLOCK));
+        blockWorker();
+
+        handler.handle(new TestEvent(1));
+
+        final Thread caller = new Thread(() -> handler.handle(new TestEvent(2)));
+
+        caller.start();
+        awaitWaiting(caller);
+
+        // The event 2 was accepted before the shutdown, and is queued either before or behind the stop marker.
+        releaseLater();
+
+        assertTrue(handler.shutdown(TIMEOUT));
+
+        caller.join(TIMEOUT);
+
+        assertEquals(List.of(0, 1, 2), delivered);
+        assertEquals(0, handler.getPendingCount());
+    }
+
+    private void start(EventHandlerImpl handler) {
+
+        this.handler = handler;
+
+        handler.subscribe(TestEvent.class, event -> {
+
+            delivered.add(event.getId());
+            deliveryThreads.put(event.getId(), Thread.currentThread());
+
+            if (event.getId() == 0) {
+
+                blocked.countDown();
+
+                try {
+                    release.await(TIMEOUT, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates a handler whose queue holds a single event.
+     */
+
+    private static EventHandlerImpl newHandler(RejectionPolicy rejectionPolicy) {
+        return new EventHandlerImpl.Builder().setCapacity(1).setRejectionPolicy(rejectionPolicy).build();
+    }
+
+    private void blockWorker() throws InterruptedException {
+        handler.handle(new TestEvent(0));
+        assertTrue(blocked.await(TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    private void releaseLater() {
+
+        final Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+
+        releaser.setDaemon(true);
+        releaser.start();
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+
+        final long deadline = System.currentTimeMillis() + TIMEOUT;
+
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue("Thread not waiting: " + thread.getState(), System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.hook;
+
+import com.easymind.api.EasyMind;
+import com.easymind.api.entities.Note;
+import com.easymind.api.events.ProjectItemEvent;
+import com.easymind.api.utils.cache.ProjectItemCacheStore;
+import com.easymind.core.EasyMindBuilder;
+import com.easymind.core.entities.NoteImpl;
+import com.easymind.core.events.NoteCreateEvent;
+import com.easymind.core.events.NoteDeleteEvent;
+import com.easymind.core.events.NoteUpdateEvent;
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the cache stores publish one event per element actually written or deleted, through their
+ * {@link EventPublisher}, in write-through and write-behind modes.
+ */
+
+public class EventPublisherTest {
+
+    private final List<String> created = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<String> updated = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<String> deleted = Collections.synchronizedList(new ArrayList<>());
+
+    private Connection connection;
+
+    private EasyMind easyMind;
+
+    @After
+    public void tearDown() throws SQLException {
+        easyMind.shutdown();
+        connection.close();
+    }
+
+    @Test
+    public void writeThroughAllPublishesOneEventPerElement() throws SQLException {
+
+        final ProjectItemCacheStore<Note> notes = start(0);
+        final Note first = newNote();
+        final Note second = newNote();
+        final Note third = newNote();
+
+        assertTrue(notes.writeThroughAll(List.of(first, second)));
+        assertTrue(notes.writeThroughAll(List.of(second, third)));
+
+        easyMind.shutdown();
+
+        assertIds(created, first, second, third);
+        assertIds(updated, second);
+        assertIds(deleted);
+    }
+
+    @Test
+    public void deleteThroughAllPublishesOnlyRealDeletes() throws SQLException {
+
+        final ProjectItemCacheStore<Note> notes = start(0);
+        final Note first = newNote();
+        final Note second = newNote();
+
+        assertTrue(notes.writeThroughAll(List.of(first, second)));
+        assertTrue(notes.deleteThroughAll(List.of(first, newNote(), second)));
+        assertTrue(notes.deleteThroughAll(List.of(first)));
+
+        easyMind.shutdown();
+
+        assertIds(deleted, first, second);
+    }
+
+    @Test
+    public void writeBehindFlushPublishesCommittedWrites() throws SQLException {
+
+        final ProjectItemCacheStore<Note> notes = start(60_000);
+        final Note kept = newNote();
+        final Note dropped = newNote();
+
+        assertTrue(notes.writeThroughAll(List.of(kept, dropped)));
+        assertTrue(notes.deleteThroughAll(List.of(dropped, newNote())));
+        assertTrue(created.isEmpty());
+
+        assertTrue(easyMind.flush());
+        assertTrue(notes.deleteThroughAll(List.of(kept)));
+
+        easyMind.shutdown();
+
+        // The insert and delete of the same element before a flush cancel out.
+        assertIds(created, kept);
+        assertIds(updated);
+        assertIds(deleted, kept);
+    }
+
+    private ProjectItemCacheStore<Note> start(long writeBehindDelay) throws SQLException {
+
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        easyMind = new EasyMindBuilder().setConnection(connection).setWriteBehindDelay(writeBehindDelay).build();
+
+        easyMind.getEventHandler().subscribe(NoteCreateEvent.class, event -> created.add(getId(event)));
+        easyMind.getEventHandler().subscribe(NoteUpdateEvent.class, event -> updated.add(getId(event)));
+        easyMind.getEventHandler().subscribe(NoteDeleteEvent.class, event -> deleted.add(getId(event)));
+
+        return easyMind.getNoteCacheStore();
+    }
+
+    /**
+     * Checks the ids of the received events, ignoring their order as they are delivered by several workers.
+     */
+
+    private static void assertIds(List<String> actual, Note... expected) {
+
+        final List<String> ids = new ArrayList<>(actual);
+
+        Collections.sort(ids);
+
+        assertEquals(Arrays.stream(expected).map(Note::getId).sorted().collect(Collectors.toList()), ids);
+    }
+
+    private static String getId(ProjectItemEvent<Note> event) {
+        return event.getProjectItem().getId();
+    }
+
+    private static Note newNote() {
+        return new NoteImpl.Builder("Note").setOwnerId("project").build();
+    }
+}
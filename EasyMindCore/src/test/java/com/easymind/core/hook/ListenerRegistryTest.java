@@ -0,0 +1,155 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.easymind.core.hook;
+
+import com.easymind.api.events.Event;
+import com.easymind.api.hook.Subscription;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the dispatch of the events of a {@link ListenerRegistry} through the type hierarchy, and the invalidation of
+ * its dispatch tables.
+ */
+
+public class ListenerRegistryTest {
+
+    private final ListenerRegistry registry = new ListenerRegistry();
+
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    public void superclassAndInterfaceListenersReceiveTheEvent() {
+
+        registry.subscribe(Event.class, event -> calls.add("event"));
+        registry.subscribe(TestEvent.class, event -> calls.add("test"));
+        registry.subscribe(Tagged.class, event -> calls.add("tagged"));
+        registry.subscribe(TaggedEvent.class, event -> calls.add("taggedEvent"));
+
+        registry.publish(new TaggedEvent(1));
+
+        assertEquals(List.of("event", "test", "tagged", "taggedEvent"), calls);
+
+        calls.clear();
+        registry.publish(new TestEvent(2));
+
+        assertEquals(List.of("event", "test"), calls);
+    }
+
+    @Test
+    public void listenersAreCalledInSubscriptionOrder() {
+
+        registry.subscribe(TaggedEvent.class, event -> calls.add("taggedEvent"));
+        registry.subscribe(Tagged.class, event -> calls.add("tagged"));
+        registry.subscribe(Event.class, event -> calls.add("event"));
+        registry.subscribe(TestEvent.class, event -> calls.add("test"));
+        registry.subscribe(TaggedEvent.class, event -> calls.add("taggedEvent2"));
+
+        registry.publish(new TaggedEvent(1));
+
+        assertEquals(List.of("taggedEvent", "tagged", "event", "test", "taggedEvent2"), calls);
+    }
+
+    @Test
+    public void subscriptionChangesInvalidateTheDispatchTable() {
+
+        final Subscription first = registry.subscribe(TestEvent.class, event -> calls.add("first"));
+
+        // Resolves the dispatch table of the class before the next subscriptions.
+        registry.publish(new TaggedEvent(1));
+
+        final Subscription second = registry.subscribe(Tagged.class, event -> calls.add("second"));
+
+        registry.publish(new TaggedEvent(2));
+
+        assertEquals(List.of("first", "first", "second"), calls);
+
+        first.unsubscribe();
+        calls.clear();
+        registry.publish(new TaggedEvent(3));
+
+        assertFalse(first.isActive());
+        assertTrue(second.isActive());
+        assertEquals(List.of("second"), calls);
+
+        second.unsubscribe();
+        calls.clear();
+        registry.publish(new TaggedEvent(4));
+
+        assertTrue(calls.isEmpty());
+        assertFalse(registry.hasListeners(TaggedEvent.class));
+    }
+
+    @Test
+    public void unsubscribeDuringDispatchSkipsTheListener() {
+
+        final List<Subscription> subscriptions = new ArrayList<>();
+
+        subscriptions.add(registry.subscribe(TestEvent.class, event -> {
+            calls.add("first");
+            subscriptions.get(1).unsubscribe();
+        }));
+        subscriptions.add(registry.subscribe(TestEvent.class, event -> calls.add("second")));
+
+        registry.publish(new TestEvent(1));
+
+        assertEquals(List.of("first"), calls);
+    }
+
+    @Test
+    public void failingListenerDoesNotStopTheOthers() {
+
+        registry.subscribe(TestEvent.class, event -> calls.add("before"));
+        registry.subscribe(TestEvent.class, event -> {
+            throw new IllegalStateException("Listener failure");
+        });
+        registry.subscribe(TestEvent.class, event -> calls.add("after"));
+
+        registry.publish(new TestEvent(1));
+        registry.publish(new TestEvent(2));
+
+        assertEquals(List.of("before", "after", "before", "after"), calls);
+    }
+
+    @Test
+    public void hasListenersChecksTheSupertypes() {
+
+        assertFalse(registry.hasListeners(TestEvent.class));
+
+        registry.subscribe(Tagged.class, event -> calls.add("tagged"));
+
+        assertTrue(registry.hasListeners(TaggedEvent.class));
+        assertFalse(registry.hasListeners(TestEvent.class));
+        assertTrue(calls.isEmpty());
+    }
+
+    private interface Tagged extends Event {}
+
+    private static final class TaggedEvent extends TestEvent implements Tagged {
+
+        private TaggedEvent(int id) {
+            super(id);
+        }
+    }
+}
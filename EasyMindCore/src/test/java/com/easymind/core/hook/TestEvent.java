@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.easymind.core.hook;
+
+import com.easymind.api.EasyMind;
+import com.easymind.api.events.Event;
+
+import javax.annotation.Nonnull;
+
+/**
+ * An event without EasyMind instance, identified by an id and a version, for the event handler tests.
+ */
+
+class TestEvent implements Event {
+
+    private final int id;
+
+    private final int version;
+
+    TestEvent(int id) {
+        this(id, 0);
+    }
+
+    TestEvent(int id, int version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    @Override
+    public void onEvent() {}
+
+    @Nonnull
+    @Override
+    public EasyMind getEasyMind() {
+        throw new UnsupportedOperationException("No EasyMind instance in the event handler tests");
+    }
+
+    @Override
+    public long getTime() {
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{id=" + id + ", version=" + version + '}';
+    }
+}
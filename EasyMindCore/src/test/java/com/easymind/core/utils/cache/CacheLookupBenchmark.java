@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils.cache;
+
+import com.easymind.api.entities.Note;
+import com.easymind.core.data.NoteAccessObject;
+import com.easymind.core.entities.NoteImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Times {@link AbstractCacheStore#getElementById(String)} over a large cache. Excluded from the test task, run with
+ * {@code gradle :EasyMindCore:benchmark}.
+ */
+
+public class CacheLookupBenchmark {
+
+    private static final int ELEMENTS = 100_000;
+
+    private static final int RUNS = 5;
+
+    private static final String OWNER_ID = "project";
+
+    private Connection connection;
+
+    private ProjectItemCacheStoreImpl<Note> store;
+
+    private List<Note> elements;
+
+    @Before
+    public void setUp() throws SQLException {
+
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+
+        final NoteAccessObject notes = new NoteAccessObject(connection);
+
+        store = new ProjectItemCacheStoreImpl<>(notes);
+        elements = new ArrayList<>(ELEMENTS);
+
+        for (int i = 0; i < ELEMENTS; i++) {
+            elements.add(new NoteImpl.Builder("Note " + i).setOwnerId(OWNER_ID).setContent("Content " + i).build());
+        }
+
+        assertTrue(notes.insertAll(elements));
+        assertEquals(ELEMENTS, store.getElementsByOwnerId(OWNER_ID).size());
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        store.close();
+        connection.close();
+    }
+
+    @Test
+    public void getElementById() {
+
+        long best = Long.MAX_VALUE;
+
+        for (int run = 0; run < RUNS; run++) {
+
+            final long start = System.nanoTime();
+
+            for (Note note : elements) {
+                store.getElementById(note.getId());
+            }
+
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.printf("getElementById with %d cached elements: %.1f ns per lookup%n", ELEMENTS, (double) best / ELEMENTS);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils.cache;
+
+import com.easymind.api.entities.Note;
+import com.easymind.core.data.NoteAccessObject;
+import com.easymind.core.entities.NoteImpl;
+import com.easymind.core.utils.metrics.LatencyHistogram;
+import com.easymind.core.utils.metrics.Metrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that {@link AbstractCacheStore#getElementById(String)} only queries the data source on a real miss. The
+ * lookups of a large cache are timed by {@link CacheLookupBenchmark}.
+ */
+
+public class CacheLookupTest {
+
+    private static final int ELEMENTS = 100_000;
+
+    private static final String OWNER_ID = "project";
+
+    private Connection connection;
+
+    private NoteAccessObject notes;
+
+    private ProjectItemCacheStoreImpl<Note> store;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        notes = new NoteAccessObject(connection);
+        store = new ProjectItemCacheStoreImpl<>(notes);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        store.close();
+        connection.close();
+    }
+
+    @Test
+    public void cacheHitIssuesNoQuery() {
+
+        final Note note = newNote(0);
+
+        assertTrue(store.writeThrough(note));
+
+        final long queries = getFindByIdCount();
+
+        for (int i = 0; i < 3; i++) {
+            assertSame(note, store.getElementById(note.getId()));
+        }
+
+        assertEquals(queries, getFindByIdCount());
+    }
+
+    @Test
+    public void missQueriesOnceThenHits() {
+
+        final Note note = newNote(0);
+
+        assertTrue(notes.insert(note));
+
+        final long queries = getFindByIdCount();
+        final Note loaded = store.getElementById(note.getId());
+
+        assertEquals(note.getId(), loaded.getId());
+        assertEquals(queries + 1, getFindByIdCount());
+
+        assertSame(loaded, store.getElementById(note.getId()));
+        assertEquals(queries + 1, getFindByIdCount());
+    }
+
+    @Test
+    public void absentIdQueriesOnce() {
+
+        final long queries = getFindByIdCount();
+
+        assertNull(store.getElementById("missing"));
+        assertNull(store.getElementById("missing"));
+
+        assertEquals(queries + 1, getFindByIdCount());
+        assertEquals(1, store.getAbsentHitCount());
+    }
+
+    @Test
+    public void absentIdInsertedByAnotherWriterIsFound() {
+
+        final Note note = newNote(0);
+
+        assertNull(store.getElementById(note.getId()));
+
+        // Inserted without the cache, which only learns it from the change log.
+        assertTrue(notes.insert(note));
+
+        final Note loaded = store.getElementById(note.getId());
+
+        assertEquals(note.getId(), loaded.getId());
+        assertEquals(0, store.getAbsentHitCount());
+    }
+
+    @Test
+    public void lookupsOfALargeCacheIssueNoQuery() {
+
+        final List<Note> elements = new ArrayList<>(ELEMENTS);
+
+        for (int i = 0; i < ELEMENTS; i++) {
+            elements.add(newNote(i));
+        }
+
+        assertTrue(notes.insertAll(elements));
+        assertEquals(ELEMENTS, store.getElementsByOwnerId(OWNER_ID).size());
+
+        final long queries = getFindByIdCount();
+
+        for (Note note : elements) {
+            assertEquals(note.getId(), store.getElementById(note.getId()).getId());
+        }
+
+        assertEquals(queries, getFindByIdCount());
+    }
+
+    private static Note newNote(int index) {
+        return new NoteImpl.Builder("Note " + index).setOwnerId(OWNER_ID).setContent("Content " + index).build();
+    }
+
+    private static long getFindByIdCount() {
+
+        final LatencyHistogram histogram = Metrics.getQueryMetrics("NOTES").getHistograms().get("findById");
+
+        return histogram == null ? 0 : histogram.getCount();
+    }
+}
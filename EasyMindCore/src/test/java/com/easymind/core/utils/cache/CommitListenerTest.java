@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils.cache;
+
+import com.easymind.api.entities.Note;
+import com.easymind.core.data.NoteAccessObject;
+import com.easymind.core.entities.NoteImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Checks the commits reported by a cache store to its {@link CommitListener}.
+ */
+
+public class CommitListenerTest {
+
+    private static final String OWNER_ID = "project";
+
+    private Connection connection;
+
+    private ProjectItemCacheStoreImpl<Note> store;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        store = new ProjectItemCacheStoreImpl<>(new NoteAccessObject(connection));
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        store.close();
+        connection.close();
+    }
+
+    @Test
+    public void flushesNotifyWithoutTheStoreLock() {
+
+        final AtomicInteger commits = new AtomicInteger();
+        final AtomicBoolean locked = new AtomicBoolean();
+
+        store.enableWriteBehind("CommitListenerTest-Writer", 60_000);
+        store.setCommitListener((inserted, updated, deleted) -> {
+            commits.incrementAndGet();
+            locked.compareAndSet(false, store.lock.isHeldByCurrentThread());
+        });
+
+        store.writeThrough(newNote("First", "tag"));
+        assertEquals(1, store.getElementsByTags(List.of("tag")).size());
+
+        store.writeThrough(newNote("Second", "tag"));
+        store.clear();
+
+        assertEquals(2, commits.get());
+        assertFalse(locked.get());
+    }
+
+    private static Note newNote(String title, String tag) {
+        return new NoteImpl.Builder(title).setOwnerId(OWNER_ID).setTags(List.of(tag)).build();
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils.cache;
+
+import com.easymind.api.entities.Note;
+import com.easymind.core.data.NoteAccessObject;
+import com.easymind.core.entities.NoteImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs concurrent writes, deletes, lookups and iterations against a cache store, then checks that no update has been
+ * lost in the cache nor in the database.
+ */
+
+public class ConcurrentCacheStoreTest {
+
+    private static final String OWNER_ID = "project";
+
+    private static final int WRITERS = 4;
+
+    private static final int READERS = 4;
+
+    private static final int ELEMENTS_PER_WRITER = 25;
+
+    private static final int ROUNDS = 40;
+
+    private Connection connection;
+
+    private NoteAccessObject notes;
+
+    private ProjectItemCacheStoreImpl<Note> store;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        notes = new NoteAccessObject(connection);
+        store = new ProjectItemCacheStoreImpl<>(notes);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        store.close();
+        connection.close();
+    }
+
+    @Test
+    public void concurrentAccessLosesNoUpdate() throws Exception {
+
+        // The last expected title of each id, null once deleted.
+        final Map<String, String> expected = new ConcurrentHashMap<>();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+
+        final List<Future<?>> writers = new ArrayList<>();
+        final List<Future<?>> readers = new ArrayList<>();
+
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+
+                final int writer = w;
+
+                writers.add(executor.submit((Callable<Void>) () -> {
+
+                    start.await();
+
+                    for (int round = 0; round < ROUNDS; round++) {
+
+                        for (int i = 0; i < ELEMENTS_PER_WRITER; i++) {
+
+                            final String id = "note-" + writer + "-" + i;
+                            final Note note = newNote(id, "Round " + round);
+
+                            // Every third element is deleted once written, on odd rounds.
+                            if (i % 3 == 0 && round % 2 == 1) {
+                                assertTrue(store.writeThrough(note));
+                                assertTrue(store.deleteThrough(note));
+                                expected.remove(id);
+                            } else {
+                                assertTrue(store.writeThrough(note));
+                                expected.put(id, note.getTitle());
+                            }
+                        }
+                    }
+
+                    return null;
+                }));
+            }
+
+            for (int r = 0; r < READERS; r++) {
+
+                final int reader = r;
+
+                readers.add(executor.submit((Callable<Void>) () -> {
+
+                    start.await();
+
+                    while (writing.get()) {
+
+                        switch (reader % 3) {
+                            case 0:
+                                store.getElementById("note-" + reader % WRITERS + "-" + reader);
+                                break;
+                            case 1:
+                                assertTrue(store.stream().allMatch(note -> note.getId().startsWith("note-")));
+                                break;
+                            default:
+                                final Iterator<Note> iterator = store.iterator();
+
+                                while (iterator.hasNext()) {
+                                    assertNotNull(iterator.next());
+                                }
+                        }
+                    }
+
+                    return null;
+                }));
+            }
+
+            start.countDown();
+
+            // Failures, e.g. a ConcurrentModificationException, are rethrown by get().
+            for (Future<?> future : writers) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+
+            writing.set(false);
+
+            for (Future<?> future : readers) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            writing.set(false);
+            executor.shutdownNow();
+        }
+
+        for (int w = 0; w < WRITERS; w++) {
+
+            for (int i = 0; i < ELEMENTS_PER_WRITER; i++) {
+
+                final String id = "note-" + w + "-" + i;
+                final String title = expected.get(id);
+                final Note cached = store.getElementById(id);
+                final Note stored = notes.findById(id);
+
+                if (title == null) {
+                    assertNull(cached);
+                    assertNull(stored);
+                } else {
+                    assertEquals(title, cached.getTitle());
+                    assertEquals(title, stored.getTitle());
+                }
+            }
+        }
+
+        assertEquals(expected.size(), store.size());
+        assertEquals(expected.size(), notes.getCount());
+    }
+
+    private static Note newNote(String id, String title) {
+        return new NoteImpl.Builder(title).setOwnerId(OWNER_ID).setId(id).build();
+    }
+}
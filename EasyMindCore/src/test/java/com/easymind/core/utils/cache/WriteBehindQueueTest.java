@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 Exalow (Discord: Exalow#6074)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.easymind.core.utils.cache;
+
+import com.easymind.api.entities.Note;
+import com.easymind.core.data.NoteAccessObject;
+import com.easymind.core.entities.NoteImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a write dropped by a {@link WriteBehindQueue} is reported by the next flush, whichever thread dropped it.
+ */
+
+public class WriteBehindQueueTest {
+
+    private Connection connection;
+
+    private NoteAccessObject notes;
+
+    private WriteBehindQueue<Note> queue;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        notes = new NoteAccessObject(connection);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        queue.close();
+        connection.close();
+    }
+
+    @Test
+    public void failingWriteIsDroppedAfterMaxAttempts() {
+
+        queue = new WriteBehindQueue<>(notes, "WriteBehindQueueTest-Writer", 60_000);
+        queue.insert(newStoredNote());
+
+        for (int attempt = 0; attempt < WriteBehindQueue.MAX_ATTEMPTS; attempt++) {
+            assertFalse(queue.flush());
+        }
+
+        assertEquals(1, queue.getDroppedCount());
+        assertTrue(queue.flush());
+    }
+
+    @Test
+    public void writeDroppedInBackgroundFailsNextFlush() throws InterruptedException {
+
+        queue = new WriteBehindQueue<>(notes, "WriteBehindQueueTest-Writer", 10);
+        queue.insert(newStoredNote());
+
+        final long deadline = System.currentTimeMillis() + 10_000;
+
+        while (queue.getDroppedCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, queue.getDroppedCount());
+        assertFalse(queue.flush());
+        assertTrue(queue.flush());
+    }
+
+    /**
+     * Returns a note already stored, so inserting it again fails on every attempt.
+     */
+
+    private Note newStoredNote() {
+
+        final Note note = new NoteImpl.Builder("Note").setOwnerId("project").build();
+
+        assertTrue(notes.insert(note));
+
+        return note;
+    }
+}